@@ -34,6 +34,10 @@ import java.util.List;
 
 import javax.measure.UnitConverter;
 
+import tec.units.ri.spi.Metrics;
+import tec.units.ri.spi.MetricsListener;
+import tec.units.ri.spi.MetricsListener.Operation;
+
 /**
  * <p>
  * The base class for our {@link UnitConverter} implementations.
@@ -74,7 +78,7 @@ public abstract class AbstractConverter implements UnitConverter {
    * @return the concatenation of this converter with that converter.
    */
   public AbstractConverter concatenate(AbstractConverter that) {
-    return (that == IDENTITY) ? this : new Pair(this, that);
+    return (that == IDENTITY) ? this : (AbstractConverter) concatenate((UnitConverter) that);
   }
 
   public boolean isIdentity() {
@@ -90,9 +94,22 @@ public abstract class AbstractConverter implements UnitConverter {
   @Override
   public abstract AbstractConverter inverse();
 
+  /**
+   * Concatenates this converter with the specified one. When the specified converter is a {@link Pair}, this converter is first concatenated with
+   * its left converter, so that the simplification rules of the converter types (e.g. merging scales, cancelling inverse functions) apply across the
+   * pair boundary.
+   */
   @Override
   public UnitConverter concatenate(UnitConverter converter) {
-    return (converter == IDENTITY) ? this : new Pair(this, converter);
+    if (converter == IDENTITY)
+      return this;
+    if (converter instanceof Pair) {
+      Pair pair = (Pair) converter;
+      UnitConverter head = concatenate(pair.left);
+      if (!Pair.isPair(head, this, pair.left))
+        return head.concatenate(pair.right);
+    }
+    return new Pair(this, converter);
   }
 
   @Override
@@ -108,7 +125,15 @@ public abstract class AbstractConverter implements UnitConverter {
    */
   public Number convert(Number value) {
     if (value != null) {
-      return convert(value.doubleValue());
+      MetricsListener metrics = Metrics.listener();
+      if (metrics == null)
+        return convert(value.doubleValue());
+      long start = System.nanoTime();
+      try {
+        return convert(value.doubleValue());
+      } finally {
+        metrics.operationCompleted(Operation.CONVERT, System.nanoTime() - start);
+      }
     } else {
       throw new IllegalArgumentException("Value cannot be null");
     }
@@ -186,6 +211,29 @@ public abstract class AbstractConverter implements UnitConverter {
       this.right = right;
     }
 
+    /**
+     * Concatenates the right converter of this pair with the specified one first, so that simplifications apply across the pair boundary.
+     */
+    @Override
+    public UnitConverter concatenate(UnitConverter converter) {
+      if (converter == IDENTITY)
+        return this;
+      UnitConverter tail = right.concatenate(converter);
+      if (!isPair(tail, right, converter))
+        return left.concatenate(tail);
+      return super.concatenate(converter);
+    }
+
+    /**
+     * Indicates if the specified converter is the plain pair of the specified converters (no simplification took place).
+     */
+    private static boolean isPair(UnitConverter converter, UnitConverter left, UnitConverter right) {
+      if (!(converter instanceof Pair))
+        return false;
+      Pair pair = (Pair) converter;
+      return pair.left == left && pair.right == right;
+    }
+
     public boolean isLinear() {
       return left.isLinear() && right.isLinear();
     }
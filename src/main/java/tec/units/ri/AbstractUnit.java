@@ -45,6 +45,9 @@ import tec.units.ri.function.MultiplyConverter;
 import tec.units.ri.function.RationalConverter;
 import tec.units.ri.quantity.QuantityDimension;
 import tec.units.ri.spi.DimensionalModel;
+import tec.units.ri.spi.Metrics;
+import tec.units.ri.spi.MetricsListener;
+import tec.units.ri.spi.MetricsListener.Operation;
 import tec.units.ri.unit.AlternateUnit;
 import tec.units.ri.unit.AnnotatedUnit;
 import tec.units.ri.unit.ProductUnit;
@@ -290,23 +293,48 @@ public abstract class AbstractUnit<Q extends Quantity<Q>> implements Unit<Q>, Co
   }
 
   public final UnitConverter getConverterTo(Unit<Q> that) throws UnconvertibleException {
+    MetricsListener metrics = Metrics.listener();
+    if (metrics == null)
+      return internalGetConverterTo(that);
+    long start = System.nanoTime();
+    try {
+      return internalGetConverterTo(that);
+    } finally {
+      metrics.operationCompleted(Operation.GET_CONVERTER, System.nanoTime() - start);
+    }
+  }
+
+  private UnitConverter internalGetConverterTo(Unit<Q> that) throws UnconvertibleException {
     if ((this == that) || this.equals(that))
       return AbstractConverter.IDENTITY; // Shortcut.
     Unit<Q> thisSystemUnit = this.getSystemUnit();
     Unit<Q> thatSystemUnit = that.getSystemUnit();
     if (!thisSystemUnit.equals(thatSystemUnit))
       try {
-        return getConverterToAny(that);
+        return internalGetConverterToAny(that);
       } catch (IncommensurableException e) {
         throw new UnconvertibleException(e);
       }
     UnitConverter thisToSI = this.getSystemConverter();
-    UnitConverter thatToSI = that.getConverterTo(thatSystemUnit);
+    UnitConverter thatToSI = (that instanceof AbstractUnit) ? ((AbstractUnit<Q>) that).internalGetConverterTo(thatSystemUnit) : that
+        .getConverterTo(thatSystemUnit); // Not timed twice.
     return thatToSI.inverse().concatenate(thisToSI);
   }
 
-  @SuppressWarnings("rawtypes")
   public final UnitConverter getConverterToAny(Unit<?> that) throws IncommensurableException, UnconvertibleException {
+    MetricsListener metrics = Metrics.listener();
+    if (metrics == null)
+      return internalGetConverterToAny(that);
+    long start = System.nanoTime();
+    try {
+      return internalGetConverterToAny(that);
+    } finally {
+      metrics.operationCompleted(Operation.GET_CONVERTER_ANY, System.nanoTime() - start);
+    }
+  }
+
+  @SuppressWarnings("rawtypes")
+  private UnitConverter internalGetConverterToAny(Unit<?> that) throws IncommensurableException, UnconvertibleException {
     if (!isCompatible(that))
       throw new IncommensurableException(this + " is not compatible with " + that);
     AbstractUnit thatAbstr = (AbstractUnit) that; // Since both units are
@@ -440,13 +468,7 @@ public abstract class AbstractUnit<Q extends Quantity<Q>> implements Unit<Q>, Co
    *           if <code>n == 0</code> or if this operation would result in an unit with a fractional exponent.
    */
   public final Unit<?> root(int n) {
-    if (n > 0)
-      return ProductUnit.getRootInstance(this, n);
-    else if (n == 0)
-      throw new ArithmeticException("Root's order of zero");
-    else
-      // n < 0
-      return ONE.divide(this.root(-n));
+    return ProductUnit.getRootInstance(this, n); // Scales the exponents directly.
   }
 
   /**
@@ -457,13 +479,11 @@ public abstract class AbstractUnit<Q extends Quantity<Q>> implements Unit<Q>, Co
    * @return the result of raising this unit to the exponent.
    */
   public final Unit<?> pow(int n) {
-    if (n > 0)
-      return this.multiply(this.pow(n - 1));
-    else if (n == 0)
+    if (n == 0)
       return ONE;
-    else
-      // n < 0
-      return ONE.divide(this.pow(-n));
+    if (n == 1)
+      return this;
+    return ProductUnit.getPowInstance(this, n); // Scales the exponents directly.
   }
 
   // //////////////////////////////////////////////////////////////
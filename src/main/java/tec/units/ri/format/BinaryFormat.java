@@ -0,0 +1,744 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.format;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UTFDataFormatException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.measure.Dimension;
+import javax.measure.Quantity;
+import javax.measure.Unit;
+import javax.measure.UnitConverter;
+
+import tec.units.ri.AbstractConverter;
+import tec.units.ri.AbstractUnit;
+import tec.units.ri.function.AddConverter;
+import tec.units.ri.function.CompiledConverter;
+import tec.units.ri.function.ExpConverter;
+import tec.units.ri.function.LogConverter;
+import tec.units.ri.function.MultiplyConverter;
+import tec.units.ri.function.PiMultiplierConverter;
+import tec.units.ri.function.RationalConverter;
+import tec.units.ri.quantity.Quantities;
+import tec.units.ri.quantity.QuantityDimension;
+import tec.units.ri.unit.AlternateUnit;
+import tec.units.ri.unit.AnnotatedUnit;
+import tec.units.ri.unit.BaseUnit;
+import tec.units.ri.unit.ProductUnit;
+import tec.units.ri.unit.TransformedUnit;
+
+/**
+ * <p>
+ * This class provides a compact binary encoding of {@link Unit units} and {@link Quantity quantities}, decoded without any text parsing.
+ * </p>
+ * 
+ * <p>
+ * A unit is written either as the index of the unit in a registry shared by the writer and the reader, or structurally: base units by symbol and
+ * dimension, alternate, transformed and annotated units with their parent unit, product units with their elements, and converters with their
+ * parameters. A quantity is written as its tagged value followed by its unit; values are decoded with their original type ({@link Integer},
+ * {@link Long}, {@link Float}, {@link Double}, {@link Short}, {@link Byte}, {@link BigInteger} or {@link BigDecimal}), other numbers are rejected.
+ * For example:<br>
+ * <code>
+ *     BinaryFormat format = BinaryFormat.getInstance(Arrays.asList(WATT, KILO(WATT)));<br>
+ *     format.write(Quantities.getQuantity(12, KILO(WATT)), out); // 4 bytes: tag and value, tag and index in the registry
+ * </code>
+ * </p>
+ *
+ * @version 0.1
+ */
+public class BinaryFormat {
+
+  private static final int UNIT_ONE = 0;
+  private static final int UNIT_REF = 1;
+  private static final int UNIT_BASE = 2;
+  private static final int UNIT_ALTERNATE = 3;
+  private static final int UNIT_TRANSFORMED = 4;
+  private static final int UNIT_PRODUCT = 5;
+  private static final int UNIT_ANNOTATED = 6;
+
+  /**
+   * The largest length or count read, so that a corrupt length fails with an <code>IOException</code> rather than an unbounded allocation (the
+   * limit of the strings written by {@link DataOutput#writeUTF(String)}).
+   */
+  private static final int MAX_LENGTH = 0xFFFF;
+
+  private static final int CONVERTER_IDENTITY = 0;
+  private static final int CONVERTER_ADD = 1;
+  private static final int CONVERTER_MULTIPLY = 2;
+  private static final int CONVERTER_RATIONAL = 3;
+  private static final int CONVERTER_EXP = 4;
+  private static final int CONVERTER_LOG = 5;
+  private static final int CONVERTER_PI_MULTIPLIER = 6;
+  private static final int CONVERTER_PI_DIVISOR = 7;
+  private static final int CONVERTER_PAIR = 8;
+
+  private static final int VALUE_INTEGER = 0;
+  private static final int VALUE_LONG = 1;
+  private static final int VALUE_FLOAT = 2;
+  private static final int VALUE_DOUBLE = 3;
+  private static final int VALUE_SHORT = 4;
+  private static final int VALUE_BYTE = 5;
+  private static final int VALUE_BIG_INTEGER = 6;
+  private static final int VALUE_BIG_DECIMAL = 7;
+
+  /**
+   * Holds the format without registry.
+   */
+  private static final BinaryFormat DEFAULT = new BinaryFormat(null);
+
+  /**
+   * Holds the units of the registry (index to unit).
+   */
+  private final Unit<?>[] units;
+
+  /**
+   * Holds the indices of the registry (unit to index).
+   */
+  private final Map<Unit<?>, Integer> indices;
+
+  /**
+   * Creates a format encoding the units of the specified registry by their index.
+   */
+  protected BinaryFormat(List<? extends Unit<?>> registry) {
+    if (registry == null) {
+      this.units = new Unit<?>[0];
+      this.indices = new HashMap<Unit<?>, Integer>();
+    } else {
+      this.units = registry.toArray(new Unit<?>[registry.size()]);
+      this.indices = new HashMap<Unit<?>, Integer>(units.length * 2);
+      for (int i = 0; i < units.length; i++) {
+        if (!indices.containsKey(units[i]))
+          indices.put(units[i], Integer.valueOf(i));
+      }
+    }
+  }
+
+  /**
+   * Returns the format encoding all units structurally.
+   *
+   * @return the default binary format.
+   */
+  public static BinaryFormat getInstance() {
+    return DEFAULT;
+  }
+
+  /**
+   * Returns a format encoding the units of the specified registry by their index in the registry (other units are encoded structurally). Writer and
+   * reader must use the same registry.
+   *
+   * @param registry
+   *          the units encoded by index.
+   * @return the corresponding binary format.
+   */
+  public static BinaryFormat getInstance(List<? extends Unit<?>> registry) {
+    return new BinaryFormat(registry);
+  }
+
+  /**
+   * Writes the specified unit.
+   *
+   * @param unit
+   *          the unit to write.
+   * @param out
+   *          the destination.
+   * @throws IOException
+   *           if an I/O error occurs.
+   * @throws IllegalArgumentException
+   *           if the unit (or one of its converters) cannot be encoded.
+   */
+  public void write(Unit<?> unit, DataOutput out) throws IOException {
+    Integer index = indices.get(unit);
+    if (index != null) {
+      out.writeByte(UNIT_REF);
+      writeVarInt(index.intValue(), out);
+    } else if (AbstractUnit.ONE.equals(unit)) {
+      out.writeByte(UNIT_ONE);
+    } else if (unit instanceof BaseUnit) {
+      out.writeByte(UNIT_BASE);
+      out.writeUTF(unit.getSymbol());
+      writeDimension(unit.getDimension(), out);
+    } else if (unit instanceof AlternateUnit) {
+      out.writeByte(UNIT_ALTERNATE);
+      out.writeUTF(unit.getSymbol());
+      write(((AlternateUnit<?>) unit).getParentUnit(), out);
+    } else if (unit instanceof TransformedUnit) {
+      TransformedUnit<?> transformed = (TransformedUnit<?>) unit;
+      out.writeByte(UNIT_TRANSFORMED);
+      writeString(transformed.getSymbol(), out);
+      write(transformed.getParentUnit(), out);
+      write(transformed.getConverter(), out);
+    } else if (unit instanceof ProductUnit) {
+      ProductUnit<?> product = (ProductUnit<?>) unit;
+      out.writeByte(UNIT_PRODUCT);
+      writeVarInt(product.getUnitCount(), out);
+      for (int i = 0; i < product.getUnitCount(); i++) {
+        write(product.getUnit(i), out);
+        writeVarInt(zigZag(product.getUnitPow(i)), out);
+        writeVarInt(product.getUnitRoot(i), out);
+      }
+    } else if (unit instanceof AnnotatedUnit) {
+      AnnotatedUnit<?> annotated = (AnnotatedUnit<?>) unit;
+      out.writeByte(UNIT_ANNOTATED);
+      out.writeUTF(annotated.getAnnotation());
+      write(annotated.getActualUnit(), out);
+    } else {
+      throw new IllegalArgumentException("Unit " + unit + " (" + unit.getClass().getName() + ") cannot be encoded");
+    }
+  }
+
+  /**
+   * Reads a unit.
+   *
+   * @param in
+   *          the source.
+   * @return the unit read.
+   * @throws IOException
+   *           if an I/O error occurs or the data is not a valid unit encoding.
+   */
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  public Unit<?> readUnit(DataInput in) throws IOException {
+    int tag = in.readByte();
+    switch (tag) {
+      case UNIT_ONE:
+        return AbstractUnit.ONE;
+      case UNIT_REF: {
+        int index = readVarInt(in);
+        if (index < 0 || index >= units.length)
+          throw new IOException("Unknown unit index " + index);
+        return units[index];
+      }
+      case UNIT_BASE: {
+        String symbol = in.readUTF();
+        return new BaseUnit(symbol, readDimension(in));
+      }
+      case UNIT_ALTERNATE: {
+        String symbol = in.readUTF();
+        return new AlternateUnit(readUnit(in), symbol);
+      }
+      case UNIT_TRANSFORMED: {
+        String symbol = readString(in);
+        Unit parent = readUnit(in);
+        UnitConverter converter = readConverter(in);
+        return (symbol == null) ? new TransformedUnit(parent, converter) : new TransformedUnit(symbol, parent, converter);
+      }
+      case UNIT_PRODUCT: {
+        int count = readLength(in, 0, "product element count");
+        Unit<?> product = AbstractUnit.ONE;
+        for (int i = 0; i < count; i++) {
+          Unit<?> element = readUnit(in).pow(unZigZag(readVarInt(in)));
+          int root = readVarInt(in);
+          if (root <= 0)
+            throw new IOException("Malformed unit root " + root);
+          if (root != 1)
+            element = element.root(root);
+          product = product.multiply(element);
+        }
+        return product;
+      }
+      case UNIT_ANNOTATED: {
+        String annotation = in.readUTF();
+        return new AnnotatedUnit(readUnit(in), annotation);
+      }
+      default:
+        throw new IOException("Unknown unit tag " + tag);
+    }
+  }
+
+  /**
+   * Writes the specified quantity.
+   *
+   * @param quantity
+   *          the quantity to write.
+   * @param out
+   *          the destination.
+   * @throws IOException
+   *           if an I/O error occurs.
+   * @throws IllegalArgumentException
+   *           if the value type or the unit cannot be encoded.
+   */
+  public void write(Quantity<?> quantity, DataOutput out) throws IOException {
+    Number value = quantity.getValue();
+    if (value instanceof Integer) {
+      out.writeByte(VALUE_INTEGER);
+      writeVarInt(zigZag(value.intValue()), out);
+    } else if (value instanceof Long) {
+      out.writeByte(VALUE_LONG);
+      out.writeLong(value.longValue());
+    } else if (value instanceof Float) {
+      out.writeByte(VALUE_FLOAT);
+      out.writeFloat(value.floatValue());
+    } else if (value instanceof Double) {
+      out.writeByte(VALUE_DOUBLE);
+      out.writeDouble(value.doubleValue());
+    } else if (value instanceof Short) {
+      out.writeByte(VALUE_SHORT);
+      out.writeShort(value.shortValue());
+    } else if (value instanceof Byte) {
+      out.writeByte(VALUE_BYTE);
+      out.writeByte(value.byteValue());
+    } else if (value instanceof BigInteger) {
+      out.writeByte(VALUE_BIG_INTEGER);
+      writeBigInteger((BigInteger) value, out);
+    } else if (value instanceof BigDecimal) {
+      out.writeByte(VALUE_BIG_DECIMAL);
+      writeBigInteger(((BigDecimal) value).unscaledValue(), out);
+      writeVarInt(zigZag(((BigDecimal) value).scale()), out);
+    } else {
+      throw new IllegalArgumentException("Value " + value + " (" + value.getClass().getName() + ") cannot be encoded");
+    }
+    write(quantity.getUnit(), out);
+  }
+
+  /**
+   * Reads a quantity.
+   *
+   * @param in
+   *          the source.
+   * @return the quantity read.
+   * @throws IOException
+   *           if an I/O error occurs or the data is not a valid quantity encoding.
+   */
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  public Quantity<?> readQuantity(DataInput in) throws IOException {
+    int tag = in.readByte();
+    Number value;
+    switch (tag) {
+      case VALUE_INTEGER:
+        value = Integer.valueOf(unZigZag(readVarInt(in)));
+        break;
+      case VALUE_LONG:
+        value = Long.valueOf(in.readLong());
+        break;
+      case VALUE_FLOAT:
+        value = Float.valueOf(in.readFloat());
+        break;
+      case VALUE_DOUBLE:
+        value = Double.valueOf(in.readDouble());
+        break;
+      case VALUE_SHORT:
+        value = Short.valueOf(in.readShort());
+        break;
+      case VALUE_BYTE:
+        value = Byte.valueOf(in.readByte());
+        break;
+      case VALUE_BIG_INTEGER:
+        value = readBigInteger(in);
+        break;
+      case VALUE_BIG_DECIMAL: {
+        BigInteger unscaled = readBigInteger(in);
+        value = new BigDecimal(unscaled, unZigZag(readVarInt(in)));
+        break;
+      }
+      default:
+        throw new IOException("Unknown value tag " + tag);
+    }
+    return Quantities.getQuantity(value, (Unit) readUnit(in));
+  }
+
+  /**
+   * Writes the specified unit at the current position of the specified buffer.
+   *
+   * @param unit
+   *          the unit to write.
+   * @param buffer
+   *          the destination.
+   * @throws java.nio.BufferOverflowException
+   *           if the buffer is too small.
+   * @throws IllegalArgumentException
+   *           if the unit (or one of its converters) cannot be encoded.
+   */
+  public void write(Unit<?> unit, ByteBuffer buffer) {
+    try {
+      write(unit, new BufferOutput(buffer));
+    } catch (IOException e) {
+      throw new IllegalArgumentException(e.getMessage()); // Only raised for strings too long to encode.
+    }
+  }
+
+  /**
+   * Reads a unit at the current position of the specified buffer.
+   *
+   * @param buffer
+   *          the source.
+   * @return the unit read.
+   * @throws IOException
+   *           if the data is not a valid unit encoding.
+   */
+  public Unit<?> readUnit(ByteBuffer buffer) throws IOException {
+    return readUnit(new DataInputStream(new BufferInput(buffer)));
+  }
+
+  /**
+   * Writes the specified quantity at the current position of the specified buffer.
+   *
+   * @param quantity
+   *          the quantity to write.
+   * @param buffer
+   *          the destination.
+   * @throws java.nio.BufferOverflowException
+   *           if the buffer is too small.
+   * @throws IllegalArgumentException
+   *           if the value, the unit or one of its converters cannot be encoded.
+   */
+  public void write(Quantity<?> quantity, ByteBuffer buffer) {
+    try {
+      write(quantity, new BufferOutput(buffer));
+    } catch (IOException e) {
+      throw new IllegalArgumentException(e.getMessage()); // Only raised for strings too long to encode.
+    }
+  }
+
+  /**
+   * Reads a quantity at the current position of the specified buffer.
+   *
+   * @param buffer
+   *          the source.
+   * @return the quantity read.
+   * @throws IOException
+   *           if the data is not a valid quantity encoding.
+   */
+  public Quantity<?> readQuantity(ByteBuffer buffer) throws IOException {
+    return readQuantity(new DataInputStream(new BufferInput(buffer)));
+  }
+
+  private void write(UnitConverter converter, DataOutput out) throws IOException {
+    if (converter.isIdentity()) {
+      out.writeByte(CONVERTER_IDENTITY);
+    } else if (converter instanceof AddConverter) {
+      out.writeByte(CONVERTER_ADD);
+      out.writeDouble(((AddConverter) converter).getOffset());
+    } else if (converter instanceof MultiplyConverter) {
+      out.writeByte(CONVERTER_MULTIPLY);
+      out.writeDouble(((MultiplyConverter) converter).getFactor());
+    } else if (converter instanceof RationalConverter) {
+      RationalConverter rational = (RationalConverter) converter;
+      out.writeByte(CONVERTER_RATIONAL);
+      out.writeDouble(rational.getDividend());
+      out.writeDouble(rational.getDivisor());
+    } else if (converter instanceof ExpConverter) {
+      out.writeByte(CONVERTER_EXP);
+      out.writeDouble(((ExpConverter) converter).getBase());
+      out.writeDouble(((ExpConverter) converter).getLogOfBase());
+    } else if (converter instanceof LogConverter) {
+      out.writeByte(CONVERTER_LOG);
+      out.writeDouble(((LogConverter) converter).getBase());
+      out.writeDouble(((LogConverter) converter).getLogOfBase());
+    } else if (converter instanceof PiMultiplierConverter) {
+      out.writeByte(CONVERTER_PI_MULTIPLIER);
+    } else if (converter instanceof AbstractConverter.Pair) {
+      AbstractConverter.Pair pair = (AbstractConverter.Pair) converter;
+      out.writeByte(CONVERTER_PAIR);
+      write(pair.getLeft(), out);
+      write(pair.getRight(), out);
+    } else if (converter instanceof CompiledConverter) {
+      write(((CompiledConverter) converter).getSource(), out);
+    } else if (converter.inverse() instanceof PiMultiplierConverter) { // Pi divisor (package private).
+      out.writeByte(CONVERTER_PI_DIVISOR);
+    } else {
+      throw new IllegalArgumentException("Converter " + converter + " cannot be encoded");
+    }
+  }
+
+  private UnitConverter readConverter(DataInput in) throws IOException {
+    int tag = in.readByte();
+    switch (tag) {
+      case CONVERTER_IDENTITY:
+        return AbstractConverter.IDENTITY;
+      case CONVERTER_ADD:
+        return new AddConverter(in.readDouble());
+      case CONVERTER_MULTIPLY:
+        return new MultiplyConverter(in.readDouble());
+      case CONVERTER_RATIONAL: {
+        double dividend = in.readDouble();
+        return new RationalConverter(dividend, in.readDouble());
+      }
+      case CONVERTER_EXP: {
+        double base = in.readDouble();
+        return new ExpConverter(base, in.readDouble());
+      }
+      case CONVERTER_LOG: {
+        double base = in.readDouble();
+        return new LogConverter(base, in.readDouble());
+      }
+      case CONVERTER_PI_MULTIPLIER:
+        return new PiMultiplierConverter();
+      case CONVERTER_PI_DIVISOR:
+        return new PiMultiplierConverter().inverse();
+      case CONVERTER_PAIR: {
+        UnitConverter left = readConverter(in);
+        return new AbstractConverter.Pair(left, readConverter(in));
+      }
+      default:
+        throw new IOException("Unknown converter tag " + tag);
+    }
+  }
+
+  /**
+   * Writes a dimension as its fundamental dimensions with their exponent.
+   */
+  private static void writeDimension(Dimension dimension, DataOutput out) throws IOException {
+    if (!(dimension instanceof QuantityDimension))
+      throw new IllegalArgumentException("Dimension " + dimension + " cannot be encoded");
+    Map<? extends QuantityDimension, Integer> dimensions = ((QuantityDimension) dimension).getProductDimensions();
+    if (dimensions == null) { // Fundamental dimension.
+      out.writeByte(1);
+      writeDimensionSymbol(dimension, out);
+      writeVarInt(zigZag(1), out);
+      return;
+    }
+    writeVarInt(dimensions.size(), out);
+    for (Map.Entry<? extends QuantityDimension, Integer> entry : dimensions.entrySet()) {
+      writeDimensionSymbol(entry.getKey(), out);
+      writeVarInt(zigZag(entry.getValue().intValue()), out);
+    }
+  }
+
+  private static void writeDimensionSymbol(Dimension dimension, DataOutput out) throws IOException {
+    String symbol = dimension.toString(); // "[L]"
+    if (symbol.length() != 3)
+      throw new IllegalArgumentException("Dimension " + dimension + " cannot be encoded");
+    out.writeChar(symbol.charAt(1));
+  }
+
+  private static Dimension readDimension(DataInput in) throws IOException {
+    int count = readLength(in, 0, "dimension count");
+    Dimension dimension = QuantityDimension.NONE;
+    for (int i = 0; i < count; i++) {
+      char symbol = in.readChar();
+      dimension = dimension.multiply(QuantityDimension.getInstance(symbol).pow(unZigZag(readVarInt(in))));
+    }
+    return dimension;
+  }
+
+  private static void writeString(String s, DataOutput out) throws IOException {
+    if (s == null) {
+      out.writeBoolean(false);
+    } else {
+      out.writeBoolean(true);
+      out.writeUTF(s);
+    }
+  }
+
+  private static String readString(DataInput in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  private static void writeBigInteger(BigInteger value, DataOutput out) throws IOException {
+    byte[] bytes = value.toByteArray(); // Two's complement, big-endian.
+    if (bytes.length > MAX_LENGTH)
+      throw new IllegalArgumentException("Number too large to be encoded: " + bytes.length + " bytes");
+    writeVarInt(bytes.length, out);
+    out.write(bytes);
+  }
+
+  private static BigInteger readBigInteger(DataInput in) throws IOException {
+    byte[] bytes = new byte[readLength(in, 1, "number length")]; // BigInteger.ZERO is written as one byte.
+    in.readFully(bytes);
+    return new BigInteger(bytes);
+  }
+
+  // Reads a length or count, checked against the bounds of what the writer produces.
+  private static int readLength(DataInput in, int min, String what) throws IOException {
+    int length = readVarInt(in);
+    if (length < min || length > MAX_LENGTH)
+      throw new IOException("Malformed " + what + ": " + length);
+    return length;
+  }
+
+  private static void writeVarInt(int value, DataOutput out) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  private static int readVarInt(DataInput in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      int b = in.readByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0)
+        return value;
+    }
+    throw new IOException("Malformed variable length integer");
+  }
+
+  private static int zigZag(int value) {
+    return (value << 1) ^ (value >> 31);
+  }
+
+  private static int unZigZag(int value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  /**
+   * Output writing directly to a byte buffer, in the big-endian order of {@link DataOutput} whatever the order of the buffer.
+   */
+  private static final class BufferOutput implements DataOutput {
+    private final ByteBuffer buffer;
+    private final boolean reversed;
+
+    private BufferOutput(ByteBuffer buffer) {
+      this.buffer = buffer;
+      this.reversed = buffer.order() != ByteOrder.BIG_ENDIAN;
+    }
+
+    @Override
+    public void write(int b) {
+      buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b) {
+      buffer.put(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      buffer.put(b, off, len);
+    }
+
+    @Override
+    public void writeBoolean(boolean v) {
+      buffer.put(v ? (byte) 1 : (byte) 0);
+    }
+
+    @Override
+    public void writeByte(int v) {
+      buffer.put((byte) v);
+    }
+
+    @Override
+    public void writeShort(int v) {
+      buffer.putShort(reversed ? Short.reverseBytes((short) v) : (short) v);
+    }
+
+    @Override
+    public void writeChar(int v) {
+      buffer.putChar(reversed ? Character.reverseBytes((char) v) : (char) v);
+    }
+
+    @Override
+    public void writeInt(int v) {
+      buffer.putInt(reversed ? Integer.reverseBytes(v) : v);
+    }
+
+    @Override
+    public void writeLong(long v) {
+      buffer.putLong(reversed ? Long.reverseBytes(v) : v);
+    }
+
+    @Override
+    public void writeFloat(float v) {
+      writeInt(Float.floatToIntBits(v));
+    }
+
+    @Override
+    public void writeDouble(double v) {
+      writeLong(Double.doubleToLongBits(v));
+    }
+
+    @Override
+    public void writeBytes(String s) {
+      for (int i = 0; i < s.length(); i++) {
+        buffer.put((byte) s.charAt(i));
+      }
+    }
+
+    @Override
+    public void writeChars(String s) {
+      for (int i = 0; i < s.length(); i++) {
+        writeChar(s.charAt(i));
+      }
+    }
+
+    @Override
+    public void writeUTF(String s) throws IOException { // Modified UTF-8, as DataOutputStream.
+      int length = 0;
+      for (int i = 0; i < s.length(); i++) {
+        char c = s.charAt(i);
+        length += (c >= 0x0001 && c <= 0x007F) ? 1 : (c <= 0x07FF) ? 2 : 3;
+      }
+      if (length > 0xFFFF)
+        throw new UTFDataFormatException("Encoded string too long: " + length + " bytes");
+      writeShort(length);
+      for (int i = 0; i < s.length(); i++) {
+        char c = s.charAt(i);
+        if (c >= 0x0001 && c <= 0x007F) {
+          buffer.put((byte) c);
+        } else if (c <= 0x07FF) {
+          buffer.put((byte) (0xC0 | ((c >> 6) & 0x1F)));
+          buffer.put((byte) (0x80 | (c & 0x3F)));
+        } else {
+          buffer.put((byte) (0xE0 | ((c >> 12) & 0x0F)));
+          buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+          buffer.put((byte) (0x80 | (c & 0x3F)));
+        }
+      }
+    }
+  }
+
+  /**
+   * Stream reading from a byte buffer.
+   */
+  private static final class BufferInput extends InputStream {
+    private final ByteBuffer buffer;
+
+    private BufferInput(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? (buffer.get() & 0xFF) : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (!buffer.hasRemaining())
+        return -1;
+      int n = Math.min(len, buffer.remaining());
+      buffer.get(b, off, n);
+      return n;
+    }
+  }
+}
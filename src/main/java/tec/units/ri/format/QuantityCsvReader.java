@@ -0,0 +1,476 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.format;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.measure.Quantity;
+import javax.measure.Unit;
+import javax.measure.UnitConverter;
+import javax.measure.format.ParserException;
+
+import tec.units.ri.AbstractUnit;
+import tec.units.ri.function.CompiledConverter;
+import tec.units.ri.quantity.Quantities;
+
+/**
+ * <p>
+ * This class reads delimited text (CSV) whose header cells state the unit of each column between brackets, e.g. <code>speed[km/h]</code>, into
+ * primitive columns.
+ * </p>
+ * 
+ * <p>
+ * Files are memory-mapped; the header units are parsed once with a {@link SimpleUnitFormat} directly from the UTF-8 bytes, and numeric fields are
+ * parsed from the mapped bytes without creating strings (except for the rare numbers outside of the exactly representable range, which are parsed
+ * with {@link Double#parseDouble(String)}). Columns may then be converted to requested units, with a single converter per column. For example:<br>
+ * <code>
+ *     Map&lt;String, Unit&lt;?&gt;&gt; targets = Collections.&lt;String, Unit&lt;?&gt;&gt; singletonMap("speed", METRES_PER_SECOND);<br>
+ *     QuantityCsvReader.Columns columns = new QuantityCsvReader().read(file, targets);<br>
+ *     double[] speeds = columns.getValues("speed"); // In m/s.
+ * </code>
+ * </p>
+ * 
+ * <p>
+ * Header cells without a unit are read as {@link AbstractUnit#ONE dimensionless}. Empty and missing fields are read as <code>NaN</code>. Quoted
+ * fields are not supported.
+ * </p>
+ *
+ * @version 0.1
+ */
+public class QuantityCsvReader {
+
+  private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+      1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+  private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+  private final byte delimiter;
+  private final SimpleUnitFormat unitFormat;
+
+  /**
+   * Creates a reader of comma separated values using the default {@link SimpleUnitFormat}.
+   */
+  public QuantityCsvReader() {
+    this(',', SimpleUnitFormat.getInstance());
+  }
+
+  /**
+   * Creates a reader.
+   *
+   * @param delimiter
+   *          the (ASCII) field delimiter.
+   * @param unitFormat
+   *          the format of the header units.
+   * @throws IllegalArgumentException
+   *           if the delimiter is not an ASCII character.
+   */
+  public QuantityCsvReader(char delimiter, SimpleUnitFormat unitFormat) {
+    if (delimiter >= 0x80 || delimiter == '\n' || delimiter == '\r')
+      throw new IllegalArgumentException("Invalid delimiter: " + delimiter);
+    this.delimiter = (byte) delimiter;
+    this.unitFormat = unitFormat;
+  }
+
+  /**
+   * Reads the specified file, keeping the units of the header.
+   *
+   * @param file
+   *          the file to read.
+   * @return the columns read.
+   * @throws IOException
+   *           if the file cannot be read.
+   * @throws ParserException
+   *           if a header unit or a number cannot be parsed.
+   */
+  public Columns read(File file) throws IOException {
+    return read(file, Collections.<String, Unit<?>> emptyMap());
+  }
+
+  /**
+   * Reads the specified file and converts the specified columns.
+   *
+   * @param file
+   *          the file to read (at most 2 GB).
+   * @param targetUnits
+   *          the units to convert columns to, by column name.
+   * @return the columns read.
+   * @throws IOException
+   *           if the file cannot be read.
+   * @throws ParserException
+   *           if a header unit or a number cannot be parsed.
+   * @throws IllegalArgumentException
+   *           if a target unit is specified for a column which does not exist.
+   * @throws javax.measure.UnconvertibleException
+   *           if a column cannot be converted into its target unit.
+   */
+  public Columns read(File file, Map<String, ? extends Unit<?>> targetUnits) throws IOException {
+    RandomAccessFile raf = new RandomAccessFile(file, "r");
+    try {
+      FileChannel channel = raf.getChannel();
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE)
+        throw new IOException("File too large to be mapped: " + file + " (" + size + " bytes)");
+      return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), targetUnits);
+    } finally {
+      raf.close();
+    }
+  }
+
+  /**
+   * Reads the UTF-8 encoded text between the position and the limit of the specified buffer, and converts the specified columns. The position of
+   * the buffer is not modified.
+   *
+   * @param utf8
+   *          the buffer to read.
+   * @param targetUnits
+   *          the units to convert columns to, by column name.
+   * @return the columns read.
+   * @throws ParserException
+   *           if a header unit or a number cannot be parsed.
+   * @throws IllegalArgumentException
+   *           if a target unit is specified for a column which does not exist.
+   * @throws javax.measure.UnconvertibleException
+   *           if a column cannot be converted into its target unit.
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public Columns read(ByteBuffer utf8, Map<String, ? extends Unit<?>> targetUnits) throws ParserException {
+    final ByteBuffer buf = utf8.duplicate();
+    int pos = buf.position();
+    final int end = buf.limit();
+    if (end - pos >= 3 && buf.get(pos) == (byte) 0xEF && buf.get(pos + 1) == (byte) 0xBB && buf.get(pos + 2) == (byte) 0xBF)
+      pos += 3; // Byte order mark.
+
+    // Header.
+    int lineEnd = lineEnd(buf, pos, end);
+    List<String> names = new ArrayList<String>();
+    List<Unit<?>> units = new ArrayList<Unit<?>>();
+    int fieldStart = pos;
+    for (int i = pos; i <= lineEnd; i++) {
+      if (i == lineEnd || buf.get(i) == delimiter) {
+        parseHeader(buf, fieldStart, i, names, units);
+        fieldStart = i + 1;
+      }
+    }
+    pos = nextLine(buf, lineEnd, end);
+
+    // Rows.
+    final int columnCount = names.size();
+    final int rowCount = countLines(buf, pos, end);
+    final double[][] values = new double[columnCount][rowCount];
+    for (int row = 0; row < rowCount; row++) {
+      while ((lineEnd = lineEnd(buf, pos, end)) == pos) { // Skips empty lines.
+        pos = nextLine(buf, lineEnd, end);
+      }
+      int column = 0;
+      fieldStart = pos;
+      for (int i = pos; i <= lineEnd; i++) {
+        if (i == lineEnd || buf.get(i) == delimiter) {
+          if (column >= columnCount)
+            throw new ParserException("Row " + (row + 1) + " has more than " + columnCount + " fields", i);
+          values[column++][row] = parseNumber(buf, fieldStart, i);
+          fieldStart = i + 1;
+        }
+      }
+      while (column < columnCount) {
+        values[column++][row] = Double.NaN;
+      }
+      pos = nextLine(buf, lineEnd, end);
+    }
+
+    // Conversions.
+    for (Map.Entry<String, ? extends Unit<?>> target : targetUnits.entrySet()) {
+      int column = names.indexOf(target.getKey());
+      if (column < 0)
+        throw new IllegalArgumentException("No column named " + target.getKey() + " in " + names);
+      Unit source = units.get(column);
+      UnitConverter converter = CompiledConverter.of(source.getConverterTo(target.getValue()));
+      if (converter instanceof CompiledConverter) {
+        ((CompiledConverter) converter).convert(values[column], values[column]);
+      } else if (!converter.isIdentity()) {
+        double[] columnValues = values[column];
+        for (int i = 0; i < rowCount; i++) {
+          columnValues[i] = converter.convert(columnValues[i]);
+        }
+      }
+      units.set(column, target.getValue());
+    }
+    return new Columns(names, units, values, rowCount);
+  }
+
+  private void parseHeader(ByteBuffer buf, int start, int end, List<String> names, List<Unit<?>> units) throws ParserException {
+    start = trimStart(buf, start, end);
+    end = trimEnd(buf, start, end);
+    Unit<?> unit = AbstractUnit.ONE;
+    int nameEnd = end;
+    if (end > start && buf.get(end - 1) == ']') {
+      int open = end - 2;
+      while (open >= start && buf.get(open) != '[') {
+        open--;
+      }
+      if (open < start)
+        throw new ParserException("Unbalanced ']' in header", start);
+      ByteBuffer unitBytes = buf.duplicate();
+      unitBytes.limit(end - 1).position(open + 1);
+      unit = unitFormat.parse(unitBytes);
+      nameEnd = trimEnd(buf, start, open);
+    }
+    names.add(Utf8CharSequence.of(slice(buf, start, nameEnd)).toString());
+    units.add(unit);
+  }
+
+  private static ByteBuffer slice(ByteBuffer buf, int start, int end) {
+    ByteBuffer slice = buf.duplicate();
+    slice.limit(end).position(start);
+    return slice;
+  }
+
+  // Returns the index of the line terminator ("\n" or "\r\n") or of the end of the text.
+  private static int lineEnd(ByteBuffer buf, int start, int end) {
+    int pos = start;
+    while (pos < end && buf.get(pos) != '\n') {
+      pos++;
+    }
+    return (pos > start && buf.get(pos - 1) == '\r') ? pos - 1 : pos;
+  }
+
+  private static int nextLine(ByteBuffer buf, int lineEnd, int end) {
+    if (lineEnd < end && buf.get(lineEnd) == '\r')
+      lineEnd++;
+    return (lineEnd < end) ? lineEnd + 1 : end;
+  }
+
+  // Counts the lines which are not empty, the last one may not be terminated.
+  private static int countLines(ByteBuffer buf, int pos, int end) {
+    int count = 0;
+    while (pos < end) {
+      int lineEnd = lineEnd(buf, pos, end);
+      if (lineEnd > pos)
+        count++;
+      pos = nextLine(buf, lineEnd, end);
+    }
+    return count;
+  }
+
+  private static int trimStart(ByteBuffer buf, int start, int end) {
+    while (start < end && (buf.get(start) == ' ' || buf.get(start) == '\t')) {
+      start++;
+    }
+    return start;
+  }
+
+  private static int trimEnd(ByteBuffer buf, int start, int end) {
+    while (end > start && (buf.get(end - 1) == ' ' || buf.get(end - 1) == '\t')) {
+      end--;
+    }
+    return end;
+  }
+
+  /**
+   * Parses a decimal number, exactly when its significand fits in 53 bits and its exponent in [-22, 22] (the product or quotient of two exact
+   * doubles is then correctly rounded), with {@link Double#parseDouble(String)} otherwise.
+   */
+  static double parseNumber(ByteBuffer buf, int start, int end) throws ParserException {
+    start = trimStart(buf, start, end);
+    end = trimEnd(buf, start, end);
+    if (start == end)
+      return Double.NaN;
+    int i = start;
+    boolean negative = false;
+    byte b = buf.get(i);
+    if (b == '-' || b == '+') {
+      negative = (b == '-');
+      i++;
+    }
+    long mantissa = 0;
+    int exponent = 0;
+    int digits = 0;
+    boolean exact = true;
+    boolean dot = false;
+    for (; i < end; i++) {
+      b = buf.get(i);
+      if (b >= '0' && b <= '9') {
+        digits++;
+        if (mantissa < (Long.MAX_VALUE - 9) / 10) {
+          mantissa = mantissa * 10 + (b - '0');
+          if (dot)
+            exponent--;
+        } else {
+          exact = false; // Significand truncated.
+          if (!dot)
+            exponent++;
+        }
+      } else if (b == '.' && !dot) {
+        dot = true;
+      } else {
+        break;
+      }
+    }
+    if (digits > 0 && i < end && (buf.get(i) == 'e' || buf.get(i) == 'E')) {
+      int j = i + 1;
+      boolean negativeExponent = false;
+      if (j < end && (buf.get(j) == '-' || buf.get(j) == '+')) {
+        negativeExponent = (buf.get(j) == '-');
+        j++;
+      }
+      int e = 0;
+      int exponentDigits = 0;
+      for (; j < end && buf.get(j) >= '0' && buf.get(j) <= '9'; j++) {
+        if (e < 100000)
+          e = e * 10 + (buf.get(j) - '0');
+        exponentDigits++;
+      }
+      if (exponentDigits > 0) {
+        exponent += negativeExponent ? -e : e;
+        i = j;
+      }
+    }
+    if (digits > 0 && i == end && exact && mantissa <= MAX_EXACT_MANTISSA && exponent >= -22 && exponent <= 22) {
+      double value = (exponent < 0) ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+      return negative ? -value : value;
+    }
+    String text = Utf8CharSequence.of(slice(buf, start, end)).toString();
+    try {
+      return Double.parseDouble(text);
+    } catch (NumberFormatException e) {
+      throw new ParserException("Invalid number '" + text + "'", start);
+    }
+  }
+
+  /**
+   * The columns read by a {@link QuantityCsvReader}.
+   */
+  public static final class Columns {
+    private final List<String> names;
+    private final List<Unit<?>> units;
+    private final double[][] values;
+    private final int rowCount;
+
+    private Columns(List<String> names, List<Unit<?>> units, double[][] values, int rowCount) {
+      this.names = Collections.unmodifiableList(names);
+      this.units = Collections.unmodifiableList(units);
+      this.values = values;
+      this.rowCount = rowCount;
+    }
+
+    public int getRowCount() {
+      return rowCount;
+    }
+
+    public int getColumnCount() {
+      return names.size();
+    }
+
+    /**
+     * Returns the names of the columns, without their units.
+     *
+     * @return the column names.
+     */
+    public List<String> getNames() {
+      return names;
+    }
+
+    /**
+     * Returns the index of the specified column.
+     *
+     * @param name
+     *          the column name.
+     * @return the column index or <code>-1</code> if there is no such column.
+     */
+    public int indexOf(String name) {
+      return names.indexOf(name);
+    }
+
+    /**
+     * Returns the unit the values of the specified column are stated in.
+     *
+     * @param column
+     *          the column index.
+     * @return the header unit or the target unit if the column has been converted.
+     */
+    public Unit<?> getUnit(int column) {
+      return units.get(column);
+    }
+
+    /**
+     * Returns the values of the specified column. The array is not copied.
+     *
+     * @param column
+     *          the column index.
+     * @return the column values, one per row.
+     */
+    public double[] getValues(int column) {
+      return values[column];
+    }
+
+    /**
+     * Returns the values of the specified column. The array is not copied.
+     *
+     * @param name
+     *          the column name.
+     * @return the column values, one per row.
+     * @throws IllegalArgumentException
+     *           if there is no such column.
+     */
+    public double[] getValues(String name) {
+      int column = names.indexOf(name);
+      if (column < 0)
+        throw new IllegalArgumentException("No column named " + name + " in " + names);
+      return values[column];
+    }
+
+    /**
+     * Returns the specified value as a quantity.
+     *
+     * @param column
+     *          the column index.
+     * @param row
+     *          the row index.
+     * @return the value with the unit of its column.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public Quantity<?> getQuantity(int column, int row) {
+      return Quantities.getQuantity(values[column][row], (Unit) units.get(column));
+    }
+
+    @Override
+    public String toString() {
+      return "Columns" + Arrays.asList(names, units) + "[" + rowCount + " rows]";
+    }
+  }
+}
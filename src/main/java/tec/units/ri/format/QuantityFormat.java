@@ -41,6 +41,9 @@ import tec.units.ri.AbstractUnit;
 import tec.units.ri.internal.format.l10n.DecimalFormat;
 import tec.units.ri.internal.format.l10n.NumberFormat;
 import tec.units.ri.quantity.NumberQuantity;
+import tec.units.ri.spi.Metrics;
+import tec.units.ri.spi.MetricsListener;
+import tec.units.ri.spi.MetricsListener.Operation;
 import tec.units.ri.unit.Units;
 import tec.uom.lib.common.function.Parser;
 
@@ -257,6 +260,18 @@ public abstract class QuantityFormat implements Parser<CharSequence, Quantity> {
 
     @Override
     public Appendable format(Quantity<?> quantity, Appendable dest) throws IOException {
+      MetricsListener metrics = Metrics.listener();
+      if (metrics == null)
+        return formatQuantity(quantity, dest);
+      long start = System.nanoTime();
+      try {
+        return formatQuantity(quantity, dest);
+      } finally {
+        metrics.operationCompleted(Operation.QUANTITY_FORMAT, System.nanoTime() - start);
+      }
+    }
+
+    private Appendable formatQuantity(Quantity<?> quantity, Appendable dest) throws IOException {
       // Unit unit = quantity.getUnit();
       // if (unit instanceof CompoundUnit)
       // return formatCompound(quantity.doubleValue(unit),
@@ -278,9 +293,21 @@ public abstract class QuantityFormat implements Parser<CharSequence, Quantity> {
       // }
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     AbstractQuantity<?> parse(CharSequence csq, int index) throws IllegalArgumentException, ParserException {
+      MetricsListener metrics = Metrics.listener();
+      if (metrics == null)
+        return parseQuantity(csq, index);
+      long start = System.nanoTime();
+      try {
+        return parseQuantity(csq, index);
+      } finally {
+        metrics.operationCompleted(Operation.QUANTITY_PARSE, System.nanoTime() - start);
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private AbstractQuantity<?> parseQuantity(CharSequence csq, int index) throws IllegalArgumentException, ParserException {
       String str = csq.toString();
       // Number number = parseFormat.parse(str); // TODO combine with
       // NumberFormat
@@ -316,6 +343,18 @@ public abstract class QuantityFormat implements Parser<CharSequence, Quantity> {
 
     @Override
     public Appendable format(Quantity q, Appendable dest) throws IOException {
+      MetricsListener metrics = Metrics.listener();
+      if (metrics == null)
+        return formatQuantity(q, dest);
+      long start = System.nanoTime();
+      try {
+        return formatQuantity(q, dest);
+      } finally {
+        metrics.operationCompleted(Operation.QUANTITY_FORMAT, System.nanoTime() - start);
+      }
+    }
+
+    private Appendable formatQuantity(Quantity q, Appendable dest) throws IOException {
       Unit unit = q.getUnit();
       // if (unit instanceof CompoundUnit)
       // return formatCompound(q.doubleValue(unit),
@@ -337,9 +376,21 @@ public abstract class QuantityFormat implements Parser<CharSequence, Quantity> {
       // }
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     AbstractQuantity<?> parse(CharSequence csq, int index) throws ParserException {
+      MetricsListener metrics = Metrics.listener();
+      if (metrics == null)
+        return parseQuantity(csq, index);
+      long start = System.nanoTime();
+      try {
+        return parseQuantity(csq, index);
+      } finally {
+        metrics.operationCompleted(Operation.QUANTITY_PARSE, System.nanoTime() - start);
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private AbstractQuantity<?> parseQuantity(CharSequence csq, int index) throws ParserException {
       int startDecimal = index; // cursor.getIndex();
       while ((startDecimal < csq.length()) && Character.isWhitespace(csq.charAt(startDecimal))) {
         startDecimal++;
@@ -34,6 +34,7 @@ import static tec.units.ri.unit.Units.LITRE;
 
 import java.io.IOException;
 import java.lang.CharSequence;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -43,6 +44,9 @@ import tec.units.ri.function.MultiplyConverter;
 import tec.units.ri.function.RationalConverter;
 import tec.units.ri.internal.format.l10n.FieldPosition;
 import tec.units.ri.internal.format.l10n.ParsePosition;
+import tec.units.ri.spi.Metrics;
+import tec.units.ri.spi.MetricsListener;
+import tec.units.ri.spi.MetricsListener.Operation;
 import tec.units.ri.unit.AlternateUnit;
 import tec.units.ri.unit.BaseUnit;
 import tec.units.ri.unit.ProductUnit;
@@ -169,6 +173,39 @@ public abstract class SimpleUnitFormat extends AbstractUnitFormat {
    */
   public abstract Unit<? extends Quantity> parseSingleUnit(CharSequence csq, ParsePosition pos) throws ParserException;
 
+  /**
+   * Parses the specified UTF-8 encoded bytes to produce a unit, without decoding them into a <code>String</code> first.
+   *
+   * @param utf8
+   *          the array holding the UTF-8 encoded unit expression.
+   * @param offset
+   *          the index of the first byte to parse.
+   * @param length
+   *          the number of bytes to parse.
+   * @return the unit parsed from the specified bytes.
+   * @throws ParserException
+   *           if the bytes do not hold a valid unit expression.
+   * @throws IndexOutOfBoundsException
+   *           if the range is out of the array bounds.
+   */
+  public Unit<?> parse(byte[] utf8, int offset, int length) throws ParserException {
+    return parse(Utf8CharSequence.of(utf8, offset, length), 0);
+  }
+
+  /**
+   * Parses the remaining UTF-8 encoded bytes of the specified buffer to produce a unit, without decoding them into a <code>String</code> first. The
+   * position of the buffer is not modified.
+   *
+   * @param utf8
+   *          the buffer holding the UTF-8 encoded unit expression between its position and its limit.
+   * @return the unit parsed from the specified bytes.
+   * @throws ParserException
+   *           if the bytes do not hold a valid unit expression.
+   */
+  public Unit<?> parse(ByteBuffer utf8) throws ParserException {
+    return parse(Utf8CharSequence.of(utf8), 0);
+  }
+
   /**
    * Attaches a system-wide label to the specified unit. For example:<br>
    * <code>
@@ -342,9 +379,7 @@ public abstract class SimpleUnitFormat extends AbstractUnitFormat {
     }
 
     static boolean isUnitIdentifierPart(char ch) {
-      return isLetter(ch)
-          || (!Character.isWhitespace(ch) && !Character.isDigit(ch) && (ch != '·') && (ch != '*') && (ch != '/') && (ch != '(') && (ch != ')')
-              && (ch != '[') && (ch != ']') && (ch != '¹') && (ch != '²') && (ch != '³') && (ch != '^') && (ch != '+') && (ch != '-'));
+      return charClass(ch) == IDENTIFIER;
     }
 
     // Returns the name for the specified unit or null if product unit.
@@ -528,43 +563,85 @@ public abstract class SimpleUnitFormat extends AbstractUnitFormat {
     private static final int INTEGER = 8;
     private static final int FLOAT = 9;
 
-    private int nextToken(CharSequence csq, ParsePosition pos) {
-      final int length = csq.length();
-      while (pos.getIndex() < length) {
-        char c = csq.charAt(pos.getIndex());
-        if (isUnitIdentifierPart(c)) {
-          return IDENTIFIER;
+    // Character classes which are not tokens by themselves.
+    private static final int SKIP = 0;
+    private static final int STAR = 10; // Multiply or '**' exponent.
+    private static final int NUMBER = 11; // Integer or float.
+
+    private static final int CLASS_MASK = 0x0F;
+    private static final int NUMBER_PART = 0x10; // Digits, '-', '.' and 'E'.
+
+    /**
+     * Holds the class (and number part flag) of the Latin-1 characters.
+     */
+    private static final byte[] CHAR_CLASSES = new byte[256];
+
+    static {
+      for (char c = 0; c < 256; c++) {
+        int cls;
+        if ((c == '-') || ((c >= '0') && (c <= '9'))) {
+          cls = NUMBER;
+        } else if (Character.isWhitespace(c) || (c == '[') || (c == ']')) {
+          cls = SKIP;
         } else if (c == '(') {
-          return OPEN_PAREN;
+          cls = OPEN_PAREN;
         } else if (c == ')') {
-          return CLOSE_PAREN;
+          cls = CLOSE_PAREN;
         } else if ((c == '^') || (c == '¹') || (c == '²') || (c == '³')) {
-          return EXPONENT;
+          cls = EXPONENT;
         } else if (c == '*') {
-          char c2 = csq.charAt(pos.getIndex() + 1);
-          if (c2 == '*') {
-            return EXPONENT;
-          } else {
-            return MULTIPLY;
-          }
+          cls = STAR;
         } else if (c == '·') {
-          return MULTIPLY;
+          cls = MULTIPLY;
         } else if (c == '/') {
-          return DIVIDE;
+          cls = DIVIDE;
         } else if (c == '+') {
-          return PLUS;
-        } else if ((c == '-') || Character.isDigit(c)) {
-          int index = pos.getIndex() + 1;
-          while ((index < length) && (Character.isDigit(c) || (c == '-') || (c == '.') || (c == 'E'))) {
-            c = csq.charAt(index++);
-            if (c == '.') {
+          cls = PLUS;
+        } else {
+          cls = IDENTIFIER;
+        }
+        if ((cls == NUMBER) || (c == '.') || (c == 'E')) {
+          cls |= NUMBER_PART;
+        }
+        CHAR_CLASSES[c] = (byte) cls;
+      }
+    }
+
+    private static int charClass(char c) {
+      if (c < 256)
+        return CHAR_CLASSES[c] & CLASS_MASK;
+      if (Character.isDigit(c))
+        return NUMBER;
+      return Character.isWhitespace(c) ? SKIP : IDENTIFIER;
+    }
+
+    private static boolean isNumberPart(char c) {
+      return (c < 256) ? (CHAR_CLASSES[c] & NUMBER_PART) != 0 : Character.isDigit(c);
+    }
+
+    private int nextToken(CharSequence csq, ParsePosition pos) {
+      final int length = csq.length();
+      int index = pos.getIndex();
+      while (index < length) {
+        char c = csq.charAt(index);
+        int cls = charClass(c);
+        if (cls == SKIP) {
+          index++;
+          continue;
+        }
+        pos.setIndex(index);
+        if (cls == STAR)
+          return ((index + 1 < length) && (csq.charAt(index + 1) == '*')) ? EXPONENT : MULTIPLY;
+        if (cls == NUMBER) {
+          while ((++index < length) && isNumberPart(c = csq.charAt(index))) {
+            if (c == '.')
               return FLOAT;
-            }
           }
           return INTEGER;
         }
-        pos.setIndex(pos.getIndex() + 1);
+        return cls;
       }
+      pos.setIndex(index);
       return EOF;
     }
 
@@ -765,7 +842,15 @@ public abstract class SimpleUnitFormat extends AbstractUnitFormat {
 
     @Override
     protected Unit<?> parse(CharSequence csq, int index) throws ParserException {
-      return parseObject(csq.toString(), new ParsePosition(index));
+      MetricsListener metrics = Metrics.listener();
+      if (metrics == null)
+        return parseProductUnit(csq, new ParsePosition(index));
+      long start = System.nanoTime();
+      try {
+        return parseProductUnit(csq, new ParsePosition(index));
+      } finally {
+        metrics.operationCompleted(Operation.UNIT_PARSE, System.nanoTime() - start);
+      }
     }
   }
 
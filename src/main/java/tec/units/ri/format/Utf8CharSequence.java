@@ -0,0 +1,155 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.format;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A character sequence over UTF-8 encoded bytes, used to parse units received as bytes without decoding them into a {@link String}.
+ * <p>
+ * ASCII input (the common case for unit symbols) is read in place. Input holding multi-byte sequences is decoded once into a <code>char</code>
+ * array; malformed sequences are replaced with <code>U+FFFD</code>, as {@link String#String(byte[], String)} does.
+ * </p>
+ *
+ * @version 0.1
+ */
+final class Utf8CharSequence implements CharSequence {
+
+  private static final char REPLACEMENT = '�';
+
+  private final byte[] bytes; // ASCII input, or null.
+  private final int offset;
+  private final char[] chars; // Decoded input, or null.
+  private final int length;
+
+  private Utf8CharSequence(byte[] bytes, int offset, char[] chars, int length) {
+    this.bytes = bytes;
+    this.offset = offset;
+    this.chars = chars;
+    this.length = length;
+  }
+
+  static Utf8CharSequence of(byte[] utf8, int offset, int length) {
+    if ((offset < 0) || (length < 0) || (offset > utf8.length - length))
+      throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + ", array length " + utf8.length);
+    for (int i = offset, end = offset + length; i < end; i++) {
+      if (utf8[i] < 0)
+        return decode(utf8, offset, length);
+    }
+    return new Utf8CharSequence(utf8, offset, null, length);
+  }
+
+  static Utf8CharSequence of(ByteBuffer utf8) {
+    if (utf8.hasArray())
+      return of(utf8.array(), utf8.arrayOffset() + utf8.position(), utf8.remaining());
+    byte[] copy = new byte[utf8.remaining()];
+    utf8.duplicate().get(copy);
+    return of(copy, 0, copy.length);
+  }
+
+  private static Utf8CharSequence decode(byte[] utf8, int offset, int length) {
+    char[] chars = new char[length]; // UTF-16 never needs more chars than UTF-8 bytes.
+    int n = 0;
+    int i = offset;
+    final int end = offset + length;
+    while (i < end) {
+      int b = utf8[i++];
+      if (b >= 0) {
+        chars[n++] = (char) b;
+        continue;
+      }
+      int extra;
+      int code;
+      if ((b & 0xE0) == 0xC0) {
+        extra = 1;
+        code = b & 0x1F;
+      } else if ((b & 0xF0) == 0xE0) {
+        extra = 2;
+        code = b & 0x0F;
+      } else if ((b & 0xF8) == 0xF0) {
+        extra = 3;
+        code = b & 0x07;
+      } else { // Unexpected continuation or invalid byte.
+        chars[n++] = REPLACEMENT;
+        continue;
+      }
+      int j = 0;
+      while ((j < extra) && (i < end) && ((utf8[i] & 0xC0) == 0x80)) {
+        code = (code << 6) | (utf8[i++] & 0x3F);
+        j++;
+      }
+      if ((j < extra) || (code < MIN_CODE[extra]) || ((code >= 0xD800) && (code <= 0xDFFF)) || (code > 0x10FFFF)) {
+        chars[n++] = REPLACEMENT; // Truncated, overlong or surrogate.
+      } else if (code >= 0x10000) {
+        code -= 0x10000;
+        chars[n++] = (char) (0xD800 + (code >> 10));
+        chars[n++] = (char) (0xDC00 + (code & 0x3FF));
+      } else {
+        chars[n++] = (char) code;
+      }
+    }
+    return new Utf8CharSequence(null, 0, chars, n);
+  }
+
+  /**
+   * Holds the smallest code point encoded with the specified number of continuation bytes.
+   */
+  private static final int[] MIN_CODE = { 0, 0x80, 0x800, 0x10000 };
+
+  @Override
+  public int length() {
+    return length;
+  }
+
+  @Override
+  public char charAt(int index) {
+    if ((index < 0) || (index >= length))
+      throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+    return (chars != null) ? chars[index] : (char) bytes[offset + index];
+  }
+
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    if ((start < 0) || (end > length) || (start > end))
+      throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+    if (chars != null)
+      return new String(chars, start, end - start);
+    char[] ascii = new char[end - start];
+    for (int i = 0; i < ascii.length; i++) {
+      ascii[i] = (char) bytes[offset + start + i];
+    }
+    return new String(ascii);
+  }
+
+  @Override
+  public String toString() {
+    return subSequence(0, length).toString();
+  }
+}
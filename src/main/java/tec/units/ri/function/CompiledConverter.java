@@ -0,0 +1,321 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.function;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.measure.UnitConverter;
+
+import tec.units.ri.AbstractConverter;
+import tec.units.ri.internal.BulkAffine;
+import tec.units.ri.internal.MathProvider;
+import tec.uom.lib.common.function.ValueSupplier;
+
+/**
+ * <p>
+ * This class represents a converter chain compiled into a flat program of a single class, so that call sites converting through it stay monomorphic
+ * and the whole conversion can be inlined by the JIT, instead of dispatching through the tree of converters of a {@link AbstractConverter.Pair}.
+ * </p>
+ *
+ * <p>
+ * The {@link UnitConverter#getConversionSteps() conversion steps} of the chain are folded: consecutive linear and additive steps become a single
+ * <code>a·x + b</code> operation, and exponential/logarithmic steps become natural <code>exp</code>/<code>ln</code> operations with their base
+ * folded into the neighbouring affine operations. Results may differ from the original chain by rounding.
+ * </p>
+ *
+ * <p>
+ * The program is interpreted from arrays rather than composed from <code>java.lang.invoke</code> method handles, so that the same class runs on
+ * Java ME, which has no method handles.
+ * </p>
+ *
+ * <code>
+ *     UnitConverter converter = CompiledConverter.of(MILE.getConverterTo(KILO(METRE)));
+ * </code>
+ *
+ * @version 0.1
+ */
+public final class CompiledConverter extends AbstractConverter implements ValueSupplier<String> {
+
+  private static final MathProvider MATH = MathProvider.getInstance();
+
+  private static final int AFFINE = 0;
+  private static final int EXP = 1;
+  private static final int LOG = 2;
+  private static final int STEP = 3;
+
+  /**
+   * Holds the converter compiled.
+   */
+  private final UnitConverter source;
+
+  /**
+   * Holds the scale of the first affine operation.
+   */
+  private final double scale;
+
+  /**
+   * Holds the offset of the first affine operation.
+   */
+  private final double offset;
+
+  /**
+   * Holds the operations following the first affine operation, in application order (<code>null</code> if none).
+   */
+  private final int[] ops;
+
+  /**
+   * Holds the scale and offset of each affine operation of {@link #ops}.
+   */
+  private final double[] args;
+
+  /**
+   * Holds the converters of the steps which could not be compiled.
+   */
+  private final UnitConverter[] steps;
+
+  private CompiledConverter(UnitConverter source, double scale, double offset, int[] ops, double[] args, UnitConverter[] steps) {
+    this.source = source;
+    this.scale = scale;
+    this.offset = offset;
+    this.ops = ops;
+    this.args = args;
+    this.steps = steps;
+  }
+
+  /**
+   * Compiles the specified converter.
+   *
+   * @param converter
+   *          the converter to compile.
+   * @return the compiled converter, {@link AbstractConverter#IDENTITY} if the conversion folds to the identity.
+   */
+  public static AbstractConverter of(UnitConverter converter) {
+    CompiledConverter compiled = compile(converter);
+    return compiled.isIdentity() ? IDENTITY : compiled;
+  }
+
+  /**
+   * Compiles the specified converter, the identity included, so that the folded coefficients can be read. For example:[code]
+   * CompiledConverter compiled = CompiledConverter.compile(unit.getConverterTo(target));
+   * if (compiled.isAffine()) { ... compiled.getScale() ... compiled.getOffset() ... } [/code]
+   *
+   * @param converter
+   *          the converter to compile.
+   * @return the compiled converter.
+   */
+  public static CompiledConverter compile(UnitConverter converter) {
+    if (converter instanceof CompiledConverter)
+      return (CompiledConverter) converter;
+    List<? extends UnitConverter> list = converter.getConversionSteps();
+    int[] ops = new int[list.size() * 2 + 1];
+    double[] args = new double[list.size() * 2 + 2];
+    UnitConverter[] steps = new UnitConverter[list.size()];
+    int nOps = 0;
+    int nArgs = 0;
+    int nSteps = 0;
+    double a = 1; // Current affine operation a·x + b.
+    double b = 0;
+    double headScale = 1;
+    double headOffset = 0;
+    boolean head = true;
+    for (int i = list.size() - 1; i >= 0; i--) { // First step applied is the last one.
+      UnitConverter step = list.get(i);
+      if (step.isIdentity()) {
+        continue;
+      } else if (step instanceof AddConverter) {
+        b += ((AddConverter) step).getOffset();
+      } else if (step.isLinear()) {
+        double k = step.convert(1.0);
+        a *= k;
+        b *= k;
+      } else {
+        int op;
+        if (step instanceof ExpConverter) { // exp(L·(a·x + b))
+          double logOfBase = ((ExpConverter) step).getLogOfBase();
+          a *= logOfBase;
+          b *= logOfBase;
+          op = EXP;
+        } else if (step instanceof LogConverter) {
+          op = LOG;
+        } else {
+          op = STEP;
+          steps[nSteps++] = step;
+        }
+        if (head) {
+          headScale = a;
+          headOffset = b;
+          head = false;
+        } else {
+          ops[nOps++] = AFFINE;
+          args[nArgs++] = a;
+          args[nArgs++] = b;
+        }
+        ops[nOps++] = op;
+        a = 1;
+        b = 0;
+        if (op == LOG) // ln(x) / L
+          a = 1.0 / ((LogConverter) step).getLogOfBase();
+      }
+    }
+    if (head)
+      return new CompiledConverter(converter, a, b, null, null, null);
+    if (a != 1 || b != 0) {
+      ops[nOps++] = AFFINE;
+      args[nArgs++] = a;
+      args[nArgs++] = b;
+    }
+    return new CompiledConverter(converter, headScale, headOffset, Arrays.copyOf(ops, nOps), Arrays.copyOf(args, nArgs), Arrays.copyOf(steps,
+        nSteps));
+  }
+
+  @Override
+  public double convert(double value) {
+    double x = value * scale + offset;
+    if (ops == null)
+      return x;
+    int arg = 0;
+    int step = 0;
+    for (int i = 0; i < ops.length; i++) {
+      switch (ops[i]) {
+        case AFFINE:
+          x = x * args[arg] + args[arg + 1];
+          arg += 2;
+          break;
+        case EXP:
+          x = MATH.exp(x);
+          break;
+        case LOG:
+          x = MATH.log(x);
+          break;
+        default:
+          x = steps[step++].convert(x);
+      }
+    }
+    return x;
+  }
+
+  /**
+   * Converts the specified values. Affine conversions use explicit SIMD lanes on Java SE 17+ when the <code>jdk.incubator.vector</code> module
+   * is present and the system property <code>tec.units.ri.bulk</code> is set to <code>vector</code>.
+   *
+   * @param values
+   *          the values to convert.
+   * @param dest
+   *          the array receiving the converted values (can be <code>values</code>).
+   */
+  public void convert(double[] values, double[] dest) {
+    if (ops == null) {
+      BulkAffine.apply(values, 0, dest, 0, values.length, scale, offset);
+    } else {
+      for (int i = 0; i < values.length; i++) {
+        dest[i] = convert(values[i]);
+      }
+    }
+  }
+
+  /**
+   * Indicates if this converter is a single affine operation <code>getScale()·x + getOffset()</code> (e.g. any chain of linear and additive
+   * converters, but not a logarithmic one).
+   *
+   * @return <code>true</code> if the conversion is affine; <code>false</code> otherwise.
+   */
+  public boolean isAffine() {
+    return ops == null;
+  }
+
+  /**
+   * Returns the scale of the first operation of this converter, the scale of the whole conversion if {@link #isAffine() affine}. The scale is the
+   * product of the factors of the chain, not a difference of converted values (e.g. exactly <code>5.0 / 9</code> from Fahrenheit to Kelvin).
+   *
+   * @return the scale of the first operation.
+   */
+  public double getScale() {
+    return scale;
+  }
+
+  /**
+   * Returns the offset of the first operation of this converter, the offset of the whole conversion if {@link #isAffine() affine}.
+   *
+   * @return the offset of the first operation.
+   */
+  public double getOffset() {
+    return offset;
+  }
+
+  @Override
+  public boolean isIdentity() {
+    return ops == null && scale == 1 && offset == 0;
+  }
+
+  /**
+   * Returns the converter this converter has been compiled from.
+   *
+   * @return the source converter.
+   */
+  public UnitConverter getSource() {
+    return source;
+  }
+
+  @Override
+  public AbstractConverter inverse() {
+    return of(source.inverse());
+  }
+
+  public boolean isLinear() {
+    return source.isLinear();
+  }
+
+  @Override
+  public final String toString() {
+    return "Compiled(" + source + ")";
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj)
+      return true;
+    if (!(obj instanceof CompiledConverter))
+      return false;
+    CompiledConverter that = (CompiledConverter) obj;
+    return this.scale == that.scale && this.offset == that.offset && Arrays.equals(this.ops, that.ops) && Arrays.equals(this.args, that.args)
+        && Arrays.equals(this.steps, that.steps);
+  }
+
+  @Override
+  public int hashCode() {
+    long bits = Double.doubleToLongBits(scale) + 31 * Double.doubleToLongBits(offset);
+    return (int) (bits ^ (bits >>> 32)) + Arrays.hashCode(ops) + Arrays.hashCode(args);
+  }
+
+  public String getValue() {
+    return toString();
+  }
+}
@@ -29,8 +29,10 @@
  */
 package tec.units.ri.function;
 
+import javax.measure.UnitConverter;
+
 import tec.units.ri.AbstractConverter;
-import tec.units.ri.internal.MathUtil;
+import tec.units.ri.internal.MathProvider;
 import tec.uom.lib.common.function.ValueSupplier;
 
 /**
@@ -52,6 +54,11 @@ public final class ExpConverter extends AbstractConverter implements ValueSuppli
 	 */
   // private static final long serialVersionUID = -8851436813812059827L;
 
+  /**
+   * Holds the elementary functions implementation.
+   */
+  private static final MathProvider MATH = MathProvider.getInstance();
+
   /**
    * Holds the logarithmic base.
    */
@@ -70,7 +77,21 @@ public final class ExpConverter extends AbstractConverter implements ValueSuppli
    */
   public ExpConverter(double base) {
     this.base = base;
-    this.logOfBase = MathUtil.log(base);
+    this.logOfBase = MATH.log(base);
+  }
+
+  /**
+   * Creates an exponential converter from its base and the natural logarithm of its base. Scaled converters hold a natural logarithm which is not
+   * exactly the logarithm of their rounded base; this constructor restores such a converter exactly (e.g. when decoding it).
+   *
+   * @param base
+   *          the exponential base.
+   * @param logOfBase
+   *          the natural logarithm of the base (as returned by {@link #getLogOfBase()}).
+   */
+  public ExpConverter(double base, double logOfBase) {
+    this.base = base;
+    this.logOfBase = logOfBase;
   }
 
   /**
@@ -84,7 +105,40 @@ public final class ExpConverter extends AbstractConverter implements ValueSuppli
 
   @Override
   public AbstractConverter inverse() {
-    return new LogConverter(base);
+    return new LogConverter(base, logOfBase);
+  }
+
+  /**
+   * Simplifies the concatenation with a logarithmic or a scaling converter: <code>b<sup>log<sub>b</sub>(x)</sup></code> is the identity (for
+   * positive values) and <code>b<sup>k·x</sup></code> is <code>(b<sup>k</sup>)<sup>x</sup></code>.
+   */
+  @Override
+  public UnitConverter concatenate(UnitConverter converter) {
+    if (converter instanceof LogConverter && ((LogConverter) converter).getLogOfBase() == logOfBase)
+      return IDENTITY;
+    double factor = MultiplyConverter.scaleOf(converter);
+    if (factor != 0 && !Double.isNaN(factor)) {
+      double newLogOfBase = logOfBase * factor;
+      return new ExpConverter(MATH.exp(newLogOfBase), newLogOfBase);
+    }
+    return super.concatenate(converter);
+  }
+
+  /**
+   * Returns the specified scale followed by this converter, with the scale pushed in as an offset: <code>k·b<sup>x</sup></code> is
+   * <code>b<sup>x + log<sub>b</sub>(k)</sup></code>.
+   */
+  UnitConverter scaledBy(double factor) {
+    return super.concatenate(new AddConverter(MATH.log(factor) / logOfBase));
+  }
+
+  /**
+   * Returns the natural logarithm of the base.
+   *
+   * @return the natural logarithm of the base.
+   */
+  public double getLogOfBase() {
+    return logOfBase;
   }
 
   @Override
@@ -101,7 +155,7 @@ public final class ExpConverter extends AbstractConverter implements ValueSuppli
     if (!(obj instanceof ExpConverter))
       return false;
     ExpConverter that = (ExpConverter) obj;
-    return this.base == that.base;
+    return this.base == that.base && this.logOfBase == that.logOfBase;
   }
 
   @Override
@@ -112,7 +166,7 @@ public final class ExpConverter extends AbstractConverter implements ValueSuppli
 
   @Override
   public double convert(double amount) {
-    return MathUtil.exp(logOfBase * amount);
+    return MATH.exp(logOfBase * amount);
   }
 
   // @Override
@@ -29,8 +29,10 @@
  */
 package tec.units.ri.function;
 
+import javax.measure.UnitConverter;
+
 import tec.units.ri.AbstractConverter;
-import tec.units.ri.internal.MathUtil;
+import tec.units.ri.internal.MathProvider;
 import tec.uom.lib.common.function.ValueSupplier;
 
 /**
@@ -50,6 +52,11 @@ public final class LogConverter extends AbstractConverter implements ValueSuppli
 	 */
   // private static final long serialVersionUID = -7584688290961460870L;
 
+  /**
+   * Holds the elementary functions implementation.
+   */
+  private static final MathProvider MATH = MathProvider.getInstance();
+
   /**
    * Holds the logarithmic base.
    */
@@ -67,7 +74,21 @@ public final class LogConverter extends AbstractConverter implements ValueSuppli
    */
   public LogConverter(double base) {
     this.base = base;
-    this.logOfBase = MathUtil.log(base);
+    this.logOfBase = MATH.log(base);
+  }
+
+  /**
+   * Creates a logarithmic converter from its base and the natural logarithm of its base. Scaled converters hold a natural logarithm which is not
+   * exactly the logarithm of their rounded base; this constructor restores such a converter exactly (e.g. when decoding it).
+   *
+   * @param base
+   *          the logarithmic base.
+   * @param logOfBase
+   *          the natural logarithm of the base (as returned by {@link #getLogOfBase()}).
+   */
+  public LogConverter(double base, double logOfBase) {
+    this.base = base;
+    this.logOfBase = logOfBase;
   }
 
   /**
@@ -81,7 +102,42 @@ public final class LogConverter extends AbstractConverter implements ValueSuppli
 
   @Override
   public AbstractConverter inverse() {
-    return new ExpConverter(base);
+    return new ExpConverter(base, logOfBase);
+  }
+
+  /**
+   * Simplifies the concatenation with an exponential or a scaling converter: <code>log<sub>b</sub>(c<sup>x</sup>)</code> is a scale (or the
+   * identity) and <code>log<sub>b</sub>(k·x)</code> becomes <code>log<sub>b</sub>(x) + log<sub>b</sub>(k)</code>, the scale being pushed out as an
+   * offset.
+   */
+  @Override
+  public UnitConverter concatenate(UnitConverter converter) {
+    if (converter instanceof ExpConverter) {
+      double factor = ((ExpConverter) converter).getLogOfBase() / logOfBase;
+      return (factor == 1.0) ? IDENTITY : new MultiplyConverter(factor);
+    }
+    double factor = MultiplyConverter.scaleOf(converter);
+    if (factor > 0)
+      return new AddConverter(MATH.log(factor) / logOfBase).concatenate(this);
+    return super.concatenate(converter);
+  }
+
+  /**
+   * Returns this converter followed by the specified scale, as a logarithm of another base: <code>k·log<sub>b</sub>(x)</code> is
+   * <code>log<sub>b<sup>1/k</sup></sub>(x)</code>.
+   */
+  LogConverter scaledBy(double factor) {
+    double newLogOfBase = logOfBase / factor;
+    return new LogConverter(MATH.exp(newLogOfBase), newLogOfBase);
+  }
+
+  /**
+   * Returns the natural logarithm of the base.
+   *
+   * @return the natural logarithm of the base.
+   */
+  public double getLogOfBase() {
+    return logOfBase;
   }
 
   @Override
@@ -98,7 +154,7 @@ public final class LogConverter extends AbstractConverter implements ValueSuppli
     if (!(obj instanceof LogConverter))
       return false;
     LogConverter that = (LogConverter) obj;
-    return this.base == that.base;
+    return this.base == that.base && this.logOfBase == that.logOfBase;
   }
 
   @Override
@@ -109,7 +165,7 @@ public final class LogConverter extends AbstractConverter implements ValueSuppli
 
   @Override
   public double convert(double amount) {
-    return MathUtil.log(amount) / logOfBase;
+    return MATH.log(amount) / logOfBase;
   }
 
   // @Override
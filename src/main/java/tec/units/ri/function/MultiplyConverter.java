@@ -80,12 +80,29 @@ public final class MultiplyConverter extends AbstractConverter implements ValueS
 
   @Override
   public UnitConverter concatenate(UnitConverter converter) {
+    if (converter instanceof LogConverter && factor != 0)
+      return ((LogConverter) converter).scaledBy(factor);
+    if (converter instanceof ExpConverter && factor > 0)
+      return ((ExpConverter) converter).scaledBy(factor);
     if (!(converter instanceof MultiplyConverter))
       return super.concatenate(converter);
     double newfactor = factor * ((MultiplyConverter) converter).factor;
     return newfactor == 1.0 ? IDENTITY : new MultiplyConverter(newfactor);
   }
 
+  /**
+   * Returns the factor of the specified scaling converter.
+   *
+   * @return the factor of a {@link MultiplyConverter} or {@link RationalConverter}, <code>0</code> for any other converter.
+   */
+  static double scaleOf(UnitConverter converter) {
+    if (converter instanceof MultiplyConverter)
+      return ((MultiplyConverter) converter).factor;
+    if (converter instanceof RationalConverter)
+      return ((RationalConverter) converter).getAsDouble();
+    return 0;
+  }
+
   @Override
   public MultiplyConverter inverse() {
     return new MultiplyConverter(1.0 / factor);
@@ -142,6 +142,10 @@ public final class RationalConverter extends AbstractConverter implements ValueS
 
   @Override
   public UnitConverter concatenate(UnitConverter converter) {
+    if (converter instanceof LogConverter && dividend != 0)
+      return ((LogConverter) converter).scaledBy(getAsDouble());
+    if (converter instanceof ExpConverter && getAsDouble() > 0)
+      return ((ExpConverter) converter).scaledBy(getAsDouble());
     if (!(converter instanceof RationalConverter))
       return super.concatenate(converter);
     RationalConverter that = (RationalConverter) converter;
@@ -0,0 +1,83 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.internal;
+
+/**
+ * The bulk affine conversion <code>dest[i] = src[i]·scale + offset</code>, to which the bulk conversions of linear and offset converters
+ * reduce. This implementation is a scalar loop, left to the auto-vectorization of the JIT; the multi-release JAR replaces it on Java SE 17 and
+ * later by an implementation with explicit SIMD lanes (<code>src/main/java17</code>), used on request when the
+ * <code>jdk.incubator.vector</code> module is present.
+ *
+ * @version 0.1
+ */
+public final class BulkAffine {
+
+  /**
+   * The system property selecting the implementation, <code>vector</code> for SIMD lanes (default <code>scalar</code>). This implementation
+   * ignores it.
+   */
+  public static final String PROPERTY = "tec.units.ri.bulk";
+
+  private BulkAffine() {
+  }
+
+  /**
+   * Returns the name of the implementation loaded.
+   *
+   * @return <code>scalar</code> for this implementation.
+   */
+  public static String getImplementation() {
+    return "scalar";
+  }
+
+  /**
+   * Converts the specified values.
+   *
+   * @param src
+   *          the values to convert.
+   * @param srcOffset
+   *          the index of the first value to convert.
+   * @param dest
+   *          the array receiving the converted values (can be <code>src</code>).
+   * @param destOffset
+   *          the index in <code>dest</code> of the first value converted.
+   * @param length
+   *          the number of values to convert.
+   * @param scale
+   *          the scale of the conversion.
+   * @param offset
+   *          the offset of the conversion.
+   */
+  public static void apply(double[] src, int srcOffset, double[] dest, int destOffset, int length, double scale, double offset) {
+    for (int i = 0; i < length; i++) {
+      dest[destOffset + i] = src[srcOffset + i] * scale + offset;
+    }
+  }
+}
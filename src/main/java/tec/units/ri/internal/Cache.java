@@ -0,0 +1,104 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A map from keys to lazily computed values, shared between threads. This implementation synchronizes every access so as to run on Java ME; the
+ * multi-release JAR replaces it on Java SE 11 and later by a lock-free implementation (<code>src/main/java11</code>) with the same API.
+ *
+ * @param <K>
+ *          the type of the keys.
+ * @param <V>
+ *          the type of the values.
+ * @version 0.1
+ */
+public final class Cache<K, V> {
+
+  private final Map<K, V> map = new HashMap<K, V>();
+
+  /**
+   * Returns the name of the implementation loaded.
+   *
+   * @return <code>synchronized</code> for this implementation.
+   */
+  public static String getImplementation() {
+    return "synchronized";
+  }
+
+  /**
+   * Returns the value cached for the specified key.
+   *
+   * @param key
+   *          the key, not <code>null</code>.
+   * @return the value or <code>null</code> if none.
+   */
+  public V get(K key) {
+    if (key == null)
+      throw new NullPointerException();
+    synchronized (map) {
+      return map.get(key);
+    }
+  }
+
+  /**
+   * Caches the specified value unless a value is already cached for the specified key.
+   *
+   * @param key
+   *          the key, not <code>null</code>.
+   * @param value
+   *          the value, not <code>null</code>.
+   * @return the value cached for the key: the specified value, or the value previously cached if any.
+   */
+  public V putIfAbsent(K key, V value) {
+    if (key == null || value == null)
+      throw new NullPointerException();
+    synchronized (map) {
+      V previous = map.get(key);
+      if (previous != null)
+        return previous;
+      map.put(key, value);
+      return value;
+    }
+  }
+
+  /**
+   * Returns the number of values cached.
+   *
+   * @return the cache size.
+   */
+  public int size() {
+    synchronized (map) {
+      return map.size();
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.internal;
+
+/**
+ * The elementary functions used by converters and prefixes. The implementation is selected once, when this class is initialized: the platform
+ * {@link java.lang.Math} where it provides them (Java SE, where they are intrinsified), otherwise the FDLIBM port of {@link MathUtil} (Java ME).
+ * Setting the system property <code>tec.units.ri.math</code> to <code>fdlibm</code> forces the port.
+ *
+ * @version 0.1
+ */
+public abstract class MathProvider {
+
+  /**
+   * The system property selecting the implementation.
+   */
+  public static final String PROPERTY = "tec.units.ri.math";
+
+  private static final MathProvider INSTANCE = select();
+
+  /**
+   * Returns the implementation selected at startup.
+   *
+   * @return the math provider.
+   */
+  public static MathProvider getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Returns the name of this implementation.
+   *
+   * @return the name (<code>platform</code> or <code>fdlibm</code>).
+   */
+  public abstract String getName();
+
+  /**
+   * Returns Euler's number <i>e</i> raised to the power of a.
+   *
+   * @param a
+   *          the exponent.
+   * @return <code>e<sup>a</sup></code>.
+   */
+  public abstract double exp(double a);
+
+  /**
+   * Returns the natural logarithm of a.
+   *
+   * @param a
+   *          a value.
+   * @return <code>ln(a)</code>.
+   */
+  public abstract double log(double a);
+
+  /**
+   * Returns a raised to the power of b.
+   *
+   * @param a
+   *          the base.
+   * @param b
+   *          the exponent.
+   * @return <code>a<sup>b</sup></code>.
+   */
+  public abstract double pow(double a, double b);
+
+  private static MathProvider select() {
+    String name = null;
+    try {
+      name = System.getProperty(PROPERTY);
+    } catch (SecurityException e) {
+      // Default selection.
+    }
+    if (!FdlibmMathProvider.NAME.equals(name)) {
+      try {
+        MathProvider platform = new PlatformMathProvider();
+        platform.exp(platform.log(platform.pow(2, 2))); // Links the platform methods.
+        return platform;
+      } catch (LinkageError e) {
+        // Java ME, falls back to the port.
+      }
+    }
+    return new FdlibmMathProvider();
+  }
+}
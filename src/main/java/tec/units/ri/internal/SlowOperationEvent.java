@@ -0,0 +1,65 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.internal;
+
+/**
+ * The event emitted for each operation recorded by {@link tec.units.ri.spi.SlowOperationLog}. This implementation emits nothing so as to run on
+ * Java ME; the multi-release JAR replaces it on Java SE 11 and later by a JDK Flight Recorder event (<code>src/main/java11</code>) with the same
+ * API, recorded when the <code>tec.units.ri.SlowOperation</code> event is enabled.
+ *
+ * @version 0.1
+ */
+public final class SlowOperationEvent {
+
+  private SlowOperationEvent() {
+  }
+
+  /**
+   * Returns the name of the implementation loaded.
+   *
+   * @return <code>none</code> for this implementation.
+   */
+  public static String getImplementation() {
+    return "none";
+  }
+
+  /**
+   * Emits the event of a slow operation.
+   *
+   * @param operation
+   *          the name of the operation.
+   * @param elapsedNanos
+   *          the duration of the operation, in nanoseconds.
+   * @param thresholdNanos
+   *          the threshold the operation exceeded, in nanoseconds.
+   */
+  public static void emit(String operation, long elapsedNanos, long thresholdNanos) {
+  }
+}
@@ -0,0 +1,405 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.quantity;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.measure.Quantity;
+import javax.measure.Unit;
+import javax.measure.UnitConverter;
+
+import tec.units.ri.stream.Flow.Processor;
+import tec.units.ri.stream.Flow.Subscriber;
+import tec.units.ri.stream.Flow.Subscription;
+
+/**
+ * A reactive stage converting a stream of quantities into a target unit.
+ * <p>
+ * The stage subscribes to a publisher of quantities and republishes them, converted into the target unit, to a single subscriber (see
+ * {@link tec.units.ri.stream.Flow}). Items are buffered in a bounded queue and delivered as downstream demand allows. Upstream demand is
+ * replenished as items leave the queue, so that at most <code>capacity</code> items are ever buffered. Each delivery takes a batch of consecutive
+ * queued items stated in the same unit and converts them with a single converter, the order of the items is preserved. Converters are cached for
+ * the {@link #MAX_CONVERTERS} most recently seen source units, so that a stream of arbitrary units cannot grow the stage without limit.
+ * </p>
+ * <p>
+ * Signals to the subscriber are serialized; the stage may be driven from any number of threads.
+ * </p>
+ *
+ * @param <Q>
+ *          The type of the quantities converted.
+ * @version 0.1
+ */
+public class ConversionProcessor<Q extends Quantity<Q>> implements Processor<Quantity<Q>, Quantity<Q>> {
+
+  /** The default number of items buffered. */
+  public static final int DEFAULT_CAPACITY = 256;
+
+  /** The default maximum number of items converted together. */
+  public static final int DEFAULT_BATCH_SIZE = 64;
+
+  /** The maximum number of source units whose converter is cached. */
+  public static final int MAX_CONVERTERS = 32;
+
+  private final Unit<Q> unit;
+  private final int capacity;
+  private final double[] batchValues;
+  private final Object lock = new Object();
+  private final ArrayDeque<Quantity<Q>> queue = new ArrayDeque<Quantity<Q>>();
+  @SuppressWarnings("serial")
+  private final Map<Unit<Q>, UnitConverter> converters = new LinkedHashMap<Unit<Q>, UnitConverter>(16, 0.75f, true) { // Accessed by drain() only.
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Unit<Q>, UnitConverter> eldest) {
+      return size() > MAX_CONVERTERS;
+    }
+  };
+
+  // Guarded by lock.
+  private Subscription upstream;
+  private Subscriber<? super Quantity<Q>> downstream;
+  private long demand;
+  private long upstreamRequest;
+  private boolean draining;
+  private boolean missed;
+  private boolean completed;
+  private boolean cancelled;
+  private boolean terminated;
+  private Throwable error;
+
+  // Statistics, guarded by lock.
+  private long batchCount;
+  private long itemCount;
+  private int maxBatchSize;
+
+  /**
+   * Creates a stage with the default capacity and batch size.
+   *
+   * @param unit
+   *          the target unit.
+   */
+  public ConversionProcessor(Unit<Q> unit) {
+    this(unit, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * Creates a stage.
+   *
+   * @param unit
+   *          the target unit.
+   * @param capacity
+   *          the maximum number of items buffered (and requested from upstream in advance).
+   * @param batchSize
+   *          the maximum number of items converted together.
+   * @throws IllegalArgumentException
+   *           if the capacity or the batch size is not positive.
+   */
+  public ConversionProcessor(Unit<Q> unit, int capacity, int batchSize) {
+    if (unit == null)
+      throw new NullPointerException("Unit cannot be null");
+    if (capacity <= 0 || batchSize <= 0)
+      throw new IllegalArgumentException("Capacity and batch size must be positive: " + capacity + ", " + batchSize);
+    this.unit = unit;
+    this.capacity = capacity;
+    this.batchValues = new double[Math.min(capacity, batchSize)];
+  }
+
+  /**
+   * Returns the unit quantities are converted into.
+   *
+   * @return the target unit.
+   */
+  public Unit<Q> getUnit() {
+    return unit;
+  }
+
+  @Override
+  public void subscribe(Subscriber<? super Quantity<Q>> subscriber) {
+    if (subscriber == null)
+      throw new NullPointerException("Subscriber cannot be null");
+    boolean rejected;
+    synchronized (lock) {
+      rejected = (downstream != null);
+      if (!rejected)
+        downstream = subscriber;
+    }
+    if (rejected) {
+      subscriber.onSubscribe(new Subscription() {
+        public void request(long n) {
+        }
+
+        public void cancel() {
+        }
+      });
+      subscriber.onError(new IllegalStateException("Only one subscriber is supported"));
+      return;
+    }
+    subscriber.onSubscribe(new Downstream());
+    drain();
+  }
+
+  @Override
+  public void onSubscribe(Subscription subscription) {
+    boolean cancel;
+    synchronized (lock) {
+      cancel = (upstream != null) || cancelled;
+      if (!cancel) {
+        upstream = subscription;
+        upstreamRequest = capacity;
+      }
+    }
+    if (cancel) {
+      subscription.cancel();
+    } else {
+      subscription.request(capacity);
+    }
+  }
+
+  @Override
+  public void onNext(Quantity<Q> item) {
+    if (item == null)
+      throw new NullPointerException("Item cannot be null");
+    synchronized (lock) {
+      if (cancelled || completed)
+        return;
+      if (queue.size() >= capacity) {
+        error = new IllegalStateException("Upstream sent more items than requested");
+        completed = true;
+      } else {
+        queue.add(item);
+        upstreamRequest--;
+      }
+    }
+    drain();
+  }
+
+  @Override
+  public void onError(Throwable throwable) {
+    synchronized (lock) {
+      if (completed)
+        return;
+      error = throwable;
+      completed = true;
+      queue.clear();
+    }
+    drain();
+  }
+
+  @Override
+  public void onComplete() {
+    synchronized (lock) {
+      completed = true;
+    }
+    drain();
+  }
+
+  /**
+   * Returns the number of items received and not yet delivered.
+   *
+   * @return the queue depth.
+   */
+  public int getQueueDepth() {
+    synchronized (lock) {
+      return queue.size();
+    }
+  }
+
+  /**
+   * Returns the number of batches delivered.
+   *
+   * @return the batch count.
+   */
+  public long getBatchCount() {
+    synchronized (lock) {
+      return batchCount;
+    }
+  }
+
+  /**
+   * Returns the number of items delivered.
+   *
+   * @return the item count.
+   */
+  public long getItemCount() {
+    synchronized (lock) {
+      return itemCount;
+    }
+  }
+
+  /**
+   * Returns the largest number of items delivered in a single batch.
+   *
+   * @return the maximum batch size.
+   */
+  public int getMaxBatchSize() {
+    synchronized (lock) {
+      return maxBatchSize;
+    }
+  }
+
+  /**
+   * Returns the average number of items delivered per batch.
+   *
+   * @return the mean batch size or <code>NaN</code> if no batch has been delivered.
+   */
+  public double getAverageBatchSize() {
+    synchronized (lock) {
+      return (batchCount == 0) ? Double.NaN : (double) itemCount / batchCount;
+    }
+  }
+
+  private void drain() {
+    synchronized (lock) {
+      if (draining) {
+        missed = true;
+        return;
+      }
+      draining = true;
+    }
+    for (;;) {
+      Subscriber<? super Quantity<Q>> subscriber;
+      Subscription source;
+      Unit<Q> batchUnit = null;
+      int n = 0;
+      long replenish = 0;
+      Throwable failure = null;
+      boolean complete = false;
+      synchronized (lock) {
+        subscriber = downstream;
+        source = upstream;
+        if (subscriber == null || terminated) {
+          draining = false;
+          return;
+        }
+        if (error != null) {
+          failure = error;
+          terminated = true;
+        } else {
+          long limit = Math.min(demand, batchValues.length);
+          while (n < limit && !queue.isEmpty()) {
+            Quantity<Q> head = queue.peek();
+            if (batchUnit == null) {
+              batchUnit = head.getUnit();
+            } else if (!batchUnit.equals(head.getUnit())) {
+              break;
+            }
+            batchValues[n++] = queue.poll().getValue().doubleValue();
+          }
+          if (n > 0) {
+            demand -= n;
+            batchCount++;
+            itemCount += n;
+            maxBatchSize = Math.max(maxBatchSize, n);
+            if (!completed && !cancelled) {
+              replenish = capacity - queue.size() - upstreamRequest;
+              upstreamRequest += replenish;
+            }
+          } else if (completed && queue.isEmpty()) {
+            complete = true;
+            terminated = true;
+          } else if (!missed) {
+            draining = false;
+            return;
+          } else {
+            missed = false;
+            continue;
+          }
+        }
+      }
+      if (failure != null) {
+        if (source != null)
+          source.cancel();
+        subscriber.onError(failure);
+        return;
+      }
+      if (complete) {
+        subscriber.onComplete();
+        return;
+      }
+      UnitConverter converter;
+      try {
+        converter = converterFrom(batchUnit);
+      } catch (RuntimeException e) {
+        synchronized (lock) {
+          error = e;
+          completed = true;
+          queue.clear();
+        }
+        continue;
+      }
+      for (int i = 0; i < n; i++) {
+        subscriber.onNext(Quantities.getQuantity(converter.convert(batchValues[i]), unit));
+      }
+      if (replenish > 0 && source != null)
+        source.request(replenish);
+    }
+  }
+
+  private UnitConverter converterFrom(Unit<Q> sourceUnit) {
+    UnitConverter converter = converters.get(sourceUnit);
+    if (converter == null) {
+      converter = sourceUnit.getConverterTo(unit);
+      converters.put(sourceUnit, converter);
+    }
+    return converter;
+  }
+
+  private final class Downstream implements Subscription {
+
+    @Override
+    public void request(long n) {
+      synchronized (lock) {
+        if (n <= 0) {
+          error = new IllegalArgumentException("Requested items must be positive: " + n);
+          completed = true;
+          queue.clear();
+        } else {
+          demand = (demand + n < 0) ? Long.MAX_VALUE : demand + n; // Unbounded on overflow.
+        }
+      }
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      Subscription source;
+      synchronized (lock) {
+        if (cancelled)
+          return;
+        cancelled = true;
+        terminated = true;
+        queue.clear();
+        source = upstream;
+      }
+      if (source != null)
+        source.cancel();
+    }
+  }
+}
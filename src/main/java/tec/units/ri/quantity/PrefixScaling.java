@@ -0,0 +1,184 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.quantity;
+
+import static tec.units.ri.unit.MetricPrefix.*;
+
+import javax.measure.Quantity;
+import javax.measure.Unit;
+import javax.measure.UnitConverter;
+
+import tec.units.ri.unit.MetricPrefix;
+import tec.units.ri.unit.Units;
+
+/**
+ * Singleton class scaling quantities to the engineering {@link MetricPrefix} (exponent multiple of three) best suited to their magnitude, e.g.
+ * <code>12300000 W</code> to <code>12.3 MW</code>.<br/>
+ * <code>
+ *     Quantity<Power> power = PrefixScaling.scale(Quantities.getQuantity(12300000, WATT)); // 12.3 MW
+ * </code>
+ *
+ * <p>
+ * The prefix is looked up from the decimal exponent of the value in a precomputed table, so that a single conversion is performed whatever the
+ * magnitude. A column of values can be scaled to one prefix shared by all its values.
+ * </p>
+ *
+ * @version 0.1
+ */
+public final class PrefixScaling {
+
+  /**
+   * Holds the engineering prefixes from <code>10<sup>-24</sup></code> to <code>10<sup>24</sup></code>, <code>null</code> standing for no prefix.
+   */
+  private static final MetricPrefix[] PREFIXES = { YOCTO, ZEPTO, ATTO, FEMTO, PICO, NANO, MICRO, MILLI, null, KILO, MEGA, GIGA, TERA, PETA, EXA,
+      ZETTA, YOTTA };
+
+  /**
+   * Holds the lower magnitude of each prefix of {@link #PREFIXES}.
+   */
+  private static final double[] THRESHOLDS = { 1e-24, 1e-21, 1e-18, 1e-15, 1e-12, 1e-9, 1e-6, 1e-3, 1, 1e3, 1e6, 1e9, 1e12, 1e15, 1e18, 1e21,
+      1e24 };
+
+  /**
+   * Holds the exact inverse of each negative power of {@link #THRESHOLDS}, values being divided by large powers and multiplied by the inverse of
+   * small ones.
+   */
+  private static final double[] INVERSES = { 1e24, 1e21, 1e18, 1e15, 1e12, 1e9, 1e6, 1e3, 1 };
+
+  /**
+   * Private singleton constructor.
+   */
+  private PrefixScaling() {
+  }
+
+  /**
+   * Returns the engineering prefix best suited to the specified magnitude.
+   *
+   * @param value
+   *          the value stated in a unit without prefix.
+   * @return the prefix for which the scaled value lies in <code>[1, 1000)</code> (within the range of prefixes), or <code>null</code> if no prefix
+   *         should be applied.
+   */
+  public static MetricPrefix bestPrefix(double value) {
+    return PREFIXES[indexOf(value)];
+  }
+
+  /**
+   * Returns the specified quantity stated in the engineering prefix of its unit best suited to its magnitude. Any prefix already applied to the unit
+   * by {@link MetricPrefix} is replaced.
+   *
+   * @param <Q>
+   *          The type of the quantity.
+   * @param quantity
+   *          the quantity to scale.
+   * @return the scaled quantity.
+   */
+  public static <Q extends Quantity<Q>> Quantity<Q> scale(Quantity<Q> quantity) {
+    Unit<Q> base = baseOf(quantity.getUnit());
+    UnitConverter toBase = quantity.getUnit().getConverterTo(base);
+    double value = toBase.convert(quantity.getValue().doubleValue());
+    int index = indexOf(value);
+    return Quantities.getQuantity(scale(value, index), unitOf(base, index));
+  }
+
+  /**
+   * Scales the specified values to the single engineering prefix best suited to their largest magnitude.
+   *
+   * @param <Q>
+   *          The type of the quantity.
+   * @param values
+   *          the values to scale.
+   * @param unit
+   *          the unit all values are stated in.
+   * @param dest
+   *          the array receiving the scaled values (can be <code>values</code>).
+   * @return the unit the scaled values are stated in.
+   */
+  public static <Q extends Quantity<Q>> Unit<Q> scale(double[] values, Unit<Q> unit, double[] dest) {
+    Unit<Q> base = baseOf(unit);
+    UnitConverter toBase = unit.getConverterTo(base);
+    double max = 0;
+    for (int i = 0; i < values.length; i++) {
+      double value = toBase.convert(values[i]);
+      dest[i] = value;
+      double abs = Math.abs(value);
+      if (abs > max && !Double.isInfinite(abs))
+        max = abs;
+    }
+    int index = indexOf(max);
+    if (index != 8) {
+      for (int i = 0; i < values.length; i++) {
+        dest[i] = scale(dest[i], index);
+      }
+    }
+    return unitOf(base, index);
+  }
+
+  /**
+   * Returns the index in {@link #PREFIXES} of the prefix for the specified value.
+   */
+  private static int indexOf(double value) {
+    double abs = Math.abs(value);
+    if (abs == 0 || Double.isNaN(abs) || Double.isInfinite(abs))
+      return 8; // No prefix.
+    int low = 0;
+    int high = THRESHOLDS.length - 1;
+    while (low < high) { // Last threshold lower or equal to abs.
+      int mid = (low + high + 1) >>> 1;
+      if (THRESHOLDS[mid] <= abs)
+        low = mid;
+      else
+        high = mid - 1;
+    }
+    return low;
+  }
+
+  private static double scale(double value, int index) {
+    return (index < 8) ? value * INVERSES[index] : value / THRESHOLDS[index];
+  }
+
+  private static <Q extends Quantity<Q>> Unit<Q> unitOf(Unit<Q> base, int index) {
+    MetricPrefix prefix = PREFIXES[index];
+    return (prefix == null) ? base : prefix.prefix(base);
+  }
+
+  /**
+   * Returns the unit the specified unit is prefixed from, mass prefixes applying to the gram.
+   */
+  @SuppressWarnings("unchecked")
+  private static <Q extends Quantity<Q>> Unit<Q> baseOf(Unit<Q> unit) {
+    Unit<Q> base = MetricPrefix.baseOf(unit);
+    if (base == null)
+      base = unit;
+    if (base.equals(Units.KILOGRAM))
+      return (Unit<Q>) Units.GRAM;
+    return base;
+  }
+}
@@ -0,0 +1,309 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.quantity;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.measure.Dimension;
+import javax.measure.Quantity;
+import javax.measure.Unit;
+import javax.measure.UnitConverter;
+
+import tec.units.ri.stream.Streams;
+import tec.units.ri.stream.Streams.Collector;
+import tec.units.ri.stream.Streams.Collector.Characteristics;
+
+/**
+ * <p>
+ * This class provides unit-aware {@link Collector collectors} of quantities: sum, average, summary statistics and grouping by unit or dimension.
+ * </p>
+ * 
+ * <p>
+ * Reducing quantities with {@link Quantity#add(Quantity)} allocates a quantity per item and converts each of them; these collectors instead
+ * convert once per distinct source unit (converters are cached in each container) and accumulate primitive values, a quantity being only
+ * created for the result. For example:<br>
+ * <code>
+ *     Quantity&lt;Length&gt; total = Streams.collect(legs, QuantityCollectors.summing(KILO(METRE)));
+ * </code>
+ * </p>
+ * 
+ * <p>
+ * Containers can be combined, so that partial reductions (e.g. of the parts of a {@link QuantityColumn#spliterator() split} column) can be
+ * computed by parallel workers.
+ * </p>
+ *
+ * @version 0.1
+ * @see Streams
+ */
+public final class QuantityCollectors {
+
+  // Same characteristics as the java.util.stream.Collectors counterparts.
+  private static final Set<Characteristics> NO_CHARACTERISTICS = Collections.emptySet();
+  private static final Set<Characteristics> IDENTITY_FINISH = Collections.unmodifiableSet(EnumSet.of(Characteristics.IDENTITY_FINISH));
+
+  private QuantityCollectors() {
+  }
+
+  /**
+   * Returns a collector computing the sum of quantities, stated in the specified unit. The sum is compensated (Kahan summation), so that its
+   * accuracy does not depend on the number of items.
+   *
+   * @param unit
+   *          the unit of the result.
+   * @return the corresponding collector, whose result is zero in the specified unit if there is no item.
+   */
+  public static <Q extends Quantity<Q>> Collector<Quantity<Q>, ?, Quantity<Q>> summing(final Unit<Q> unit) {
+    checkUnit(unit);
+    return new Summation<Q, Quantity<Q>>(unit) {
+
+      public Quantity<Q> finish(Sum<Q> sum) {
+        return Quantities.getQuantity(sum.sum, unit);
+      }
+    };
+  }
+
+  /**
+   * Returns a collector computing the arithmetic mean of quantities, stated in the specified unit.
+   *
+   * @param unit
+   *          the unit of the result.
+   * @return the corresponding collector, whose result is <code>null</code> if there is no item.
+   */
+  public static <Q extends Quantity<Q>> Collector<Quantity<Q>, ?, Quantity<Q>> averaging(final Unit<Q> unit) {
+    checkUnit(unit);
+    return new Summation<Q, Quantity<Q>>(unit) {
+
+      public Quantity<Q> finish(Sum<Q> sum) {
+        return (sum.count == 0) ? null : Quantities.getQuantity(sum.sum / sum.count, unit);
+      }
+    };
+  }
+
+  /**
+   * Returns a collector computing the {@link QuantityStatistics statistics} of quantities, stated in the specified unit.
+   *
+   * @param unit
+   *          the unit of the statistics.
+   * @return the corresponding collector.
+   */
+  public static <Q extends Quantity<Q>> Collector<Quantity<Q>, ?, QuantityStatistics<Q>> summarizing(final Unit<Q> unit) {
+    checkUnit(unit);
+    return new Collector<Quantity<Q>, QuantityStatistics<Q>, QuantityStatistics<Q>>() {
+
+      public QuantityStatistics<Q> supply() {
+        return new QuantityStatistics<Q>(unit);
+      }
+
+      public void accumulate(QuantityStatistics<Q> statistics, Quantity<Q> quantity) {
+        statistics.accept(quantity);
+      }
+
+      public QuantityStatistics<Q> combine(QuantityStatistics<Q> left, QuantityStatistics<Q> right) {
+        left.merge(right);
+        return left;
+      }
+
+      public QuantityStatistics<Q> finish(QuantityStatistics<Q> statistics) {
+        return statistics;
+      }
+
+      public Set<Characteristics> characteristics() {
+        return IDENTITY_FINISH;
+      }
+    };
+  }
+
+  /**
+   * Returns a collector computing the {@link QuantityStatistics statistics} of quantities grouped by unit; the statistics of each group are stated
+   * in the unit of the group, no value is converted.
+   *
+   * @return the corresponding collector.
+   */
+  public static Collector<Quantity<?>, ?, Map<Unit<?>, QuantityStatistics<?>>> groupingByUnit() {
+    return new Grouping<Unit<?>>() {
+
+      @Override
+      Unit<?> keyOf(Unit<?> unit) {
+        return unit;
+      }
+
+      @Override
+      Unit<?> statisticsUnit(Unit<?> unit) {
+        return unit;
+      }
+    };
+  }
+
+  /**
+   * Returns a collector computing the {@link QuantityStatistics statistics} of quantities grouped by dimension; the statistics of each group are
+   * stated in the {@link Unit#getSystemUnit() system unit} of the dimension.
+   *
+   * @return the corresponding collector.
+   */
+  public static Collector<Quantity<?>, ?, Map<Dimension, QuantityStatistics<?>>> groupingByDimension() {
+    return new Grouping<Dimension>() {
+
+      @Override
+      Dimension keyOf(Unit<?> unit) {
+        return unit.getDimension();
+      }
+
+      @Override
+      Unit<?> statisticsUnit(Unit<?> unit) {
+        return unit.getSystemUnit();
+      }
+    };
+  }
+
+  private static void checkUnit(Unit<?> unit) {
+    if (unit == null)
+      throw new NullPointerException("Unit cannot be null");
+  }
+
+  /**
+   * The summing and averaging collectors.
+   */
+  private abstract static class Summation<Q extends Quantity<Q>, R> implements Collector<Quantity<Q>, Sum<Q>, R> {
+    private final Unit<Q> unit;
+
+    Summation(Unit<Q> unit) {
+      this.unit = unit;
+    }
+
+    public Sum<Q> supply() {
+      return new Sum<Q>(unit);
+    }
+
+    public void accumulate(Sum<Q> sum, Quantity<Q> quantity) {
+      sum.accept(quantity);
+    }
+
+    public Sum<Q> combine(Sum<Q> left, Sum<Q> right) {
+      left.add(right.sum);
+      left.add(-right.compensation);
+      left.count += right.count;
+      return left;
+    }
+
+    public Set<Characteristics> characteristics() {
+      return NO_CHARACTERISTICS;
+    }
+  }
+
+  /**
+   * The container of the summing and averaging collectors.
+   */
+  private static final class Sum<Q extends Quantity<Q>> {
+    private final Unit<Q> unit;
+    private final Map<Unit<Q>, UnitConverter> converters = new HashMap<Unit<Q>, UnitConverter>();
+    private Unit<Q> lastUnit;
+    private UnitConverter lastConverter;
+    private double sum;
+    private double compensation; // Low-order bits lost by the sum.
+    private long count;
+
+    Sum(Unit<Q> unit) {
+      this.unit = unit;
+    }
+
+    void accept(Quantity<Q> quantity) {
+      Unit<Q> quantityUnit = quantity.getUnit();
+      if (quantityUnit != lastUnit) {
+        UnitConverter converter = converters.get(quantityUnit);
+        if (converter == null) {
+          converter = quantityUnit.getConverterTo(unit);
+          converters.put(quantityUnit, converter);
+        }
+        lastUnit = quantityUnit;
+        lastConverter = converter;
+      }
+      add(lastConverter.convert(quantity.getValue().doubleValue()));
+      count++;
+    }
+
+    void add(double value) {
+      double y = value - compensation;
+      double t = sum + y;
+      compensation = (t - sum) - y;
+      sum = t;
+    }
+  }
+
+  /**
+   * The grouping collectors, whose containers map keys to the statistics of their group.
+   */
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  private abstract static class Grouping<K> implements Collector<Quantity<?>, Map<K, QuantityStatistics<?>>, Map<K, QuantityStatistics<?>>> {
+
+    abstract K keyOf(Unit<?> unit);
+
+    // Returns the unit of the statistics of a new group, given the unit of its first quantity.
+    abstract Unit<?> statisticsUnit(Unit<?> unit);
+
+    public Map<K, QuantityStatistics<?>> supply() {
+      return new HashMap<K, QuantityStatistics<?>>();
+    }
+
+    public void accumulate(Map<K, QuantityStatistics<?>> groups, Quantity<?> quantity) {
+      Unit unit = quantity.getUnit();
+      K key = keyOf(unit);
+      QuantityStatistics statistics = groups.get(key);
+      if (statistics == null) {
+        statistics = new QuantityStatistics(statisticsUnit(unit));
+        groups.put(key, statistics);
+      }
+      statistics.accept(quantity.getValue().doubleValue(), unit); // Converters are cached by the statistics.
+    }
+
+    public Map<K, QuantityStatistics<?>> combine(Map<K, QuantityStatistics<?>> left, Map<K, QuantityStatistics<?>> right) {
+      for (Map.Entry<K, QuantityStatistics<?>> entry : right.entrySet()) {
+        QuantityStatistics statistics = left.get(entry.getKey());
+        if (statistics == null) {
+          left.put(entry.getKey(), entry.getValue());
+        } else {
+          statistics.merge(entry.getValue());
+        }
+      }
+      return left;
+    }
+
+    public Map<K, QuantityStatistics<?>> finish(Map<K, QuantityStatistics<?>> groups) {
+      return groups;
+    }
+
+    public Set<Characteristics> characteristics() {
+      return IDENTITY_FINISH;
+    }
+  }
+}
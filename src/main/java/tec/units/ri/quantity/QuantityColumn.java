@@ -0,0 +1,615 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.quantity;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import javax.measure.Quantity;
+import javax.measure.UnconvertibleException;
+import javax.measure.Unit;
+import javax.measure.UnitConverter;
+
+import tec.units.ri.format.BinaryFormat;
+import tec.units.ri.function.CompiledConverter;
+import tec.units.ri.stream.Streams.DoubleConsumer;
+import tec.units.ri.stream.Streams.DoubleSpliterator;
+
+/**
+ * <p>
+ * This class represents a column of quantities stated in the same unit, whose values are stored outside of the Java heap in a direct or
+ * memory-mapped {@link DoubleBuffer}.
+ * </p>
+ * 
+ * <p>
+ * Long series of measurements held as {@link Quantity} objects put a heavy load on the garbage collector; a column holds one primitive value per
+ * quantity and a single {@link Unit}, so that the number of heap objects does not depend on the number of values. Values are appended and read as
+ * primitives, and the whole column can be converted to another unit in place. For example:<br>
+ * <code>
+ *     QuantityColumn&lt;Temperature&gt; column = QuantityColumn.create(file, CELSIUS, 1 &lt;&lt; 20);<br>
+ *     column.append(21.5);<br>
+ *     ...<br>
+ *     column.close();<br>
+ *     QuantityColumn&lt;Temperature&gt; kelvins = QuantityColumn.open(file, KELVIN); // Converted in place.
+ * </code>
+ * </p>
+ * 
+ * <p>
+ * A persisted column starts with a header of {@value #HEADER_SIZE} bytes recording the byte order, the number of values and the unit (encoded with
+ * {@link BinaryFormat}), followed by the values in the native byte order of the platform which created the file. The header is kept up to
+ * date as values are appended, so that a column can be reopened after a crash with all the values appended before it.
+ * </p>
+ * 
+ * <p>
+ * Instances of this class are not thread-safe.
+ * </p>
+ *
+ * @param <Q>
+ *          The type of the quantities.
+ * @version 0.1
+ */
+public final class QuantityColumn<Q extends Quantity<Q>> implements Closeable {
+
+  /**
+   * Holds the size in bytes of the header of persisted columns.
+   */
+  public static final int HEADER_SIZE = 256;
+
+  private static final int MAGIC = 0x51434F4C; // "QCOL"
+  private static final int ORDER_OFFSET = 4; // 1 for little-endian values.
+  private static final int SIZE_OFFSET = 8;
+  private static final int UNIT_LENGTH_OFFSET = 16;
+  private static final int UNIT_OFFSET = 20;
+  private static final int MAX_UNIT_LENGTH = HEADER_SIZE - UNIT_OFFSET;
+
+  private final FileChannel channel; // null if not persisted.
+  private ByteBuffer header; // null if not persisted.
+  private DoubleBuffer values;
+  private Unit<Q> unit;
+  private int size;
+
+  // Converter of the last quantity appended.
+  private Unit<Q> lastUnit;
+  private UnitConverter lastConverter;
+
+  private QuantityColumn(FileChannel channel, ByteBuffer header, DoubleBuffer values, Unit<Q> unit, int size) {
+    this.channel = channel;
+    this.header = header;
+    this.values = values;
+    this.unit = unit;
+    this.size = size;
+  }
+
+  /**
+   * Creates an empty column held in a direct (off-heap) buffer, which grows as values are appended.
+   *
+   * @param unit
+   *          the unit of the values.
+   * @param capacity
+   *          the initial capacity, in values.
+   * @return the corresponding column.
+   */
+  public static <Q extends Quantity<Q>> QuantityColumn<Q> allocate(Unit<Q> unit, int capacity) {
+    if (unit == null)
+      throw new NullPointerException("Unit cannot be null");
+    return new QuantityColumn<Q>(null, null, allocateDirect(capacity), unit, 0);
+  }
+
+  /**
+   * Creates an empty column persisted in the specified file, which is overwritten. The file is memory-mapped and grows as values are appended.
+   *
+   * @param file
+   *          the file holding the column.
+   * @param unit
+   *          the unit of the values.
+   * @param capacity
+   *          the initial capacity, in values.
+   * @return the corresponding column, to be closed when done.
+   * @throws IOException
+   *           if the file cannot be created or mapped.
+   * @throws IllegalArgumentException
+   *           if the unit encoding does not fit in the header.
+   */
+  public static <Q extends Quantity<Q>> QuantityColumn<Q> create(File file, Unit<Q> unit, int capacity) throws IOException {
+    byte[] encoding = encode(unit);
+    RandomAccessFile raf = new RandomAccessFile(file, "rw");
+    try {
+      raf.setLength(0);
+      FileChannel channel = raf.getChannel();
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + 8L * Math.max(capacity, 1));
+      ByteBuffer header = headerOf(buffer);
+      header.putInt(0, MAGIC);
+      header.put(ORDER_OFFSET, (byte) (ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? 1 : 0));
+      header.putLong(SIZE_OFFSET, 0);
+      writeUnit(header, encoding);
+      return new QuantityColumn<Q>(channel, header, valuesOf(buffer, ByteOrder.nativeOrder()), unit, 0);
+    } catch (IOException e) {
+      raf.close();
+      throw e;
+    } catch (RuntimeException e) {
+      raf.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Reopens a column persisted in the specified file, recovering its unit from the file header.
+   *
+   * @param file
+   *          the file holding the column.
+   * @return the corresponding column, to be closed when done.
+   * @throws IOException
+   *           if the file cannot be mapped or is not a column file.
+   */
+  public static QuantityColumn<?> open(File file) throws IOException {
+    return openColumn(file);
+  }
+
+  /**
+   * Reopens a column persisted in the specified file and converts it, in place, to the specified unit if its unit is different.
+   *
+   * @param file
+   *          the file holding the column.
+   * @param unit
+   *          the unit of the values.
+   * @return the corresponding column, to be closed when done.
+   * @throws IOException
+   *           if the file cannot be mapped or is not a column file.
+   * @throws UnconvertibleException
+   *           if the column unit is not compatible with the specified unit.
+   */
+  public static <Q extends Quantity<Q>> QuantityColumn<Q> open(File file, Unit<Q> unit) throws IOException {
+    if (unit == null)
+      throw new NullPointerException("Unit cannot be null");
+    QuantityColumn<?> column = openColumn(file);
+    try {
+      return column.asType(unit);
+    } catch (RuntimeException e) {
+      column.close();
+      throw e;
+    }
+  }
+
+  private static <T extends Quantity<T>> QuantityColumn<T> openColumn(File file) throws IOException {
+    RandomAccessFile raf = new RandomAccessFile(file, "rw");
+    try {
+      FileChannel channel = raf.getChannel();
+      long length = channel.size();
+      if (length < HEADER_SIZE)
+        throw new IOException(file + " is not a quantity column file");
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+      ByteBuffer header = headerOf(buffer);
+      long size = header.getLong(SIZE_OFFSET);
+      int unitLength = header.getInt(UNIT_LENGTH_OFFSET);
+      if (header.getInt(0) != MAGIC || size < 0 || size > (length - HEADER_SIZE) / 8 || unitLength < 0 || unitLength > MAX_UNIT_LENGTH)
+        throw new IOException(file + " is not a quantity column file");
+      ByteBuffer encoding = header.duplicate();
+      encoding.position(UNIT_OFFSET).limit(UNIT_OFFSET + unitLength);
+      @SuppressWarnings("unchecked")
+      Unit<T> unit = (Unit<T>) BinaryFormat.getInstance().readUnit(encoding);
+      ByteOrder order = header.get(ORDER_OFFSET) == 1 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+      return new QuantityColumn<T>(channel, header, valuesOf(buffer, order), unit, (int) size);
+    } catch (IOException e) {
+      raf.close();
+      throw e;
+    } catch (RuntimeException e) {
+      raf.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the unit of the values of this column.
+   *
+   * @return the column unit.
+   */
+  public Unit<Q> getUnit() {
+    return unit;
+  }
+
+  /**
+   * Returns the number of values of this column.
+   *
+   * @return the column size.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the number of values this column can hold before growing.
+   *
+   * @return the column capacity.
+   */
+  public int capacity() {
+    return values.capacity();
+  }
+
+  /**
+   * Indicates if this column is persisted in a memory-mapped file.
+   *
+   * @return <code>true</code> if this column is persisted; <code>false</code> if it is held in a direct buffer.
+   */
+  public boolean isPersistent() {
+    return channel != null;
+  }
+
+  /**
+   * Appends the specified value, stated in the column unit.
+   *
+   * @param value
+   *          the value to append.
+   */
+  public void append(double value) {
+    ensureCapacity(size + 1);
+    values.put(size, value);
+    setSize(size + 1);
+  }
+
+  /**
+   * Appends the specified values, stated in the column unit.
+   *
+   * @param source
+   *          the array holding the values to append.
+   * @param offset
+   *          the index of the first value to append.
+   * @param length
+   *          the number of values to append.
+   */
+  public void append(double[] source, int offset, int length) {
+    ensureCapacity(size + length);
+    DoubleBuffer target = values.duplicate();
+    target.position(size);
+    target.put(source, offset, length);
+    setSize(size + length);
+  }
+
+  /**
+   * Appends the value of the specified quantity, converted to the column unit.
+   *
+   * @param quantity
+   *          the quantity to append.
+   */
+  public void append(Quantity<Q> quantity) {
+    Unit<Q> quantityUnit = quantity.getUnit();
+    if (quantityUnit != lastUnit) {
+      lastConverter = quantityUnit.getConverterTo(unit);
+      lastUnit = quantityUnit;
+    }
+    append(lastConverter.convert(quantity.getValue().doubleValue()));
+  }
+
+  /**
+   * Returns the value at the specified index, stated in the column unit.
+   *
+   * @param index
+   *          the index of the value.
+   * @return the corresponding value.
+   * @throws IndexOutOfBoundsException
+   *           if <code>index &lt; 0 || index &gt;= size()</code>
+   */
+  public double getDouble(int index) {
+    checkIndex(index);
+    return values.get(index);
+  }
+
+  /**
+   * Returns the quantity at the specified index.
+   *
+   * @param index
+   *          the index of the quantity.
+   * @return the corresponding quantity.
+   * @throws IndexOutOfBoundsException
+   *           if <code>index &lt; 0 || index &gt;= size()</code>
+   */
+  public Quantity<Q> get(int index) {
+    return Quantities.getQuantity(getDouble(index), unit);
+  }
+
+  /**
+   * Copies values of this column, stated in the column unit, to the specified array.
+   *
+   * @param index
+   *          the index of the first value to copy.
+   * @param dest
+   *          the array receiving the values.
+   * @param offset
+   *          the index in <code>dest</code> of the first value copied.
+   * @param length
+   *          the number of values to copy.
+   * @throws IndexOutOfBoundsException
+   *           if the range is out of the column or of the array bounds.
+   */
+  public void get(int index, double[] dest, int offset, int length) {
+    if (index < 0 || length < 0 || index + length > size)
+      throw new IndexOutOfBoundsException("Range [" + index + ", " + (index + length) + ") out of column of size " + size);
+    DoubleBuffer source = values.duplicate();
+    source.position(index);
+    source.get(dest, offset, length);
+  }
+
+  /**
+   * Replaces the value at the specified index.
+   *
+   * @param index
+   *          the index of the value.
+   * @param value
+   *          the new value, stated in the column unit.
+   * @throws IndexOutOfBoundsException
+   *           if <code>index &lt; 0 || index &gt;= size()</code>
+   */
+  public void set(int index, double value) {
+    checkIndex(index);
+    values.put(index, value);
+  }
+
+  /**
+   * Returns a read-only view of the values of this column, from index 0 to {@link #size()}. The view is not updated as values are appended.
+   *
+   * @return the values of this column.
+   */
+  public DoubleBuffer asDoubleBuffer() {
+    DoubleBuffer view = values.asReadOnlyBuffer();
+    view.limit(size);
+    return view.slice();
+  }
+
+  /**
+   * Returns a spliterator over the values of this column, stated in the column unit, from index 0 to {@link #size()}. It splits in halves (down to
+   * parts of about a thousand values), so that parallel workers get parts of equal size, and reads the values without copying them. The column
+   * must not be modified (e.g. by {@link #set(int, double)} or {@link #convertTo(Unit)}) during the traversal, the values read are otherwise
+   * unspecified; as nothing prevents such modifications, the spliterator does not report <code>IMMUTABLE</code>. For example:<br>
+   * <code>
+   *     QuantityStatistics&lt;Q&gt; statistics = new QuantityStatistics&lt;Q&gt;(column.getUnit());<br>
+   *     column.spliterator().forEachRemaining(statistics);
+   * </code>
+   *
+   * @return a spliterator over the values of this column.
+   */
+  public DoubleSpliterator spliterator() {
+    return new ColumnSpliterator(values, 0, size);
+  }
+
+  /**
+   * Converts, in place, all the values of this column to the specified unit, which becomes the column unit.
+   *
+   * @param newUnit
+   *          the new unit of the column.
+   * @throws UnconvertibleException
+   *           if the conversion cannot be performed.
+   * @throws IllegalArgumentException
+   *           if this column is persisted and the unit encoding does not fit in the header.
+   */
+  public void convertTo(Unit<Q> newUnit) {
+    byte[] encoding = (header != null) ? encode(newUnit) : null; // Checked before values are modified.
+    UnitConverter converter = unit.getConverterTo(newUnit);
+    if (!converter.isIdentity())
+      convert(converter);
+    if (header != null)
+      writeUnit(header, encoding);
+    unit = newUnit;
+    lastUnit = null;
+  }
+
+  /**
+   * Casts this column to a parameterized unit of specified nature, converting its values in place if the specified unit is different from the
+   * column unit.
+   *
+   * @param newUnit
+   *          the unit of the values.
+   * @return this column, parameterized by the type of the specified unit.
+   * @throws UnconvertibleException
+   *           if the column unit is not compatible with the specified unit.
+   */
+  @SuppressWarnings("unchecked")
+  public <T extends Quantity<T>> QuantityColumn<T> asType(Unit<T> newUnit) {
+    if (!unit.isCompatible(newUnit))
+      throw new UnconvertibleException(unit + " is not compatible with " + newUnit);
+    QuantityColumn<T> column = (QuantityColumn<T>) this;
+    if (!unit.equals(newUnit))
+      column.convertTo(newUnit);
+    return column;
+  }
+
+  /**
+   * Forces the values of a persisted column to be written to the storage device.
+   */
+  public void flush() {
+    if (header != null)
+      ((MappedByteBuffer) header).force();
+  }
+
+  /**
+   * Flushes and closes the file of a persisted column; has no effect on a column held in a direct buffer. The memory mapped is released when
+   * this column is garbage collected.
+   *
+   * @throws IOException
+   *           if the file cannot be closed.
+   */
+  public void close() throws IOException {
+    if (channel != null && channel.isOpen()) {
+      flush();
+      channel.close();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "QuantityColumn[" + size + " values in " + unit + (channel != null ? ", persistent]" : "]");
+  }
+
+  private void convert(UnitConverter converter) {
+    final DoubleBuffer v = values;
+    final int n = size;
+    CompiledConverter compiled = CompiledConverter.compile(converter);
+    if (compiled.isAffine()) {
+      final double a = compiled.getScale();
+      final double b = compiled.getOffset();
+      for (int i = 0; i < n; i++) {
+        v.put(i, v.get(i) * a + b);
+      }
+    } else {
+      for (int i = 0; i < n; i++) {
+        v.put(i, converter.convert(v.get(i)));
+      }
+    }
+  }
+
+  private void ensureCapacity(int minCapacity) {
+    if (minCapacity < 0)
+      throw new IllegalStateException("Column is full");
+    int capacity = values.capacity();
+    if (minCapacity <= capacity)
+      return;
+    int newCapacity = (int) Math.min(Integer.MAX_VALUE - (HEADER_SIZE / 8), Math.max(minCapacity, capacity * 2L));
+    if (channel == null) {
+      DoubleBuffer grown = allocateDirect(newCapacity);
+      DoubleBuffer source = values.duplicate();
+      source.position(0).limit(size);
+      grown.put(source);
+      grown.clear();
+      values = grown;
+    } else { // Mapping a larger region extends the file.
+      try {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + 8L * newCapacity);
+        header = headerOf(buffer);
+        values = valuesOf(buffer, values.order());
+      } catch (IOException e) {
+        throw new IllegalStateException("Cannot grow column file", e);
+      }
+    }
+  }
+
+  private void setSize(int newSize) {
+    size = newSize;
+    if (header != null)
+      header.putLong(SIZE_OFFSET, newSize);
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size)
+      throw new IndexOutOfBoundsException("Index " + index + " out of column of size " + size);
+  }
+
+  private static byte[] encode(Unit<?> unit) {
+    if (unit == null)
+      throw new NullPointerException("Unit cannot be null");
+    ByteBuffer buffer = ByteBuffer.allocate(MAX_UNIT_LENGTH);
+    try {
+      BinaryFormat.getInstance().write(unit, buffer);
+    } catch (BufferOverflowException e) {
+      throw new IllegalArgumentException("Encoding of unit " + unit + " exceeds " + MAX_UNIT_LENGTH + " bytes");
+    }
+    byte[] encoding = new byte[buffer.position()];
+    buffer.flip();
+    buffer.get(encoding);
+    return encoding;
+  }
+
+  private static void writeUnit(ByteBuffer header, byte[] encoding) {
+    ByteBuffer target = header.duplicate();
+    target.position(UNIT_OFFSET);
+    target.put(encoding);
+    header.putInt(UNIT_LENGTH_OFFSET, encoding.length);
+  }
+
+  private static DoubleBuffer allocateDirect(int capacity) {
+    return ByteBuffer.allocateDirect(8 * Math.max(capacity, 1)).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+  }
+
+  private static ByteBuffer headerOf(MappedByteBuffer buffer) {
+    buffer.order(ByteOrder.BIG_ENDIAN); // Headers are portable.
+    return buffer;
+  }
+
+  private static DoubleBuffer valuesOf(MappedByteBuffer buffer, ByteOrder order) {
+    ByteBuffer data = buffer.duplicate();
+    data.position(HEADER_SIZE);
+    return data.slice().order(order).asDoubleBuffer();
+  }
+
+  /**
+   * Traverses a range of values held in a buffer.
+   */
+  private static final class ColumnSpliterator implements DoubleSpliterator {
+    private static final int MIN_SPLIT_SIZE = 1024; // Below which splitting costs more than it saves.
+
+    private final DoubleBuffer values;
+    private int index;
+    private final int fence;
+
+    ColumnSpliterator(DoubleBuffer values, int index, int fence) {
+      this.values = values;
+      this.index = index;
+      this.fence = fence;
+    }
+
+    public boolean tryAdvance(DoubleConsumer action) {
+      if (index >= fence)
+        return false;
+      action.accept(values.get(index++));
+      return true;
+    }
+
+    public void forEachRemaining(DoubleConsumer action) {
+      final DoubleBuffer v = values;
+      final int end = fence;
+      for (int i = index; i < end; i++) {
+        action.accept(v.get(i));
+      }
+      index = end;
+    }
+
+    public DoubleSpliterator trySplit() {
+      int mid = (index + fence) >>> 1;
+      if (fence - index < MIN_SPLIT_SIZE)
+        return null;
+      DoubleSpliterator prefix = new ColumnSpliterator(values, index, mid);
+      index = mid;
+      return prefix;
+    }
+
+    public long estimateSize() {
+      return fence - index;
+    }
+
+    public int characteristics() {
+      return ORDERED | SIZED | SUBSIZED; // Not IMMUTABLE: the column must not be modified during the traversal, but nothing prevents it.
+    }
+  }
+}
@@ -0,0 +1,786 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.quantity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.measure.IncommensurableException;
+import javax.measure.Quantity;
+import javax.measure.UnconvertibleException;
+import javax.measure.Unit;
+import javax.measure.format.ParserException;
+
+import tec.units.ri.AbstractUnit;
+import tec.units.ri.function.CompiledConverter;
+
+/**
+ * A formula over named quantities, such as <code>voltage * current</code>, checked for dimensional consistency and compiled into a primitive
+ * evaluator.
+ * <p>
+ * The syntax supports numbers, identifiers (letters, digits and <code>'_'</code>, not starting with a digit), the binary operators
+ * <code>+ - * /</code> (<code>·</code> is accepted for multiplication), unary minus, integer powers (<code>^n</code> or <code>**n</code>) and
+ * parentheses.
+ * </p>
+ * <p>
+ * {@link #compile(Map, Unit) Compiling} an expression against the units of its inputs performs the dimensional analysis once: the unit of each
+ * sub-expression is derived with the {@link Unit#multiply(Unit)}, {@link Unit#divide(Unit)} and {@link Unit#pow(int)} algebra (the operands of
+ * additions must have the same dimension), the conversion of each input into its system unit and of the derived unit into the requested result unit
+ * are resolved and constant factors are folded into a single scale where possible. The resulting {@link Evaluator} works on <code>double</code> values and arrays without allocating:
+ *
+ * <pre>
+ * QuantityExpression power = QuantityExpression.parse(&quot;voltage * current&quot;);
+ * Map&lt;String, Unit&lt;?&gt;&gt; inputs = new HashMap&lt;String, Unit&lt;?&gt;&gt;();
+ * inputs.put(&quot;voltage&quot;, VOLT);
+ * inputs.put(&quot;current&quot;, MILLI(AMPERE));
+ * QuantityExpression.Evaluator evaluator = power.compile(inputs, WATT);
+ * evaluator.evaluate(new double[][] { volts, milliamps }, watts);
+ * </pre>
+ *
+ * Inputs stated in units with an offset (such as {@link tec.units.ri.unit.Units#CELSIUS}) are converted to their system unit before being
+ * combined, as required by multiplications.
+ * </p>
+ *
+ * @version 0.1
+ */
+public final class QuantityExpression {
+
+  private static final int NUMBER = 0;
+  private static final int VARIABLE = 1;
+  private static final int ADD = 2;
+  private static final int SUBTRACT = 3;
+  private static final int MULTIPLY = 4;
+  private static final int DIVIDE = 5;
+  private static final int NEGATE = 6;
+  private static final int POWER = 7;
+
+  private final String formula;
+  private final Syntax root;
+  private final List<String> variables;
+
+  private QuantityExpression(String formula, Syntax root, List<String> variables) {
+    this.formula = formula;
+    this.root = root;
+    this.variables = Collections.unmodifiableList(variables);
+  }
+
+  /**
+   * Parses the specified formula.
+   *
+   * @param formula
+   *          the formula to parse.
+   * @return the corresponding expression.
+   * @throws ParserException
+   *           if the formula is not well formed.
+   */
+  public static QuantityExpression parse(CharSequence formula) throws ParserException {
+    Parser parser = new Parser(formula);
+    Syntax root = parser.parseSum();
+    parser.skipSpaces();
+    if (parser.index < formula.length())
+      throw new ParserException("Unexpected character '" + formula.charAt(parser.index) + "'", formula, parser.index);
+    return new QuantityExpression(formula.toString(), root, parser.variables);
+  }
+
+  /**
+   * Returns the names of the inputs of this expression, in order of first occurrence.
+   *
+   * @return the input names.
+   */
+  public List<String> getVariables() {
+    return variables;
+  }
+
+  /**
+   * Compiles this expression and derives its result unit.
+   *
+   * @param inputUnits
+   *          the units of the inputs, by name.
+   * @return <code>compile(inputUnits, null)</code>
+   * @throws UnconvertibleException
+   *           if the expression is dimensionally inconsistent.
+   */
+  public Evaluator compile(Map<String, ? extends Unit<?>> inputUnits) {
+    return compile(inputUnits, null);
+  }
+
+  /**
+   * Compiles this expression into an evaluator producing values stated in the specified unit.
+   *
+   * @param inputUnits
+   *          the units of the inputs, by name.
+   * @param resultUnit
+   *          the unit of the results or <code>null</code> to use the unit derived from the inputs (stated in system units).
+   * @return the evaluator of this expression.
+   * @throws IllegalArgumentException
+   *           if the unit of an input is missing.
+   * @throws UnconvertibleException
+   *           if the expression is dimensionally inconsistent or its dimension is not the one of the result unit.
+   */
+  public Evaluator compile(Map<String, ? extends Unit<?>> inputUnits, Unit<?> resultUnit) {
+    Unit<?>[] units = new Unit<?>[variables.size()];
+    for (int i = 0; i < units.length; i++) {
+      units[i] = inputUnits.get(variables.get(i));
+      if (units[i] == null)
+        throw new IllegalArgumentException("No unit for input '" + variables.get(i) + "'");
+    }
+    Typed typed = compile(root, units);
+    Node node = typed.node;
+    Unit<?> unit = typed.unit;
+    if (resultUnit != null) {
+      CompiledConverter converter = converter(unit, resultUnit, "result");
+      node = affine(node, converter);
+      unit = resultUnit;
+    }
+    return new Evaluator(this, units, node, unit);
+  }
+
+  @Override
+  public String toString() {
+    return formula;
+  }
+
+  private Typed compile(Syntax syntax, Unit<?>[] units) {
+    switch (syntax.kind) {
+      case NUMBER:
+        return new Typed(new Constant(syntax.value), AbstractUnit.ONE);
+      case VARIABLE: {
+        Unit<?> unit = units[syntax.index];
+        Unit<?> systemUnit = unit.getSystemUnit();
+        return new Typed(affine(new Variable(syntax.index), converter(unit, systemUnit, syntax.name)), systemUnit);
+      }
+      case NEGATE: {
+        Typed operand = compile(syntax.left, units);
+        return new Typed(scale(operand.node, -1), operand.unit);
+      }
+      case POWER: {
+        Typed operand = compile(syntax.left, units);
+        return new Typed(power(operand.node, syntax.power), operand.unit.pow(syntax.power));
+      }
+      case MULTIPLY:
+      case DIVIDE: {
+        Typed left = compile(syntax.left, units);
+        Typed right = compile(syntax.right, units);
+        if (syntax.kind == MULTIPLY)
+          return new Typed(product(left.node, right.node, false), left.unit.multiply(right.unit));
+        return new Typed(product(left.node, right.node, true), left.unit.divide(right.unit));
+      }
+      default: { // ADD, SUBTRACT
+        Typed left = compile(syntax.left, units);
+        Typed right = compile(syntax.right, units);
+        Node rightNode = affine(right.node, converter(right.unit, left.unit, syntax.toString()));
+        Node node = (syntax.kind == ADD) ? new Add(left.node, rightNode) : new Subtract(left.node, rightNode);
+        return new Typed(fold(node), left.unit);
+      }
+    }
+  }
+
+  private static CompiledConverter converter(Unit<?> from, Unit<?> to, String what) {
+    try {
+      CompiledConverter converter = CompiledConverter.compile(from.getConverterToAny(to));
+      if (!converter.isAffine())
+        throw new UnconvertibleException(what + ": conversion from " + from + " to " + to + " is not affine");
+      return converter;
+    } catch (IncommensurableException e) {
+      throw new UnconvertibleException(what + ": " + from + " is not compatible with " + to, e);
+    }
+  }
+
+  private static Node affine(Node node, CompiledConverter converter) {
+    if (converter.isIdentity())
+      return node;
+    return fold(new Affine(node, converter.getScale(), converter.getOffset()));
+  }
+
+  private static Node scale(Node node, double factor) {
+    return (factor == 1) ? node : fold(new Affine(node, factor, 0));
+  }
+
+  // Moves the scale factors of the operands (e.g. input conversions) out of products, so that they are applied once.
+  private static Node product(Node left, Node right, boolean divide) {
+    double factor = 1;
+    if (isScale(left)) {
+      factor = ((Affine) left).scale;
+      left = ((Affine) left).operand;
+    } else if (left.isConstant() && !divide) {
+      factor = left.evaluate(null);
+      left = null;
+    }
+    if (isScale(right)) {
+      factor = divide ? factor / ((Affine) right).scale : factor * ((Affine) right).scale;
+      right = ((Affine) right).operand;
+    } else if (right.isConstant() && left != null) {
+      double value = right.evaluate(null);
+      factor = divide ? factor / value : factor * value;
+      right = null;
+    }
+    Node node = (left == null) ? right : (right == null) ? left : fold(divide ? new Divide(left, right) : new Multiply(left, right));
+    return (node == null) ? new Constant(factor) : scale(node, factor);
+  }
+
+  private static Node power(Node operand, int power) {
+    if (isScale(operand))
+      return scale(fold(new Power(((Affine) operand).operand, power)), Power.pow(((Affine) operand).scale, power));
+    return fold(new Power(operand, power));
+  }
+
+  private static boolean isScale(Node node) {
+    return (node instanceof Affine) && (((Affine) node).offset == 0);
+  }
+
+  private static Node fold(Node node) {
+    return node.isConstant() ? new Constant(node.evaluate(null)) : node;
+  }
+
+  /**
+   * Evaluates a compiled expression over primitive values. Instances are immutable and thread-safe.
+   */
+  public static final class Evaluator {
+
+    private final QuantityExpression expression;
+    private final Unit<?>[] inputUnits;
+    private final Node node;
+    private final Unit<?> unit;
+
+    private Evaluator(QuantityExpression expression, Unit<?>[] inputUnits, Node node, Unit<?> unit) {
+      this.expression = expression;
+      this.inputUnits = inputUnits;
+      this.node = node;
+      this.unit = unit;
+    }
+
+    /**
+     * Returns the unit of the values produced.
+     *
+     * @return the result unit.
+     */
+    public Unit<?> getUnit() {
+      return unit;
+    }
+
+    /**
+     * Returns the names of the inputs, in the order their values are expected.
+     *
+     * @return <code>getExpression().getVariables()</code>
+     */
+    public List<String> getVariables() {
+      return expression.variables;
+    }
+
+    /**
+     * Returns the expression this evaluator has been compiled from.
+     *
+     * @return the expression.
+     */
+    public QuantityExpression getExpression() {
+      return expression;
+    }
+
+    /**
+     * Evaluates the expression for the specified inputs.
+     *
+     * @param inputs
+     *          the input values, in the order of {@link #getVariables()}, stated in the units the expression has been compiled against.
+     * @return the result stated in {@link #getUnit()}.
+     */
+    public double evaluate(double... inputs) {
+      if (inputs.length < expression.variables.size())
+        throw new IllegalArgumentException("Expected " + expression.variables.size() + " inputs, got " + inputs.length);
+      return node.evaluate(inputs);
+    }
+
+    /**
+     * Evaluates the expression for each row of the specified input columns.
+     *
+     * @param columns
+     *          one array of values per input, in the order of {@link #getVariables()}.
+     * @param results
+     *          the destination of the results, its length is the number of rows evaluated.
+     * @throws IllegalArgumentException
+     *           if a column is shorter than the results.
+     */
+    public void evaluate(double[][] columns, double[] results) {
+      if (columns.length < expression.variables.size())
+        throw new IllegalArgumentException("Expected " + expression.variables.size() + " columns, got " + columns.length);
+      for (int i = 0; i < expression.variables.size(); i++) {
+        if (columns[i].length < results.length)
+          throw new IllegalArgumentException("Column '" + expression.variables.get(i) + "' has less than " + results.length + " values");
+      }
+      for (int row = 0; row < results.length; row++) {
+        results[row] = node.evaluate(columns, row);
+      }
+    }
+
+    /**
+     * Evaluates the expression for the specified quantities, converting them into the units the expression has been compiled against. This
+     * convenience method allocates, the primitive methods should be used for bulk evaluation.
+     *
+     * @param inputs
+     *          the input quantities, by name.
+     * @return the result quantity.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public Quantity<?> evaluate(Map<String, ? extends Quantity<?>> inputs) {
+      double[] values = new double[expression.variables.size()];
+      for (int i = 0; i < values.length; i++) {
+        String name = expression.variables.get(i);
+        Quantity quantity = inputs.get(name);
+        if (quantity == null)
+          throw new IllegalArgumentException("No value for input '" + name + "'");
+        values[i] = quantity.to(inputUnits[i]).getValue().doubleValue();
+      }
+      return Quantities.getQuantity(node.evaluate(values), (Unit) unit);
+    }
+
+    @Override
+    public String toString() {
+      return node + " [" + unit + "]";
+    }
+  }
+
+  // //////////////////////////
+  // Parsing.
+
+  private static final class Syntax {
+    final int kind;
+    final Syntax left;
+    final Syntax right;
+    double value;
+    String name;
+    int index;
+    int power;
+
+    Syntax(int kind, Syntax left, Syntax right) {
+      this.kind = kind;
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    public String toString() {
+      switch (kind) {
+        case NUMBER:
+          return String.valueOf(value);
+        case VARIABLE:
+          return name;
+        case NEGATE:
+          return "-" + left;
+        case POWER:
+          return left + "^" + power;
+        default:
+          return "(" + left + " " + "  +-*/".charAt(kind) + " " + right + ")";
+      }
+    }
+  }
+
+  private static final class Parser {
+    final CharSequence csq;
+    final List<String> variables = new ArrayList<String>();
+    int index;
+
+    Parser(CharSequence csq) {
+      this.csq = csq;
+    }
+
+    Syntax parseSum() throws ParserException {
+      Syntax result = parseProduct();
+      for (;;) {
+        char c = peek();
+        if (c == '+' || c == '-') {
+          index++;
+          result = new Syntax(c == '+' ? ADD : SUBTRACT, result, parseProduct());
+        } else {
+          return result;
+        }
+      }
+    }
+
+    Syntax parseProduct() throws ParserException {
+      Syntax result = parseUnary();
+      for (;;) {
+        char c = peek();
+        if ((c == '*' && !isPowerStar()) || c == '·') {
+          index++;
+          result = new Syntax(MULTIPLY, result, parseUnary());
+        } else if (c == '/') {
+          index++;
+          result = new Syntax(DIVIDE, result, parseUnary());
+        } else {
+          return result;
+        }
+      }
+    }
+
+    Syntax parseUnary() throws ParserException {
+      if (peek() == '-') {
+        index++;
+        return new Syntax(NEGATE, parseUnary(), null);
+      }
+      return parsePower();
+    }
+
+    Syntax parsePower() throws ParserException {
+      Syntax result = parsePrimary();
+      char c = peek();
+      if (c == '^' || (c == '*' && isPowerStar())) {
+        index += (c == '^') ? 1 : 2;
+        skipSpaces();
+        int start = index;
+        if (index < csq.length() && (csq.charAt(index) == '-' || csq.charAt(index) == '+'))
+          index++;
+        while (index < csq.length() && csq.charAt(index) >= '0' && csq.charAt(index) <= '9')
+          index++;
+        try {
+          String digits = csq.subSequence(start, index).toString();
+          result = new Syntax(POWER, result, null);
+          result.power = Integer.parseInt(digits.startsWith("+") ? digits.substring(1) : digits);
+        } catch (NumberFormatException e) {
+          throw new ParserException("Integer exponent expected", csq, start);
+        }
+      }
+      return result;
+    }
+
+    Syntax parsePrimary() throws ParserException {
+      char c = peek();
+      int start = index;
+      if (c == '(') {
+        index++;
+        Syntax result = parseSum();
+        if (peek() != ')')
+          throw new ParserException("')' expected", csq, index);
+        index++;
+        return result;
+      }
+      if ((c >= '0' && c <= '9') || c == '.') {
+        while (index < csq.length() && isNumberPart(csq.charAt(index), csq.charAt(index - 1 < start ? start : index - 1)))
+          index++;
+        Syntax result = new Syntax(NUMBER, null, null);
+        try {
+          result.value = Double.parseDouble(csq.subSequence(start, index).toString());
+        } catch (NumberFormatException e) {
+          throw new ParserException("Invalid number", csq, start);
+        }
+        return result;
+      }
+      if (Character.isLetter(c) || c == '_') {
+        while (index < csq.length() && (Character.isLetterOrDigit(csq.charAt(index)) || csq.charAt(index) == '_'))
+          index++;
+        Syntax result = new Syntax(VARIABLE, null, null);
+        result.name = csq.subSequence(start, index).toString();
+        result.index = variables.indexOf(result.name);
+        if (result.index < 0) {
+          result.index = variables.size();
+          variables.add(result.name);
+        }
+        return result;
+      }
+      throw new ParserException(index < csq.length() ? "Unexpected character '" + c + "'" : "Unexpected end of formula", csq, index);
+    }
+
+    private boolean isNumberPart(char c, char previous) {
+      return (c >= '0' && c <= '9') || c == '.' || c == 'e' || c == 'E' || ((c == '-' || c == '+') && (previous == 'e' || previous == 'E'));
+    }
+
+    private boolean isPowerStar() {
+      return index + 1 < csq.length() && csq.charAt(index + 1) == '*';
+    }
+
+    char peek() {
+      skipSpaces();
+      return (index < csq.length()) ? csq.charAt(index) : 0;
+    }
+
+    void skipSpaces() {
+      while (index < csq.length() && Character.isWhitespace(csq.charAt(index)))
+        index++;
+    }
+  }
+
+  private static final class Typed {
+    final Node node;
+    final Unit<?> unit;
+
+    Typed(Node node, Unit<?> unit) {
+      this.node = node;
+      this.unit = unit;
+    }
+  }
+
+  // //////////////////////////
+  // Evaluation.
+
+  private static abstract class Node {
+
+    abstract double evaluate(double[] inputs);
+
+    abstract double evaluate(double[][] columns, int row);
+
+    abstract boolean isConstant();
+  }
+
+  private static final class Constant extends Node {
+    private final double value;
+
+    Constant(double value) {
+      this.value = value;
+    }
+
+    @Override
+    double evaluate(double[] inputs) {
+      return value;
+    }
+
+    @Override
+    double evaluate(double[][] columns, int row) {
+      return value;
+    }
+
+    @Override
+    boolean isConstant() {
+      return true;
+    }
+
+    @Override
+    public String toString() {
+      return String.valueOf(value);
+    }
+  }
+
+  private static final class Variable extends Node {
+    private final int index;
+
+    Variable(int index) {
+      this.index = index;
+    }
+
+    @Override
+    double evaluate(double[] inputs) {
+      return inputs[index];
+    }
+
+    @Override
+    double evaluate(double[][] columns, int row) {
+      return columns[index][row];
+    }
+
+    @Override
+    boolean isConstant() {
+      return false;
+    }
+
+    @Override
+    public String toString() {
+      return "$" + index;
+    }
+  }
+
+  private static final class Affine extends Node {
+    private final Node operand;
+    private final double scale;
+    private final double offset;
+
+    Affine(Node operand, double scale, double offset) {
+      if (operand instanceof Affine) { // Composes nested conversions.
+        Affine inner = (Affine) operand;
+        this.operand = inner.operand;
+        this.scale = scale * inner.scale;
+        this.offset = scale * inner.offset + offset;
+      } else {
+        this.operand = operand;
+        this.scale = scale;
+        this.offset = offset;
+      }
+    }
+
+    @Override
+    double evaluate(double[] inputs) {
+      return operand.evaluate(inputs) * scale + offset;
+    }
+
+    @Override
+    double evaluate(double[][] columns, int row) {
+      return operand.evaluate(columns, row) * scale + offset;
+    }
+
+    @Override
+    boolean isConstant() {
+      return operand.isConstant();
+    }
+
+    @Override
+    public String toString() {
+      return "(" + operand + " * " + scale + (offset != 0 ? " + " + offset : "") + ")";
+    }
+  }
+
+  private static final class Power extends Node {
+    private final Node operand;
+    private final int power;
+
+    Power(Node operand, int power) {
+      this.operand = operand;
+      this.power = power;
+    }
+
+    @Override
+    double evaluate(double[] inputs) {
+      return pow(operand.evaluate(inputs), power);
+    }
+
+    @Override
+    double evaluate(double[][] columns, int row) {
+      return pow(operand.evaluate(columns, row), power);
+    }
+
+    static double pow(double x, int power) {
+      int n = (power < 0) ? -power : power;
+      double result = 1;
+      while (n != 0) { // Exponentiation by squaring, exact for small powers.
+        if ((n & 1) != 0)
+          result *= x;
+        x *= x;
+        n >>>= 1;
+      }
+      return (power < 0) ? 1 / result : result;
+    }
+
+    @Override
+    boolean isConstant() {
+      return operand.isConstant();
+    }
+
+    @Override
+    public String toString() {
+      return operand + "^" + power;
+    }
+  }
+
+  private static abstract class Binary extends Node {
+    final Node left;
+    final Node right;
+
+    Binary(Node left, Node right) {
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    boolean isConstant() {
+      return left.isConstant() && right.isConstant();
+    }
+  }
+
+  private static final class Add extends Binary {
+    Add(Node left, Node right) {
+      super(left, right);
+    }
+
+    @Override
+    double evaluate(double[] inputs) {
+      return left.evaluate(inputs) + right.evaluate(inputs);
+    }
+
+    @Override
+    double evaluate(double[][] columns, int row) {
+      return left.evaluate(columns, row) + right.evaluate(columns, row);
+    }
+
+    @Override
+    public String toString() {
+      return "(" + left + " + " + right + ")";
+    }
+  }
+
+  private static final class Subtract extends Binary {
+    Subtract(Node left, Node right) {
+      super(left, right);
+    }
+
+    @Override
+    double evaluate(double[] inputs) {
+      return left.evaluate(inputs) - right.evaluate(inputs);
+    }
+
+    @Override
+    double evaluate(double[][] columns, int row) {
+      return left.evaluate(columns, row) - right.evaluate(columns, row);
+    }
+
+    @Override
+    public String toString() {
+      return "(" + left + " - " + right + ")";
+    }
+  }
+
+  private static final class Multiply extends Binary {
+    Multiply(Node left, Node right) {
+      super(left, right);
+    }
+
+    @Override
+    double evaluate(double[] inputs) {
+      return left.evaluate(inputs) * right.evaluate(inputs);
+    }
+
+    @Override
+    double evaluate(double[][] columns, int row) {
+      return left.evaluate(columns, row) * right.evaluate(columns, row);
+    }
+
+    @Override
+    public String toString() {
+      return "(" + left + " * " + right + ")";
+    }
+  }
+
+  private static final class Divide extends Binary {
+    Divide(Node left, Node right) {
+      super(left, right);
+    }
+
+    @Override
+    double evaluate(double[] inputs) {
+      return left.evaluate(inputs) / right.evaluate(inputs);
+    }
+
+    @Override
+    double evaluate(double[][] columns, int row) {
+      return left.evaluate(columns, row) / right.evaluate(columns, row);
+    }
+
+    @Override
+    public String toString() {
+      return "(" + left + " / " + right + ")";
+    }
+  }
+}
@@ -0,0 +1,454 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.quantity;
+
+import javax.measure.Quantity;
+import javax.measure.Unit;
+import javax.measure.UnitConverter;
+
+import tec.units.ri.function.CompiledConverter;
+
+/**
+ * A condition on quantities, such as <code>temperature &gt; 80 °C</code>, built from thresholds and combined with {@link #and and},
+ * {@link #or or} and {@link #negate not}.
+ * <p>
+ * A predicate is {@link #compile(Unit) compiled} once against the unit the data is stated in: the thresholds are converted into that unit (taking
+ * offsets such as the one of {@link tec.units.ri.unit.Units#CELSIUS} into account), so that evaluating a reading is a plain comparison of
+ * <code>double</code> values, without conversion or allocation. For instance:
+ *
+ * <pre>
+ * QuantityPredicate&lt;Temperature&gt; overheat = QuantityPredicate.greaterThan(Quantities.getQuantity(80, CELSIUS));
+ * QuantityPredicate.Compiled check = overheat.compile(KELVIN); // x &gt; 353.15
+ * int alerts = check.count(readingsInKelvin);
+ * </pre>
+ *
+ * When the conversion between a threshold and the data unit is not affine (e.g. logarithmic), the compiled predicate converts each reading into the
+ * unit of that threshold instead. Thresholds converted into the data unit may differ from the exact value by rounding, readings equal to a threshold
+ * within one ulp may therefore be classified either way.
+ * </p>
+ *
+ * @param <Q>
+ *          The type of the quantities tested.
+ * @version 0.1
+ */
+public abstract class QuantityPredicate<Q extends Quantity<Q>> {
+
+  QuantityPredicate() {
+  }
+
+  /**
+   * Returns a predicate testing whether a quantity is greater than the specified threshold.
+   *
+   * @param threshold
+   *          the exclusive lower limit.
+   * @return the corresponding predicate.
+   */
+  public static <Q extends Quantity<Q>> QuantityPredicate<Q> greaterThan(Quantity<Q> threshold) {
+    return new Bound<Q>(threshold, true, false);
+  }
+
+  /**
+   * Returns a predicate testing whether a quantity is greater than or equal to the specified threshold.
+   *
+   * @param threshold
+   *          the inclusive lower limit.
+   * @return the corresponding predicate.
+   */
+  public static <Q extends Quantity<Q>> QuantityPredicate<Q> greaterThanOrEqualTo(Quantity<Q> threshold) {
+    return new Bound<Q>(threshold, true, true);
+  }
+
+  /**
+   * Returns a predicate testing whether a quantity is less than the specified threshold.
+   *
+   * @param threshold
+   *          the exclusive upper limit.
+   * @return the corresponding predicate.
+   */
+  public static <Q extends Quantity<Q>> QuantityPredicate<Q> lessThan(Quantity<Q> threshold) {
+    return new Bound<Q>(threshold, false, false);
+  }
+
+  /**
+   * Returns a predicate testing whether a quantity is less than or equal to the specified threshold.
+   *
+   * @param threshold
+   *          the inclusive upper limit.
+   * @return the corresponding predicate.
+   */
+  public static <Q extends Quantity<Q>> QuantityPredicate<Q> lessThanOrEqualTo(Quantity<Q> threshold) {
+    return new Bound<Q>(threshold, false, true);
+  }
+
+  /**
+   * Returns a predicate testing whether a quantity lies within the specified limits (inclusive).
+   *
+   * @param min
+   *          the inclusive lower limit.
+   * @param max
+   *          the inclusive upper limit.
+   * @return <code>greaterThanOrEqualTo(min).and(lessThanOrEqualTo(max))</code>
+   */
+  public static <Q extends Quantity<Q>> QuantityPredicate<Q> between(Quantity<Q> min, Quantity<Q> max) {
+    return greaterThanOrEqualTo(min).and(lessThanOrEqualTo(max));
+  }
+
+  /**
+   * Returns a predicate satisfied when both this predicate and the specified one are.
+   *
+   * @param that
+   *          the other predicate.
+   * @return <code>this &amp;&amp; that</code>
+   */
+  public QuantityPredicate<Q> and(QuantityPredicate<Q> that) {
+    return new Junction<Q>(this, that, true);
+  }
+
+  /**
+   * Returns a predicate satisfied when this predicate or the specified one is.
+   *
+   * @param that
+   *          the other predicate.
+   * @return <code>this || that</code>
+   */
+  public QuantityPredicate<Q> or(QuantityPredicate<Q> that) {
+    return new Junction<Q>(this, that, false);
+  }
+
+  /**
+   * Returns the negation of this predicate. Note that <code>NaN</code> readings, which satisfy no threshold, satisfy a negated one.
+   *
+   * @return <code>!this</code>
+   */
+  public QuantityPredicate<Q> negate() {
+    return new Negation<Q>(this);
+  }
+
+  /**
+   * Compiles this predicate against the unit the tested values are stated in.
+   *
+   * @param unit
+   *          the unit of the values to test.
+   * @return the predicate on values stated in the specified unit.
+   * @throws javax.measure.UnconvertibleException
+   *           if a threshold cannot be converted into the specified unit.
+   */
+  public abstract Compiled compile(Unit<Q> unit);
+
+  /**
+   * Tests the specified quantity. This convenience method compiles the predicate for the unit of the quantity, {@link #compile(Unit)} should be
+   * used when testing many values.
+   *
+   * @param quantity
+   *          the quantity to test.
+   * @return <code>compile(quantity.getUnit()).test(quantity.getValue().doubleValue())</code>
+   */
+  public boolean test(Quantity<Q> quantity) {
+    return compile(quantity.getUnit()).test(quantity.getValue().doubleValue());
+  }
+
+  /**
+   * A predicate compiled against the unit of the values it tests. Instances are immutable and thread-safe.
+   */
+  public static abstract class Compiled {
+
+    Compiled() {
+    }
+
+    /**
+     * Tests the specified value.
+     *
+     * @param value
+     *          a value stated in the unit the predicate has been compiled against.
+     * @return <code>true</code> if the value satisfies the predicate.
+     */
+    public abstract boolean test(double value);
+
+    /**
+     * Tests each of the specified values.
+     *
+     * @param values
+     *          the values to test.
+     * @param results
+     *          the destination of the test results, at least as long as <code>values</code>.
+     * @return the number of values satisfying the predicate.
+     */
+    public int test(double[] values, boolean[] results) {
+      if (results.length < values.length)
+        throw new IllegalArgumentException("Results array too short: " + results.length + " < " + values.length);
+      int count = 0;
+      for (int i = 0; i < values.length; i++) {
+        boolean result = test(values[i]);
+        results[i] = result;
+        if (result)
+          count++;
+      }
+      return count;
+    }
+
+    /**
+     * Returns the number of values satisfying this predicate.
+     *
+     * @param values
+     *          the values to test.
+     * @return the number of matches.
+     */
+    public int count(double[] values) {
+      int count = 0;
+      for (int i = 0; i < values.length; i++) {
+        if (test(values[i]))
+          count++;
+      }
+      return count;
+    }
+
+    /**
+     * Stores the indexes of the values satisfying this predicate.
+     *
+     * @param values
+     *          the values to test.
+     * @param indexes
+     *          the destination of the indexes of the matching values, in increasing order.
+     * @return the number of indexes stored; no more than <code>indexes.length</code> indexes are stored.
+     */
+    public int select(double[] values, int[] indexes) {
+      int n = 0;
+      for (int i = 0; (i < values.length) && (n < indexes.length); i++) {
+        if (test(values[i]))
+          indexes[n++] = i;
+      }
+      return n;
+    }
+
+    static Compiled and(Compiled left, Compiled right) {
+      if ((left instanceof Interval) && (right instanceof Interval)) // Fuses bounds, e.g. for between.
+        return ((Interval) left).intersect((Interval) right);
+      return new And(left, right);
+    }
+  }
+
+  private static final class Bound<Q extends Quantity<Q>> extends QuantityPredicate<Q> {
+    private final Quantity<Q> threshold;
+    private final boolean lower;
+    private final boolean inclusive;
+
+    Bound(Quantity<Q> threshold, boolean lower, boolean inclusive) {
+      if (threshold == null)
+        throw new NullPointerException("Threshold cannot be null");
+      this.threshold = threshold;
+      this.lower = lower;
+      this.inclusive = inclusive;
+    }
+
+    @Override
+    public Compiled compile(Unit<Q> unit) {
+      double value = threshold.getValue().doubleValue();
+      CompiledConverter toData = CompiledConverter.compile(threshold.getUnit().getConverterTo(unit));
+      if (!toData.isAffine()) // Tests readings in the unit of the threshold.
+        return new Converted(unit.getConverterTo(threshold.getUnit()), Interval.of(value, lower, inclusive));
+      boolean increasing = toData.getScale() > 0;
+      return Interval.of(toData.convert(value), lower == increasing, inclusive);
+    }
+
+    @Override
+    public String toString() {
+      return (lower ? ">" : "<") + (inclusive ? "= " : " ") + threshold;
+    }
+  }
+
+  private static final class Junction<Q extends Quantity<Q>> extends QuantityPredicate<Q> {
+    private final QuantityPredicate<Q> left;
+    private final QuantityPredicate<Q> right;
+    private final boolean and;
+
+    Junction(QuantityPredicate<Q> left, QuantityPredicate<Q> right, boolean and) {
+      if (right == null)
+        throw new NullPointerException("Predicate cannot be null");
+      this.left = left;
+      this.right = right;
+      this.and = and;
+    }
+
+    @Override
+    public Compiled compile(Unit<Q> unit) {
+      Compiled l = left.compile(unit);
+      Compiled r = right.compile(unit);
+      return and ? Compiled.and(l, r) : new Or(l, r);
+    }
+
+    @Override
+    public String toString() {
+      return "(" + left + (and ? " and " : " or ") + right + ")";
+    }
+  }
+
+  private static final class Negation<Q extends Quantity<Q>> extends QuantityPredicate<Q> {
+    private final QuantityPredicate<Q> predicate;
+
+    Negation(QuantityPredicate<Q> predicate) {
+      this.predicate = predicate;
+    }
+
+    @Override
+    public Compiled compile(Unit<Q> unit) {
+      return new Not(predicate.compile(unit));
+    }
+
+    @Override
+    public QuantityPredicate<Q> negate() {
+      return predicate;
+    }
+
+    @Override
+    public String toString() {
+      return "not " + predicate;
+    }
+  }
+
+  /**
+   * Tests <code>low &lt;(=) x &lt;(=) high</code>, half-bounded intervals use infinite limits.
+   */
+  private static final class Interval extends Compiled {
+    private final double low;
+    private final double high;
+    private final boolean lowInclusive;
+    private final boolean highInclusive;
+
+    Interval(double low, boolean lowInclusive, double high, boolean highInclusive) {
+      this.low = low;
+      this.lowInclusive = lowInclusive;
+      this.high = high;
+      this.highInclusive = highInclusive;
+    }
+
+    static Interval of(double threshold, boolean lower, boolean inclusive) {
+      return lower ? new Interval(threshold, inclusive, Double.POSITIVE_INFINITY, true) : new Interval(Double.NEGATIVE_INFINITY, true, threshold,
+          inclusive);
+    }
+
+    Interval intersect(Interval that) {
+      boolean thisLow = (low > that.low) || ((low == that.low) && !lowInclusive);
+      boolean thisHigh = (high < that.high) || ((high == that.high) && !highInclusive);
+      return new Interval(thisLow ? low : that.low, thisLow ? lowInclusive : that.lowInclusive, thisHigh ? high : that.high,
+          thisHigh ? highInclusive : that.highInclusive);
+    }
+
+    @Override
+    public boolean test(double value) {
+      return (lowInclusive ? value >= low : value > low) && (highInclusive ? value <= high : value < high);
+    }
+
+    @Override
+    public String toString() {
+      return low + (lowInclusive ? " <= x" : " < x") + (highInclusive ? " <= " : " < ") + high;
+    }
+  }
+
+  private static final class And extends Compiled {
+    private final Compiled left;
+    private final Compiled right;
+
+    And(Compiled left, Compiled right) {
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    public boolean test(double value) {
+      return left.test(value) && right.test(value);
+    }
+
+    @Override
+    public String toString() {
+      return "(" + left + " and " + right + ")";
+    }
+  }
+
+  private static final class Or extends Compiled {
+    private final Compiled left;
+    private final Compiled right;
+
+    Or(Compiled left, Compiled right) {
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    public boolean test(double value) {
+      return left.test(value) || right.test(value);
+    }
+
+    @Override
+    public String toString() {
+      return "(" + left + " or " + right + ")";
+    }
+  }
+
+  private static final class Not extends Compiled {
+    private final Compiled compiled;
+
+    Not(Compiled compiled) {
+      this.compiled = compiled;
+    }
+
+    @Override
+    public boolean test(double value) {
+      return !compiled.test(value);
+    }
+
+    @Override
+    public String toString() {
+      return "not " + compiled;
+    }
+  }
+
+  /**
+   * Converts each value into the unit of a threshold whose conversion into the data unit is not affine.
+   */
+  private static final class Converted extends Compiled {
+    private final UnitConverter converter;
+    private final Compiled compiled;
+
+    Converted(UnitConverter converter, Compiled compiled) {
+      this.converter = converter;
+      this.compiled = compiled;
+    }
+
+    @Override
+    public boolean test(double value) {
+      return compiled.test(converter.convert(value));
+    }
+
+    @Override
+    public String toString() {
+      return compiled + " after " + converter;
+    }
+  }
+}
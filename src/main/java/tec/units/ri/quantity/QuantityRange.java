@@ -30,6 +30,8 @@
 package tec.units.ri.quantity;
 
 import javax.measure.Quantity;
+import javax.measure.Unit;
+import javax.measure.UnitConverter;
 
 import tec.units.ri.spi.Range;
 
@@ -38,6 +40,12 @@ import tec.units.ri.spi.Range;
  * <p>
  * Range limits MUST be presented in the same scale and have the same unit as measured data values.<br/>
  * Subclasses of Range should be immutable.
+ * </p>
+ * <p>
+ * Both limits are resolved into their {@link Unit#getSystemUnit() system unit} once, when the range is created. Membership tests then only convert
+ * the probed value, using a converter which is cached for the last unit seen, so that checking a stream of readings stated in the same unit costs a
+ * single conversion and two comparisons per reading. A missing ({@code null}) limit is considered unbounded.
+ * </p>
  * 
  * @param <T>
  *          The value of the range.
@@ -49,13 +57,51 @@ import tec.units.ri.spi.Range;
 public class QuantityRange<Q extends Quantity<Q>> extends Range<Quantity<Q>> {
   private Quantity<Q> res;
 
+  /**
+   * Holds the system unit both limits are resolved into (<code>null</code> if the range has no limit).
+   */
+  private final Unit<Q> systemUnit;
+
+  /**
+   * Holds the lower limit stated in the system unit.
+   */
+  private final double lower;
+
+  /**
+   * Holds the upper limit stated in the system unit.
+   */
+  private final double upper;
+
+  /**
+   * Holds the converter to the system unit for the last unit probed.
+   */
+  private volatile ConverterEntry<Q> lastConverter;
+
   protected QuantityRange(Quantity<Q> min, Quantity<Q> max, Quantity<Q> resolution) {
-    super(min, max);
+    this(min, max);
     this.res = resolution;
   }
 
   protected QuantityRange(Quantity<Q> min, Quantity<Q> max) {
     super(min, max);
+    if (min != null) {
+      systemUnit = min.getUnit().getSystemUnit();
+    } else if (max != null) {
+      systemUnit = max.getUnit().getSystemUnit();
+    } else {
+      systemUnit = null;
+    }
+    double low = (min != null) ? toSystemUnit(min) : Double.NEGATIVE_INFINITY;
+    double high = (max != null) ? toSystemUnit(max) : Double.POSITIVE_INFINITY;
+    if (low > high) { // Only valid for limits stated in a unit decreasing with its system unit.
+      if (!isDecreasing(min.getUnit()) && !isDecreasing(max.getUnit()))
+        throw new IllegalArgumentException("Minimum " + min + " is greater than maximum " + max);
+      double tmp = low;
+      low = high;
+      high = tmp;
+    }
+    this.lower = low;
+    this.upper = high;
   }
 
   /**
@@ -74,6 +120,19 @@ public class QuantityRange<Q extends Quantity<Q>> extends Range<Quantity<Q>> {
     return new QuantityRange(minimum, maximum, resolution);
   }
 
+  /**
+   * Returns an {@code QuantityRange} with the specified values.
+   *
+   * @param minimum
+   *          The minimum value for the measurement range.
+   * @param maximum
+   *          The maximum value for the measurement range.
+   * @return an {@code MeasurementRange} with the given values
+   */
+  public static <Q extends Quantity<Q>> QuantityRange<Q> of(Quantity<Q> minimum, Quantity<Q> maximum) {
+    return new QuantityRange<Q>(minimum, maximum);
+  }
+
   /**
    * Returns the resolution of the measurement range. The value is the same as that given as the constructor parameter for the largest value.
    * 
@@ -83,6 +142,33 @@ public class QuantityRange<Q extends Quantity<Q>> extends Range<Quantity<Q>> {
     return res;
   }
 
+  /**
+   * Returns the system unit the limits of this range are resolved into.
+   * 
+   * @return the system unit or <code>null</code> if this range has neither minimum nor maximum.
+   */
+  public Unit<Q> getSystemUnit() {
+    return systemUnit;
+  }
+
+  /**
+   * Returns the lower limit of this range stated in its {@link #getSystemUnit() system unit}.
+   * 
+   * @return the lower limit or {@link Double#NEGATIVE_INFINITY} if this range has no lower limit.
+   */
+  public double getLowerBound() {
+    return lower;
+  }
+
+  /**
+   * Returns the upper limit of this range stated in its {@link #getSystemUnit() system unit}.
+   * 
+   * @return the upper limit or {@link Double#POSITIVE_INFINITY} if this range has no upper limit.
+   */
+  public double getUpperBound() {
+    return upper;
+  }
+
   /*
    * (non-Javadoc)
    * 
@@ -91,15 +177,149 @@ public class QuantityRange<Q extends Quantity<Q>> extends Range<Quantity<Q>> {
   @Override
   public boolean contains(Quantity<Q> q) {
     if (q != null && q.getValue() != null) {
-      // TODO use hasMinimum() and hasMaximum() to avoid null of the
-      // range, too
-      if (q.getValue().doubleValue() >= getMinimum().getValue().doubleValue() && q.getValue().doubleValue() <= getMaximum().getValue().doubleValue()) {
-        return true;
-      }
+      return contains(q.getValue().doubleValue(), q.getUnit());
     }
     return false;
   }
 
+  /**
+   * Checks whether the given value stated in the specified unit is within this range (limits included).
+   * 
+   * @param value
+   *          the value to check.
+   * @param unit
+   *          the unit the value is stated in.
+   * @return true if the value is within the range
+   * @throws javax.measure.UnconvertibleException
+   *           if the specified unit is not convertible to the unit of this range limits.
+   */
+  public boolean contains(double value, Unit<Q> unit) {
+    final double v = converterFor(unit).convert(value);
+    return v >= lower && v <= upper;
+  }
+
+  /**
+   * Checks whether each of the given values stated in the specified unit is within this range (limits included). The converter for the specified
+   * unit is resolved once for the whole array.
+   * 
+   * @param values
+   *          the values to check.
+   * @param unit
+   *          the unit all values are stated in.
+   * @param result
+   *          the array receiving for each value whether it is within the range (same length as <code>values</code> at least).
+   * @return the number of values within the range.
+   * @throws javax.measure.UnconvertibleException
+   *           if the specified unit is not convertible to the unit of this range limits.
+   */
+  public int contains(double[] values, Unit<Q> unit, boolean[] result) {
+    return contains(values, 0, values.length, unit, result);
+  }
+
+  /**
+   * Checks whether each of the given values stated in the specified unit is within this range (limits included). The converter for the specified
+   * unit is resolved once for the whole array.
+   * 
+   * @param values
+   *          the values to check.
+   * @param offset
+   *          the index of the first value to check (the index of its result as well).
+   * @param length
+   *          the number of values to check.
+   * @param unit
+   *          the unit all values are stated in.
+   * @param result
+   *          the array receiving for each value whether it is within the range.
+   * @return the number of values within the range.
+   * @throws javax.measure.UnconvertibleException
+   *           if the specified unit is not convertible to the unit of this range limits.
+   */
+  public int contains(double[] values, int offset, int length, Unit<Q> unit, boolean[] result) {
+    final UnitConverter converter = converterFor(unit);
+    final double low = lower;
+    final double high = upper;
+    final int end = offset + length;
+    int count = 0;
+    if (converter.isIdentity()) {
+      for (int i = offset; i < end; i++) {
+        final double v = values[i];
+        final boolean in = v >= low && v <= high;
+        result[i] = in;
+        if (in)
+          count++;
+      }
+    } else {
+      for (int i = offset; i < end; i++) {
+        final double v = converter.convert(values[i]);
+        final boolean in = v >= low && v <= high;
+        result[i] = in;
+        if (in)
+          count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns the number of the given values stated in the specified unit which are within this range (limits included).
+   * 
+   * @param values
+   *          the values to check.
+   * @param unit
+   *          the unit all values are stated in.
+   * @return the number of values within the range.
+   * @throws javax.measure.UnconvertibleException
+   *           if the specified unit is not convertible to the unit of this range limits.
+   */
+  public int count(double[] values, Unit<Q> unit) {
+    final UnitConverter converter = converterFor(unit);
+    final double low = lower;
+    final double high = upper;
+    int count = 0;
+    for (int i = 0; i < values.length; i++) {
+      final double v = converter.convert(values[i]);
+      if (v >= low && v <= high)
+        count++;
+    }
+    return count;
+  }
+
+  /**
+   * Returns the converter from the specified unit to the system unit of this range, reusing the one of the previous call for the same unit.
+   */
+  private UnitConverter converterFor(Unit<Q> unit) {
+    final ConverterEntry<Q> entry = lastConverter;
+    if (entry != null && (entry.unit == unit || entry.unit.equals(unit))) {
+      return entry.converter;
+    }
+    final UnitConverter converter = (systemUnit == null) ? unit.getConverterTo(unit) : unit.getConverterTo(systemUnit);
+    lastConverter = new ConverterEntry<Q>(unit, converter);
+    return converter;
+  }
+
+  private static <Q extends Quantity<Q>> double toSystemUnit(Quantity<Q> q) {
+    final Unit<Q> unit = q.getUnit();
+    return unit.getConverterTo(unit.getSystemUnit()).convert(q.getValue().doubleValue());
+  }
+
+  private static <Q extends Quantity<Q>> boolean isDecreasing(Unit<Q> unit) {
+    final UnitConverter converter = unit.getConverterTo(unit.getSystemUnit());
+    return converter.convert(1) < converter.convert(0);
+  }
+
+  /**
+   * Immutable pair of a unit and its converter, published as a whole.
+   */
+  private static final class ConverterEntry<Q extends Quantity<Q>> {
+    private final Unit<Q> unit;
+    private final UnitConverter converter;
+
+    private ConverterEntry(Unit<Q> unit, UnitConverter converter) {
+      this.unit = unit;
+      this.converter = converter;
+    }
+  }
+
   /*
    * (non-Javadoc)
    * 
@@ -113,9 +333,9 @@ public class QuantityRange<Q extends Quantity<Q>> extends Range<Quantity<Q>> {
     if (obj instanceof QuantityRange<?>) {
       @SuppressWarnings("unchecked")
       final QuantityRange<Q> other = (QuantityRange<Q>) obj;
-      return getMinimum() == other.getMinimum() || (getMinimum() != null && getMinimum().equals(other.getMinimum()))
-          && getMaximum() == other.getMaximum() || (getMaximum() != null && getMaximum().equals(other.getMaximum()))
-          && getResolution() == other.getResolution() || (getResolution() != null && getResolution().equals(other.getResolution()));
+      return (getMinimum() == other.getMinimum() || (getMinimum() != null && getMinimum().equals(other.getMinimum())))
+          && (getMaximum() == other.getMaximum() || (getMaximum() != null && getMaximum().equals(other.getMaximum())))
+          && (getResolution() == other.getResolution() || (getResolution() != null && getResolution().equals(other.getResolution())));
     }
     return false;
   }
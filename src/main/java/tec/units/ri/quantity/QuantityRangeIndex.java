@@ -0,0 +1,558 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.quantity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.measure.IncommensurableException;
+import javax.measure.Quantity;
+import javax.measure.Unit;
+import javax.measure.UnitConverter;
+
+/**
+ * <p>
+ * An index of {@link QuantityRange} instances of one dimension, answering which ranges contain a given quantity.
+ * </p>
+ * 
+ * <p>
+ * The limits of every range are normalized to the system unit of the index when the range is added. Ranges are held in a centered interval tree:
+ * each node holds the ranges containing its center, sorted by lower and by upper limit, so that a query for a value visits one path of the tree and
+ * only reports matching ranges, in <code>O(log n + k)</code> for <code>k</code> ranges found. Ranges can be added and removed at any time; the tree is
+ * rebuilt when it becomes unbalanced.
+ * </p>
+ * 
+ * <p>
+ * Note that this implementation is not synchronized.
+ * </p>
+ * 
+ * <code>
+ *     QuantityRangeIndex<Power> tariffs = new QuantityRangeIndex<Power>(WATT);
+ *     tariffs.add(QuantityRange.of(Quantities.getQuantity(0, WATT), Quantities.getQuantity(2, KILO(WATT))));
+ *     ...
+ *     List<QuantityRange<Power>> bands = tariffs.rangesContaining(Quantities.getQuantity(1500, WATT));
+ * </code>
+ *
+ * @param <Q>
+ *          The type of the quantity.
+ * @version 0.1
+ */
+public class QuantityRangeIndex<Q extends Quantity<Q>> {
+
+  /**
+   * Callback receiving the ranges found by a batch query.
+   *
+   * @param <Q>
+   *          The type of the quantity.
+   */
+  public interface Visitor<Q extends Quantity<Q>> {
+
+    /**
+     * Invoked for each range containing a value.
+     *
+     * @param index
+     *          the index of the value in the queried array.
+     * @param range
+     *          a range containing that value.
+     */
+    void visit(int index, QuantityRange<Q> range);
+  }
+
+  private static final Entry[] EMPTY = new Entry[0];
+
+  /**
+   * Holds the unit all range limits are normalized to.
+   */
+  private final Unit<Q> systemUnit;
+
+  /**
+   * Holds the root of the interval tree.
+   */
+  private Node root;
+
+  /**
+   * Holds the number of ranges.
+   */
+  private int size;
+
+  /**
+   * Holds the number of nodes holding no range.
+   */
+  private int emptyNodes;
+
+  /**
+   * Holds the converter to the system unit for the last unit queried.
+   */
+  private volatile ConverterEntry<Q> lastConverter;
+
+  /**
+   * Creates an empty index for ranges of the dimension of the specified unit.
+   *
+   * @param unit
+   *          any unit of the dimension of the ranges, its system unit is used for normalization.
+   */
+  public QuantityRangeIndex(Unit<Q> unit) {
+    this.systemUnit = unit.getSystemUnit();
+  }
+
+  /**
+   * Returns the unit all range limits are normalized to.
+   *
+   * @return the system unit of this index.
+   */
+  public Unit<Q> getSystemUnit() {
+    return systemUnit;
+  }
+
+  /**
+   * Returns the number of ranges in this index.
+   *
+   * @return the number of ranges.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Adds the specified range to this index.
+   *
+   * @param range
+   *          the range to add.
+   * @throws IllegalArgumentException
+   *           if the limits of the range are not commensurable with the unit of this index.
+   */
+  public void add(QuantityRange<Q> range) {
+    double low = range.getLowerBound();
+    double high = range.getUpperBound();
+    Unit<Q> rangeUnit = range.getSystemUnit();
+    if (rangeUnit != null && !rangeUnit.equals(systemUnit)) {
+      UnitConverter cvtr;
+      try {
+        cvtr = rangeUnit.getConverterToAny(systemUnit);
+      } catch (IncommensurableException e) {
+        throw new IllegalArgumentException(e.getMessage());
+      }
+      low = cvtr.convert(low);
+      high = cvtr.convert(high);
+      if (low > high) {
+        double tmp = low;
+        low = high;
+        high = tmp;
+      }
+    }
+    Entry entry = new Entry(range, low, high);
+    boolean created = false;
+    if (root == null) {
+      root = new Node(centerOf(low, high));
+      created = true;
+    }
+    int depth = 1;
+    Node node = root;
+    while (true) {
+      if (high < node.center) {
+        if (node.left == null) {
+          node.left = new Node(centerOf(low, high));
+          created = true;
+        }
+        node = node.left;
+      } else if (low > node.center) {
+        if (node.right == null) {
+          node.right = new Node(centerOf(low, high));
+          created = true;
+        }
+        node = node.right;
+      } else {
+        break;
+      }
+      depth++;
+    }
+    if (node.count == 0 && !created) {
+      emptyNodes--;
+    }
+    node.insert(entry);
+    size++;
+    if (depth > maxDepth(size)) {
+      rebuild();
+    }
+  }
+
+  /**
+   * Removes the specified range from this index.
+   *
+   * @param range
+   *          the range to remove.
+   * @return <code>true</code> if this index contained the specified range; <code>false</code> otherwise.
+   */
+  public boolean remove(QuantityRange<Q> range) {
+    if (range.getSystemUnit() != null && !range.getSystemUnit().equals(systemUnit)) {
+      return removeByScan(range);
+    }
+    // Follows the path the range was inserted with.
+    final double low = range.getLowerBound();
+    final double high = range.getUpperBound();
+    Node node = root;
+    while (node != null) {
+      if (node.remove(range)) {
+        size--;
+        if (size == 0) {
+          clear();
+        } else if (node.count == 0 && ++emptyNodes > size) {
+          rebuild();
+        }
+        return true;
+      }
+      if (high < node.center) {
+        node = node.left;
+      } else if (low > node.center) {
+        node = node.right;
+      } else {
+        return false;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Removes all ranges from this index.
+   */
+  public void clear() {
+    root = null;
+    size = 0;
+    emptyNodes = 0;
+  }
+
+  /**
+   * Returns the ranges containing the specified quantity (limits included).
+   *
+   * @param quantity
+   *          the quantity to classify.
+   * @return the ranges containing the quantity, never <code>null</code>.
+   */
+  public List<QuantityRange<Q>> rangesContaining(Quantity<Q> quantity) {
+    return rangesContaining(quantity.getValue().doubleValue(), quantity.getUnit());
+  }
+
+  /**
+   * Returns the ranges containing the specified value (limits included).
+   *
+   * @param value
+   *          the value to classify.
+   * @param unit
+   *          the unit the value is stated in.
+   * @return the ranges containing the value, never <code>null</code>.
+   */
+  public List<QuantityRange<Q>> rangesContaining(double value, Unit<Q> unit) {
+    final List<QuantityRange<Q>> result = new ArrayList<QuantityRange<Q>>();
+    stab(converterFor(unit).convert(value), result, 0, null);
+    return result;
+  }
+
+  /**
+   * Returns the number of ranges containing the specified value (limits included).
+   *
+   * @param value
+   *          the value to classify.
+   * @param unit
+   *          the unit the value is stated in.
+   * @return the number of ranges containing the value.
+   */
+  public int countContaining(double value, Unit<Q> unit) {
+    return stab(converterFor(unit).convert(value), null, 0, null);
+  }
+
+  /**
+   * Reports to the specified visitor every range containing each of the specified values. The converter for the specified unit is resolved once for
+   * the whole array.
+   *
+   * @param values
+   *          the values to classify.
+   * @param unit
+   *          the unit all values are stated in.
+   * @param visitor
+   *          the visitor receiving the index of each value with each range containing it.
+   * @return the total number of (value, range) matches reported.
+   */
+  public int rangesContaining(double[] values, Unit<Q> unit, Visitor<Q> visitor) {
+    final UnitConverter converter = converterFor(unit);
+    int count = 0;
+    for (int i = 0; i < values.length; i++) {
+      count += stab(converter.convert(values[i]), null, i, visitor);
+    }
+    return count;
+  }
+
+  /**
+   * Returns for each of the specified values the number of ranges containing it.
+   *
+   * @param values
+   *          the values to classify.
+   * @param unit
+   *          the unit all values are stated in.
+   * @param counts
+   *          the array receiving the number of ranges containing each value (same length as <code>values</code> at least).
+   */
+  public void countContaining(double[] values, Unit<Q> unit, int[] counts) {
+    final UnitConverter converter = converterFor(unit);
+    for (int i = 0; i < values.length; i++) {
+      counts[i] = stab(converter.convert(values[i]), null, 0, null);
+    }
+  }
+
+  /**
+   * Walks the path of the specified value (stated in the system unit), reporting matches to the list or the visitor (when not <code>null</code>).
+   */
+  @SuppressWarnings("unchecked")
+  private int stab(double x, List<QuantityRange<Q>> result, int index, Visitor<Q> visitor) {
+    if (x != x) // NaN is in no range.
+      return 0;
+    int count = 0;
+    Node node = root;
+    while (node != null) {
+      final Entry[] entries;
+      final int n = node.count;
+      if (x < node.center) {
+        entries = node.byLow;
+        for (int i = 0; i < n && entries[i].low <= x; i++) {
+          count++;
+          report((QuantityRange<Q>) entries[i].range, result, index, visitor);
+        }
+        node = node.left;
+      } else if (x > node.center) {
+        entries = node.byHigh;
+        for (int i = 0; i < n && entries[i].high >= x; i++) {
+          count++;
+          report((QuantityRange<Q>) entries[i].range, result, index, visitor);
+        }
+        node = node.right;
+      } else {
+        entries = node.byLow;
+        for (int i = 0; i < n; i++) {
+          count++;
+          report((QuantityRange<Q>) entries[i].range, result, index, visitor);
+        }
+        break;
+      }
+    }
+    return count;
+  }
+
+  private void report(QuantityRange<Q> range, List<QuantityRange<Q>> result, int index, Visitor<Q> visitor) {
+    if (result != null) {
+      result.add(range);
+    }
+    if (visitor != null) {
+      visitor.visit(index, range);
+    }
+  }
+
+  private UnitConverter converterFor(Unit<Q> unit) {
+    final ConverterEntry<Q> entry = lastConverter;
+    if (entry != null && (entry.unit == unit || entry.unit.equals(unit))) {
+      return entry.converter;
+    }
+    final UnitConverter converter = unit.getConverterTo(systemUnit);
+    lastConverter = new ConverterEntry<Q>(unit, converter);
+    return converter;
+  }
+
+  private boolean removeByScan(QuantityRange<Q> range) {
+    List<Entry> entries = new ArrayList<Entry>(size);
+    collect(root, entries);
+    for (int i = 0; i < entries.size(); i++) {
+      if (entries.get(i).range.equals(range)) {
+        entries.remove(i);
+        root = build(entries);
+        size = entries.size();
+        emptyNodes = 0;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Rebuilds a balanced tree from the ranges currently indexed.
+   */
+  private void rebuild() {
+    List<Entry> entries = new ArrayList<Entry>(size);
+    collect(root, entries);
+    root = build(entries);
+    emptyNodes = 0;
+  }
+
+  private static void collect(Node node, List<Entry> entries) {
+    while (node != null) {
+      for (int i = 0; i < node.count; i++) {
+        entries.add(node.byLow[i]);
+      }
+      collect(node.left, entries);
+      node = node.right;
+    }
+  }
+
+  private static Node build(List<Entry> entries) {
+    if (entries.isEmpty())
+      return null;
+    double[] endpoints = new double[entries.size() * 2];
+    int n = 0;
+    for (Entry e : entries) {
+      if (!Double.isInfinite(e.low))
+        endpoints[n++] = e.low;
+      if (!Double.isInfinite(e.high))
+        endpoints[n++] = e.high;
+    }
+    double center = 0;
+    if (n > 0) {
+      Arrays.sort(endpoints, 0, n);
+      center = endpoints[n / 2];
+    }
+    List<Entry> left = new ArrayList<Entry>();
+    List<Entry> right = new ArrayList<Entry>();
+    Node node = new Node(center);
+    for (Entry e : entries) {
+      if (e.high < center) {
+        left.add(e);
+      } else if (e.low > center) {
+        right.add(e);
+      } else {
+        node.insert(e);
+      }
+    }
+    node.left = build(left);
+    node.right = build(right);
+    return node;
+  }
+
+  private static double centerOf(double low, double high) {
+    if (Double.isInfinite(low))
+      return Double.isInfinite(high) ? 0 : high;
+    if (Double.isInfinite(high))
+      return low;
+    return low + (high - low) / 2;
+  }
+
+  private static int maxDepth(int size) {
+    int log = 0;
+    while ((1 << log) <= size && log < 31)
+      log++;
+    return 2 * log + 4;
+  }
+
+  /**
+   * A range with its limits stated in the system unit of the index.
+   */
+  private static final class Entry {
+    private final QuantityRange<?> range;
+    private final double low;
+    private final double high;
+
+    private Entry(QuantityRange<?> range, double low, double high) {
+      this.range = range;
+      this.low = low;
+      this.high = high;
+    }
+  }
+
+  /**
+   * A node of the centered interval tree, holding the ranges containing its center.
+   */
+  private static final class Node {
+    private final double center;
+    private Entry[] byLow = EMPTY; // Ascending lower limits.
+    private Entry[] byHigh = EMPTY; // Descending upper limits.
+    private int count;
+    private Node left;
+    private Node right;
+
+    private Node(double center) {
+      this.center = center;
+    }
+
+    private void insert(Entry entry) {
+      if (count == byLow.length) {
+        int capacity = (count == 0) ? 2 : count * 2;
+        Entry[] tmp = new Entry[capacity];
+        System.arraycopy(byLow, 0, tmp, 0, count);
+        byLow = tmp;
+        tmp = new Entry[capacity];
+        System.arraycopy(byHigh, 0, tmp, 0, count);
+        byHigh = tmp;
+      }
+      int i = count;
+      while (i > 0 && byLow[i - 1].low > entry.low) {
+        byLow[i] = byLow[i - 1];
+        i--;
+      }
+      byLow[i] = entry;
+      i = count;
+      while (i > 0 && byHigh[i - 1].high < entry.high) {
+        byHigh[i] = byHigh[i - 1];
+        i--;
+      }
+      byHigh[i] = entry;
+      count++;
+    }
+
+    private boolean remove(QuantityRange<?> range) {
+      int i = indexOf(byLow, range);
+      if (i < 0)
+        return false;
+      System.arraycopy(byLow, i + 1, byLow, i, count - i - 1);
+      int j = indexOf(byHigh, range);
+      System.arraycopy(byHigh, j + 1, byHigh, j, count - j - 1);
+      count--;
+      byLow[count] = null;
+      byHigh[count] = null;
+      return true;
+    }
+
+    private int indexOf(Entry[] entries, QuantityRange<?> range) {
+      for (int i = 0; i < count; i++) {
+        if (entries[i].range.equals(range))
+          return i;
+      }
+      return -1;
+    }
+  }
+
+  /**
+   * Immutable pair of a unit and its converter, published as a whole.
+   */
+  private static final class ConverterEntry<Q extends Quantity<Q>> {
+    private final Unit<Q> unit;
+    private final UnitConverter converter;
+
+    private ConverterEntry(Unit<Q> unit, UnitConverter converter) {
+      this.unit = unit;
+      this.converter = converter;
+    }
+  }
+}
@@ -0,0 +1,322 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.quantity;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.measure.Quantity;
+import javax.measure.Unit;
+import javax.measure.UnitConverter;
+
+import tec.units.ri.function.CompiledConverter;
+import tec.units.ri.stream.Streams.DoubleConsumer;
+
+/**
+ * A mutable, single-pass accumulator of the count, mean, variance, minimum and maximum of quantities, stated in a target unit.
+ * <p>
+ * Values may be added as quantities or as primitive values stated in any unit compatible with the target unit; the converters are resolved once
+ * per source unit and cached. Mean and variance are updated with Welford's algorithm, which does not suffer from the cancellation of the naive
+ * sum of squares, and partial accumulators (e.g. computed by parallel workers) can be {@link #merge(QuantityStatistics) merged}. Results are only
+ * turned into quantities when requested:
+ *
+ * <pre>
+ * QuantityStatistics&lt;Temperature&gt; stats = new QuantityStatistics&lt;Temperature&gt;(CELSIUS);
+ * stats.accept(readingsInKelvin, KELVIN);
+ * Quantity&lt;Temperature&gt; mean = stats.getMean();
+ * </pre>
+ *
+ * Instances are not thread-safe, each worker should use its own accumulator.
+ * </p>
+ *
+ * @param <Q>
+ *          The type of the quantities accumulated.
+ * @version 0.1
+ */
+public class QuantityStatistics<Q extends Quantity<Q>> implements DoubleConsumer {
+
+  private final Unit<Q> unit;
+  private final Map<Unit<Q>, UnitConverter> converters = new HashMap<Unit<Q>, UnitConverter>();
+  private Unit<Q> lastUnit;
+  private UnitConverter lastConverter;
+
+  private long count;
+  private double mean;
+  private double m2; // Sum of squared differences from the mean.
+  private double min = Double.POSITIVE_INFINITY;
+  private double max = Double.NEGATIVE_INFINITY;
+
+  /**
+   * Creates an empty accumulator.
+   *
+   * @param unit
+   *          the unit the statistics are computed in.
+   */
+  public QuantityStatistics(Unit<Q> unit) {
+    if (unit == null)
+      throw new NullPointerException("Unit cannot be null");
+    this.unit = unit;
+  }
+
+  /**
+   * Returns the unit the statistics are computed in.
+   *
+   * @return the target unit.
+   */
+  public Unit<Q> getUnit() {
+    return unit;
+  }
+
+  /**
+   * Adds the specified quantity.
+   *
+   * @param quantity
+   *          the quantity to add.
+   * @throws javax.measure.UnconvertibleException
+   *           if the unit of the quantity cannot be converted into the target unit.
+   */
+  public void accept(Quantity<Q> quantity) {
+    accept(quantity.getValue().doubleValue(), quantity.getUnit());
+  }
+
+  /**
+   * Adds the specified value stated in the specified unit.
+   *
+   * @param value
+   *          the value to add.
+   * @param valueUnit
+   *          the unit of the value.
+   */
+  public void accept(double value, Unit<Q> valueUnit) {
+    accept(converterFrom(valueUnit).convert(value));
+  }
+
+  /**
+   * Adds the specified values stated in the specified unit.
+   *
+   * @param values
+   *          the values to add.
+   * @param valuesUnit
+   *          the unit of the values.
+   */
+  public void accept(double[] values, Unit<Q> valuesUnit) {
+    UnitConverter converter = converterFrom(valuesUnit);
+    if (converter.isIdentity()) {
+      for (int i = 0; i < values.length; i++) {
+        accept(values[i]);
+      }
+    } else {
+      for (int i = 0; i < values.length; i++) {
+        accept(converter.convert(values[i]));
+      }
+    }
+  }
+
+  /**
+   * Adds the specified value stated in the target unit.
+   *
+   * @param value
+   *          the value to add.
+   */
+  public void accept(double value) {
+    long n = ++count;
+    double delta = value - mean;
+    mean += delta / n;
+    m2 += delta * (value - mean);
+    if (value < min)
+      min = value;
+    if (value > max)
+      max = value;
+  }
+
+  /**
+   * Merges the statistics of the specified accumulator into this one, as if all its values had been added to this accumulator. The specified
+   * accumulator is not modified.
+   *
+   * @param that
+   *          the accumulator to merge.
+   * @throws IllegalArgumentException
+   *           if the conversion from the unit of the specified accumulator is not affine (e.g. logarithmic).
+   */
+  public void merge(QuantityStatistics<Q> that) {
+    if (that.count == 0)
+      return;
+    double thatMean = that.mean;
+    double thatM2 = that.m2;
+    double thatMin = that.min;
+    double thatMax = that.max;
+    CompiledConverter converter = CompiledConverter.compile(converterFrom(that.unit));
+    if (!converter.isIdentity()) { // Affine transform of the moments.
+      if (!converter.isAffine())
+        throw new IllegalArgumentException("Statistics in " + that.unit + " cannot be merged into " + unit + ": conversion is not affine");
+      double scale = converter.getScale();
+      thatMean = converter.convert(thatMean);
+      thatM2 *= scale * scale;
+      thatMin = converter.convert(that.min);
+      thatMax = converter.convert(that.max);
+      if (scale < 0) {
+        double tmp = thatMin;
+        thatMin = thatMax;
+        thatMax = tmp;
+      }
+    }
+    long n = count + that.count;
+    double delta = thatMean - mean;
+    mean += delta * that.count / n;
+    m2 += thatM2 + delta * delta * ((double) count * that.count / n);
+    count = n;
+    if (thatMin < min)
+      min = thatMin;
+    if (thatMax > max)
+      max = thatMax;
+  }
+
+  /**
+   * Discards all values added, keeps the cached converters.
+   */
+  public void reset() {
+    count = 0;
+    mean = 0;
+    m2 = 0;
+    min = Double.POSITIVE_INFINITY;
+    max = Double.NEGATIVE_INFINITY;
+  }
+
+  /**
+   * Returns the number of values added.
+   *
+   * @return the count.
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Returns the arithmetic mean of the values added.
+   *
+   * @return the mean in the target unit or <code>null</code> if no value has been added.
+   */
+  public Quantity<Q> getMean() {
+    return (count == 0) ? null : Quantities.getQuantity(mean, unit);
+  }
+
+  /**
+   * Returns the smallest value added.
+   *
+   * @return the minimum in the target unit or <code>null</code> if no value has been added.
+   */
+  public Quantity<Q> getMin() {
+    return (count == 0) ? null : Quantities.getQuantity(min, unit);
+  }
+
+  /**
+   * Returns the largest value added.
+   *
+   * @return the maximum in the target unit or <code>null</code> if no value has been added.
+   */
+  public Quantity<Q> getMax() {
+    return (count == 0) ? null : Quantities.getQuantity(max, unit);
+  }
+
+  /**
+   * Returns the sample standard deviation of the values added. The deviation is a spread on the scale of the target unit, not an absolute quantity:
+   * for a unit with an offset such as {@link tec.units.ri.unit.Units#CELSIUS} it cannot be converted as a quantity (a deviation of 1 °C is a
+   * deviation of 1 K, not of 274.15 K), hence it is returned as a plain value.
+   *
+   * @return the standard deviation on the scale of the target unit or <code>NaN</code> if less than two values have been added.
+   */
+  public double getStandardDeviation() {
+    return (count < 2) ? Double.NaN : Math.sqrt(getVariance());
+  }
+
+  /**
+   * Returns the arithmetic mean of the values added.
+   *
+   * @return the mean in the target unit or <code>NaN</code> if no value has been added.
+   */
+  public double getMeanValue() {
+    return (count == 0) ? Double.NaN : mean;
+  }
+
+  /**
+   * Returns the smallest value added.
+   *
+   * @return the minimum in the target unit or <code>NaN</code> if no value has been added.
+   */
+  public double getMinValue() {
+    return (count == 0) ? Double.NaN : min;
+  }
+
+  /**
+   * Returns the largest value added.
+   *
+   * @return the maximum in the target unit or <code>NaN</code> if no value has been added.
+   */
+  public double getMaxValue() {
+    return (count == 0) ? Double.NaN : max;
+  }
+
+  /**
+   * Returns the sample variance (with Bessel's correction) of the values added.
+   *
+   * @return the variance in the square of the target unit or <code>NaN</code> if less than two values have been added.
+   */
+  public double getVariance() {
+    return (count < 2) ? Double.NaN : m2 / (count - 1);
+  }
+
+  /**
+   * Returns the population variance of the values added.
+   *
+   * @return the variance in the square of the target unit or <code>NaN</code> if no value has been added.
+   */
+  public double getPopulationVariance() {
+    return (count == 0) ? Double.NaN : m2 / count;
+  }
+
+  @Override
+  public String toString() {
+    return "QuantityStatistics[count=" + count + ", mean=" + getMeanValue() + ", min=" + getMinValue() + ", max=" + getMaxValue() + ", variance="
+        + getVariance() + ", unit=" + unit + "]";
+  }
+
+  private UnitConverter converterFrom(Unit<Q> valueUnit) {
+    if (valueUnit == lastUnit)
+      return lastConverter;
+    UnitConverter converter = converters.get(valueUnit);
+    if (converter == null) {
+      converter = valueUnit.getConverterTo(unit);
+      converters.put(valueUnit, converter);
+    }
+    lastUnit = valueUnit;
+    lastConverter = converter;
+    return converter;
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.spi;
+
+import static java.util.logging.Level.WARNING;
+
+import java.util.logging.Logger;
+
+import javax.measure.spi.ServiceProvider;
+
+/**
+ * Holds the {@link MetricsListener} notified by the instrumented operations of this implementation.
+ * <p>
+ * When no listener is registered (the default) an instrumented operation only performs a <code>null</code> check of {@link #listener()}, for
+ * example:
+ *
+ * <pre>
+ * MetricsListener metrics = Metrics.listener();
+ * if (metrics == null)
+ *   return doConvert(value);
+ * long start = System.nanoTime();
+ * try {
+ *   return doConvert(value);
+ * } finally {
+ *   metrics.operationCompleted(Operation.CONVERT, System.nanoTime() - start);
+ * }
+ * </pre>
+ * </p>
+ *
+ * @version 0.1
+ */
+public final class Metrics {
+
+  /** The name of the cache of units built by {@link tec.units.ri.unit.MetricPrefix#prefix(javax.measure.Unit)}. */
+  public static final String PREFIXED_UNITS = "prefixedUnits";
+
+  /** The name of the cache of system units held by product units. */
+  public static final String SYSTEM_UNITS = "systemUnits";
+
+  /** The name of the cache of system converters held by product units. */
+  public static final String SYSTEM_CONVERTERS = "systemConverters";
+
+  private static volatile MetricsListener listener = discover();
+
+  private Metrics() {
+  }
+
+  /**
+   * Returns the current listener.
+   *
+   * @return the listener notified by the instrumented operations or <code>null</code> if metrics are disabled.
+   */
+  public static MetricsListener listener() {
+    return listener;
+  }
+
+  /**
+   * Sets the listener notified by the instrumented operations, replacing the one discovered through {@link DefaultServiceProvider}.
+   *
+   * @param metricsListener
+   *          the new listener or <code>null</code> to disable metrics.
+   */
+  public static void setListener(MetricsListener metricsListener) {
+    listener = metricsListener;
+  }
+
+  /**
+   * Notifies the current listener (if any) of a cache lookup.
+   *
+   * @param cache
+   *          the name of the cache.
+   * @param hit
+   *          <code>true</code> if the value was found in the cache.
+   */
+  public static void cacheAccessed(String cache, boolean hit) {
+    MetricsListener metrics = listener;
+    if (metrics != null)
+      metrics.cacheAccessed(cache, hit);
+  }
+
+  private static MetricsListener discover() {
+    try {
+      ServiceProvider provider = ServiceProvider.current();
+      DefaultServiceProvider services = (provider instanceof DefaultServiceProvider) ? (DefaultServiceProvider) provider
+          : new DefaultServiceProvider();
+      return services.getService(MetricsListener.class);
+    } catch (RuntimeException e) {
+      Logger.getLogger(Metrics.class.getName()).log(WARNING, "Error loading metrics listener, metrics are disabled", e);
+      return null;
+    }
+  }
+}
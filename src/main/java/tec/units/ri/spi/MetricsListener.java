@@ -0,0 +1,83 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.spi;
+
+/**
+ * Receives timings of the hot operations of this implementation and the outcome of its internal cache lookups.
+ * <p>
+ * A listener is discovered through {@link DefaultServiceProvider} (<code>META-INF/services/tec.units.ri.spi.MetricsListener</code>) or registered
+ * with {@link Metrics#setListener(MetricsListener)}. Callbacks are made on the thread performing the operation, implementations must therefore be
+ * thread-safe and should return quickly.
+ * </p>
+ *
+ * @see Metrics
+ * @see MetricsRecorder
+ * @version 0.1
+ */
+public interface MetricsListener {
+
+  /**
+   * The instrumented operations.
+   */
+  public static enum Operation {
+    /** {@link javax.measure.Unit#getConverterTo(javax.measure.Unit)} */
+    GET_CONVERTER,
+    /** {@link javax.measure.Unit#getConverterToAny(javax.measure.Unit)} */
+    GET_CONVERTER_ANY,
+    /** {@link javax.measure.UnitConverter#convert(Number)} */
+    CONVERT,
+    /** {@link tec.units.ri.format.SimpleUnitFormat#parse(CharSequence)} */
+    UNIT_PARSE,
+    /** {@link tec.units.ri.format.QuantityFormat#format(javax.measure.Quantity, Appendable)} */
+    QUANTITY_FORMAT,
+    /** {@link tec.units.ri.format.QuantityFormat#parse(CharSequence)} */
+    QUANTITY_PARSE
+  }
+
+  /**
+   * Called when an operation completes, normally or by throwing an exception.
+   *
+   * @param operation
+   *          the operation performed.
+   * @param elapsedNanos
+   *          the wall-clock duration of the operation in nanoseconds.
+   */
+  void operationCompleted(Operation operation, long elapsedNanos);
+
+  /**
+   * Called when an internal cache is looked up.
+   *
+   * @param cache
+   *          the name of the cache (e.g. {@link Metrics#PREFIXED_UNITS}).
+   * @param hit
+   *          <code>true</code> if the value was found in the cache; <code>false</code> if it had to be computed.
+   */
+  void cacheAccessed(String cache, boolean hit);
+}
@@ -0,0 +1,271 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.spi;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A {@link MetricsListener} keeping, for each operation, a count and a latency histogram and, for each cache, its hits and misses.
+ * <p>
+ * Latencies are recorded in power-of-two buckets of nanoseconds, percentiles are therefore accurate to within a factor two. Instances are
+ * thread-safe and lock-free on the recording path.
+ * </p>
+ *
+ * @version 0.1
+ */
+public class MetricsRecorder implements MetricsListener {
+
+  private final Map<Operation, Histogram> histograms = new EnumMap<Operation, Histogram>(Operation.class);
+
+  /**
+   * Holds the hit and miss counters of each cache. The map is never modified once published: the counters of the caches of this library are
+   * created upfront and other caches are added by copy (once per cache name), so that the recording path reads it without locking.
+   */
+  private volatile Map<String, AtomicLong[]> caches;
+
+  public MetricsRecorder() {
+    for (Operation operation : Operation.values()) {
+      histograms.put(operation, new Histogram());
+    }
+    Map<String, AtomicLong[]> map = new HashMap<String, AtomicLong[]>();
+    for (String cache : new String[] { Metrics.PREFIXED_UNITS, Metrics.SYSTEM_UNITS, Metrics.SYSTEM_CONVERTERS }) {
+      map.put(cache, new AtomicLong[] { new AtomicLong(), new AtomicLong() });
+    }
+    caches = map;
+  }
+
+  @Override
+  public void operationCompleted(Operation operation, long elapsedNanos) {
+    histograms.get(operation).record(elapsedNanos);
+  }
+
+  @Override
+  public void cacheAccessed(String cache, boolean hit) {
+    counters(cache)[hit ? 0 : 1].incrementAndGet();
+  }
+
+  /**
+   * Returns the latency histogram of the specified operation.
+   *
+   * @param operation
+   *          the operation.
+   * @return the corresponding histogram.
+   */
+  public Histogram getHistogram(Operation operation) {
+    return histograms.get(operation);
+  }
+
+  /**
+   * Returns the number of times the specified operation completed.
+   *
+   * @param operation
+   *          the operation.
+   * @return <code>getHistogram(operation).getCount()</code>
+   */
+  public long getCount(Operation operation) {
+    return histograms.get(operation).getCount();
+  }
+
+  /**
+   * Returns the number of lookups of the specified cache which found their value.
+   *
+   * @param cache
+   *          the name of the cache.
+   * @return the number of hits.
+   */
+  public long getHits(String cache) {
+    return counters(cache)[0].get();
+  }
+
+  /**
+   * Returns the number of lookups of the specified cache which had to compute their value.
+   *
+   * @param cache
+   *          the name of the cache.
+   * @return the number of misses.
+   */
+  public long getMisses(String cache) {
+    return counters(cache)[1].get();
+  }
+
+  /**
+   * Returns the proportion of lookups of the specified cache which found their value.
+   *
+   * @param cache
+   *          the name of the cache.
+   * @return the hit rate in the range <code>[0, 1]</code> or <code>NaN</code> if the cache has not been looked up.
+   */
+  public double getHitRate(String cache) {
+    long hits = getHits(cache);
+    long total = hits + getMisses(cache);
+    return (total == 0) ? Double.NaN : (double) hits / total;
+  }
+
+  /**
+   * Clears all counters and histograms.
+   */
+  public void reset() {
+    for (Histogram histogram : histograms.values()) {
+      histogram.reset();
+    }
+    for (AtomicLong[] counters : caches.values()) {
+      counters[0].set(0);
+      counters[1].set(0);
+    }
+  }
+
+  private AtomicLong[] counters(String cache) {
+    AtomicLong[] counters = caches.get(cache);
+    return (counters != null) ? counters : addCounters(cache);
+  }
+
+  private AtomicLong[] addCounters(String cache) {
+    synchronized (histograms) { // Guards the copies of the map.
+      AtomicLong[] counters = caches.get(cache);
+      if (counters == null) {
+        Map<String, AtomicLong[]> map = new HashMap<String, AtomicLong[]>(caches);
+        counters = new AtomicLong[] { new AtomicLong(), new AtomicLong() };
+        map.put(cache, counters);
+        caches = map;
+      }
+      return counters;
+    }
+  }
+
+  /**
+   * A latency histogram with power-of-two buckets; bucket <code>i</code> counts the durations <code>d</code> such that
+   * <code>2<sup>i-1</sup> &lt;= d &lt; 2<sup>i</sup></code> nanoseconds (bucket <code>0</code> holds the zero durations).
+   */
+  public static final class Histogram {
+
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    Histogram() {
+    }
+
+    void record(long nanos) {
+      if (nanos < 0)
+        nanos = 0; // Clock adjustment.
+      buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(nanos));
+      count.incrementAndGet();
+      totalNanos.addAndGet(nanos);
+      long max = maxNanos.get();
+      while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+        max = maxNanos.get();
+      }
+    }
+
+    void reset() {
+      for (int i = 0; i < BUCKETS; i++) {
+        buckets.set(i, 0);
+      }
+      count.set(0);
+      totalNanos.set(0);
+      maxNanos.set(0);
+    }
+
+    /**
+     * Returns the number of recorded durations.
+     *
+     * @return the count.
+     */
+    public long getCount() {
+      return count.get();
+    }
+
+    /**
+     * Returns the sum of the recorded durations.
+     *
+     * @return the total in nanoseconds.
+     */
+    public long getTotalNanos() {
+      return totalNanos.get();
+    }
+
+    /**
+     * Returns the longest recorded duration.
+     *
+     * @return the maximum in nanoseconds.
+     */
+    public long getMaxNanos() {
+      return maxNanos.get();
+    }
+
+    /**
+     * Returns the mean of the recorded durations.
+     *
+     * @return the mean in nanoseconds or <code>NaN</code> if nothing has been recorded.
+     */
+    public double getMeanNanos() {
+      long n = count.get();
+      return (n == 0) ? Double.NaN : (double) totalNanos.get() / n;
+    }
+
+    /**
+     * Returns an upper bound of the specified percentile of the recorded durations.
+     *
+     * @param percentile
+     *          the percentile in the range <code>[0, 100]</code>.
+     * @return the exclusive upper limit of the bucket holding the percentile (capped by {@link #getMaxNanos()}), <code>0</code> if nothing has been
+     *         recorded.
+     * @throws IllegalArgumentException
+     *           if the percentile is out of range.
+     */
+    public long getPercentileNanos(double percentile) {
+      if (!(percentile >= 0 && percentile <= 100))
+        throw new IllegalArgumentException("Percentile must be in [0, 100]: " + percentile);
+      long total = 0;
+      long[] snapshot = new long[BUCKETS];
+      for (int i = 0; i < BUCKETS; i++) {
+        snapshot[i] = buckets.get(i);
+        total += snapshot[i];
+      }
+      if (total == 0)
+        return 0;
+      long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+      long seen = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        seen += snapshot[i];
+        if (seen >= rank)
+          return (i == 0) ? 0 : Math.min((i == BUCKETS - 1) ? Long.MAX_VALUE : 1L << i, getMaxNanos());
+      }
+      return getMaxNanos();
+    }
+  }
+}
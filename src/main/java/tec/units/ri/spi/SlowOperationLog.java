@@ -0,0 +1,250 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.spi;
+
+import static java.util.logging.Level.INFO;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Logger;
+
+import tec.units.ri.internal.SlowOperationEvent;
+
+/**
+ * A {@link MetricsListener} recording the operations slower than a per-operation threshold, so that latency spikes can be traced back to unit
+ * parsing, converter resolution or quantity formatting.
+ * <p>
+ * Each slow operation is logged at {@link java.util.logging.Level#INFO INFO} level by the <code>tec.units.ri.spi.SlowOperationLog</code> logger and
+ * kept in a bounded buffer of the most recent events (see {@link #getEvents()}). On Java SE 11 and later, it is also emitted as a JDK Flight
+ * Recorder event named <code>tec.units.ri.SlowOperation</code>. Operations below their threshold cost a single comparison. All callbacks are
+ * forwarded to an optional delegate, so that slow operations can be traced while a {@link MetricsRecorder} is collecting statistics. Thresholds
+ * can be changed while operations are recorded.
+ * </p>
+ * <p>
+ * When discovered through {@link DefaultServiceProvider} the default threshold (in nanoseconds) is read from the
+ * <code>tec.units.ri.slowOperationNanos</code> system property, {@link #DEFAULT_THRESHOLD_NANOS} if not set.
+ * </p>
+ *
+ * @version 0.1
+ */
+public class SlowOperationLog implements MetricsListener {
+
+  /** The default threshold: one millisecond. */
+  public static final long DEFAULT_THRESHOLD_NANOS = 1000000L;
+
+  /** The default number of events kept. */
+  public static final int DEFAULT_CAPACITY = 256;
+
+  private static final Logger LOGGER = Logger.getLogger(SlowOperationLog.class.getName());
+
+  private final MetricsListener delegate;
+  private final AtomicLongArray thresholdNanos = new AtomicLongArray(Operation.values().length);
+  private final Event[] events;
+  private int next;
+  private long recorded;
+
+  /**
+   * Creates a log using the default threshold of the <code>tec.units.ri.slowOperationNanos</code> system property and the default capacity.
+   */
+  public SlowOperationLog() {
+    this(null, Long.getLong("tec.units.ri.slowOperationNanos", DEFAULT_THRESHOLD_NANOS), DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates a log with the specified default threshold and capacity.
+   *
+   * @param delegate
+   *          the listener all callbacks are forwarded to or <code>null</code>.
+   * @param defaultThresholdNanos
+   *          the minimum duration of an operation to be recorded, in nanoseconds.
+   * @param capacity
+   *          the maximum number of events kept.
+   * @throws IllegalArgumentException
+   *           if the threshold is negative or the capacity is not positive.
+   */
+  public SlowOperationLog(MetricsListener delegate, long defaultThresholdNanos, int capacity) {
+    if (defaultThresholdNanos < 0)
+      throw new IllegalArgumentException("Threshold cannot be negative: " + defaultThresholdNanos);
+    if (capacity <= 0)
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    this.delegate = delegate;
+    this.events = new Event[capacity];
+    for (Operation operation : Operation.values()) {
+      setThreshold(operation, defaultThresholdNanos);
+    }
+  }
+
+  /**
+   * Sets the minimum duration of the specified operation to be recorded.
+   *
+   * @param operation
+   *          the operation.
+   * @param nanos
+   *          the threshold in nanoseconds, <code>Long.MAX_VALUE</code> to never record the operation.
+   * @throws IllegalArgumentException
+   *           if the threshold is negative.
+   */
+  public void setThreshold(Operation operation, long nanos) {
+    if (nanos < 0)
+      throw new IllegalArgumentException("Threshold cannot be negative: " + nanos);
+    thresholdNanos.set(operation.ordinal(), nanos);
+  }
+
+  /**
+   * Returns the minimum duration of the specified operation to be recorded.
+   *
+   * @param operation
+   *          the operation.
+   * @return the threshold in nanoseconds.
+   */
+  public long getThreshold(Operation operation) {
+    return thresholdNanos.get(operation.ordinal());
+  }
+
+  @Override
+  public void operationCompleted(Operation operation, long elapsedNanos) {
+    long threshold = thresholdNanos.get(operation.ordinal());
+    if (elapsedNanos >= threshold)
+      record(new Event(operation, elapsedNanos, threshold, System.currentTimeMillis(), Thread.currentThread().getName()));
+    if (delegate != null)
+      delegate.operationCompleted(operation, elapsedNanos);
+  }
+
+  @Override
+  public void cacheAccessed(String cache, boolean hit) {
+    if (delegate != null)
+      delegate.cacheAccessed(cache, hit);
+  }
+
+  /**
+   * Returns the most recent slow operations, oldest first.
+   *
+   * @return a snapshot of the events kept.
+   */
+  public List<Event> getEvents() {
+    synchronized (events) {
+      int size = (int) Math.min(recorded, events.length);
+      List<Event> result = new ArrayList<Event>(size);
+      int start = (next - size + events.length) % events.length;
+      for (int i = 0; i < size; i++) {
+        result.add(events[(start + i) % events.length]);
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Returns the number of slow operations recorded since creation or the last {@link #clear()}, including those no longer kept.
+   *
+   * @return the number of events recorded.
+   */
+  public long getEventCount() {
+    synchronized (events) {
+      return recorded;
+    }
+  }
+
+  /**
+   * Discards all events.
+   */
+  public void clear() {
+    synchronized (events) {
+      for (int i = 0; i < events.length; i++) {
+        events[i] = null;
+      }
+      next = 0;
+      recorded = 0;
+    }
+  }
+
+  private void record(Event event) {
+    synchronized (events) {
+      events[next] = event;
+      next = (next + 1) % events.length;
+      recorded++;
+    }
+    if (LOGGER.isLoggable(INFO))
+      LOGGER.log(INFO, event.toString());
+    SlowOperationEvent.emit(event.getOperation().name(), event.getElapsedNanos(), event.getThresholdNanos());
+  }
+
+  /**
+   * An operation which took longer than its threshold.
+   */
+  public static final class Event {
+
+    private final Operation operation;
+    private final long elapsedNanos;
+    private final long thresholdNanos;
+    private final long timeMillis;
+    private final String threadName;
+
+    Event(Operation operation, long elapsedNanos, long thresholdNanos, long timeMillis, String threadName) {
+      this.operation = operation;
+      this.elapsedNanos = elapsedNanos;
+      this.thresholdNanos = thresholdNanos;
+      this.timeMillis = timeMillis;
+      this.threadName = threadName;
+    }
+
+    public Operation getOperation() {
+      return operation;
+    }
+
+    public long getElapsedNanos() {
+      return elapsedNanos;
+    }
+
+    public long getThresholdNanos() {
+      return thresholdNanos;
+    }
+
+    /**
+     * Returns when the operation completed.
+     *
+     * @return the time in milliseconds since the epoch.
+     */
+    public long getTimeMillis() {
+      return timeMillis;
+    }
+
+    public String getThreadName() {
+      return threadName;
+    }
+
+    @Override
+    public String toString() {
+      return "Slow " + operation + ": " + elapsedNanos + " ns (threshold " + thresholdNanos + " ns) on thread " + threadName + " at "
+          + new Date(timeMillis);
+    }
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.stream;
+
+/**
+ * Interfaces of reactive stages exchanging items under demand control. They mirror the ones of <code>java.util.concurrent.Flow</code>, which is not
+ * available to this library, so that adapting them on Java SE 9+ is a matter of delegation.
+ *
+ * @version 0.1
+ */
+public final class Flow {
+
+  private Flow() {
+  }
+
+  /**
+   * A producer of items, mirrors <code>java.util.concurrent.Flow.Publisher</code>.
+   *
+   * @param <T>
+   *          the type of the items published.
+   */
+  public static interface Publisher<T> {
+
+    /**
+     * Adds the specified subscriber, which is then sent {@link Subscriber#onSubscribe(Subscription)}.
+     *
+     * @param subscriber
+     *          the subscriber.
+     */
+    void subscribe(Subscriber<? super T> subscriber);
+  }
+
+  /**
+   * A receiver of items, mirrors <code>java.util.concurrent.Flow.Subscriber</code>. Its methods are invoked serially: first
+   * {@link #onSubscribe(Subscription)}, then no more {@link #onNext(Object)} than requested, then at most one of {@link #onError(Throwable)} or
+   * {@link #onComplete()}.
+   *
+   * @param <T>
+   *          the type of the items received.
+   */
+  public static interface Subscriber<T> {
+
+    void onSubscribe(Subscription subscription);
+
+    void onNext(T item);
+
+    void onError(Throwable throwable);
+
+    void onComplete();
+  }
+
+  /**
+   * The link between a publisher and a subscriber, mirrors <code>java.util.concurrent.Flow.Subscription</code>.
+   */
+  public static interface Subscription {
+
+    /**
+     * Adds the specified number of items to the demand of the subscriber.
+     *
+     * @param n
+     *          the number of items, must be positive.
+     */
+    void request(long n);
+
+    /**
+     * Stops the delivery of items to the subscriber.
+     */
+    void cancel();
+  }
+
+  /**
+   * A stage both subscriber and publisher, mirrors <code>java.util.concurrent.Flow.Processor</code>.
+   *
+   * @param <T>
+   *          the type of the items received.
+   * @param <R>
+   *          the type of the items published.
+   */
+  public static interface Processor<T, R> extends Subscriber<T>, Publisher<R> {
+  }
+}
@@ -0,0 +1,204 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.stream;
+
+import java.util.Set;
+
+/**
+ * Interfaces of stream operations over quantities. They mirror the ones of <code>java.util.stream</code> and <code>java.util.function</code>,
+ * which are not available to this library, so that adapting them on Java SE 8+ is a matter of delegation, e.g.
+ * <code>java.util.stream.Collector.of(c::supply, c::accumulate, c::combine, c::finish, characteristics)</code>, the characteristics being mapped by
+ * name.
+ *
+ * @version 0.1
+ */
+public final class Streams {
+
+  private Streams() {
+  }
+
+  /**
+   * An operation accepting a primitive value, mirrors <code>java.util.function.DoubleConsumer</code>.
+   */
+  public static interface DoubleConsumer {
+
+    void accept(double value);
+  }
+
+  /**
+   * A mutable reduction, mirrors <code>java.util.stream.Collector</code>. Each worker accumulates into its own container, containers are then
+   * combined and the result extracted from the last one.
+   *
+   * @param <T>
+   *          the type of the items reduced.
+   * @param <A>
+   *          the type of the mutable accumulation container.
+   * @param <R>
+   *          the type of the result.
+   */
+  public static interface Collector<T, A, R> {
+
+    /**
+     * Returns a new, empty, container.
+     */
+    A supply();
+
+    /**
+     * Adds the specified item to the specified container.
+     */
+    void accumulate(A container, T item);
+
+    /**
+     * Combines two containers, returns the result (which may be one of them).
+     */
+    A combine(A left, A right);
+
+    /**
+     * Returns the result of the reduction.
+     */
+    R finish(A container);
+
+    /**
+     * Returns the characteristics of this collector, an immutable set.
+     */
+    Set<Characteristics> characteristics();
+
+    /**
+     * The properties of a collector which reductions may take advantage of, mirrors <code>java.util.stream.Collector.Characteristics</code>.
+     */
+    public static enum Characteristics {
+
+      /**
+       * The same container may be accumulated into concurrently.
+       */
+      CONCURRENT,
+
+      /**
+       * The result does not depend on the order of the items.
+       */
+      UNORDERED,
+
+      /**
+       * The {@link Collector#finish(Object) finish} operation returns the container itself and may be skipped.
+       */
+      IDENTITY_FINISH
+    }
+  }
+
+  /**
+   * A traversal of primitive values which can be split for parallel processing, mirrors <code>java.util.Spliterator.OfDouble</code>.
+   */
+  public static interface DoubleSpliterator {
+
+    /**
+     * The values have a defined encounter order.
+     */
+    int ORDERED = 0x00000010;
+
+    /**
+     * No two values are equal.
+     */
+    int DISTINCT = 0x00000001;
+
+    /**
+     * The values are traversed in sorted order.
+     */
+    int SORTED = 0x00000004;
+
+    /**
+     * The {@link #estimateSize() estimated size} is the exact number of values remaining.
+     */
+    int SIZED = 0x00000040;
+
+    /**
+     * No value is <code>null</code>.
+     */
+    int NONNULL = 0x00000100;
+
+    /**
+     * The values cannot be modified during the traversal.
+     */
+    int IMMUTABLE = 0x00000400;
+
+    /**
+     * The values may be modified concurrently without external synchronization.
+     */
+    int CONCURRENT = 0x00001000;
+
+    /**
+     * The spliterators resulting from {@link #trySplit()} are {@link #SIZED} and <code>SUBSIZED</code>.
+     */
+    int SUBSIZED = 0x00004000;
+
+    /**
+     * Sends the next value to the specified consumer, returns <code>false</code> if no value remains.
+     */
+    boolean tryAdvance(DoubleConsumer action);
+
+    /**
+     * Sends all the remaining values to the specified consumer.
+     */
+    void forEachRemaining(DoubleConsumer action);
+
+    /**
+     * Returns a spliterator covering a prefix of the remaining values, which this spliterator no longer covers, or <code>null</code> if this
+     * spliterator cannot be split.
+     */
+    DoubleSpliterator trySplit();
+
+    /**
+     * Returns the number of values remaining.
+     */
+    long estimateSize();
+
+    /**
+     * Returns the characteristics of this spliterator, an OR of the constants above with the same values as in
+     * <code>java.util.Spliterator</code>.
+     */
+    int characteristics();
+  }
+
+  /**
+   * Reduces the specified items sequentially.
+   *
+   * @param items
+   *          the items to reduce.
+   * @param collector
+   *          the reduction.
+   * @return the result of the reduction.
+   */
+  public static <T, A, R> R collect(Iterable<? extends T> items, Collector<? super T, A, R> collector) {
+    A container = collector.supply();
+    for (T item : items) {
+      collector.accumulate(container, item);
+    }
+    return collector.finish(container);
+  }
+}
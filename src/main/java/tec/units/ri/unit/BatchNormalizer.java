@@ -0,0 +1,313 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.unit;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.measure.IncommensurableException;
+import javax.measure.Quantity;
+import javax.measure.UnconvertibleException;
+import javax.measure.Unit;
+import javax.measure.UnitConverter;
+
+import tec.units.ri.function.CompiledConverter;
+import tec.units.ri.internal.BulkAffine;
+
+/**
+ * <p>
+ * This class converts batches of values stated in mixed units (one unit per record) into a single target unit.
+ * </p>
+ * 
+ * <p>
+ * The records of a batch are first grouped by distinct source unit; the converter of each source unit to the target unit is resolved once (and
+ * cached across batches for the {@link #MAX_CONVERSIONS} most recently seen source units, so that units built per record cannot grow the
+ * normalizer without limit) before any value is written, then each group is converted in bulk. Affine conversions, the common case, are reduced to a
+ * scale and an offset, so that the cost of a batch is dominated by one multiply-add per record. For example:<br>
+ * <code>
+ *     BatchNormalizer&lt;Temperature&gt; normalizer = new BatchNormalizer&lt;Temperature&gt;(KELVIN);<br>
+ *     normalizer.normalize(values, units, kelvins); // units[i] is CELSIUS, KELVIN, ...
+ * </code>
+ * </p>
+ * 
+ * <p>
+ * Units may also be identified by their {@link UnitDictionary} identifiers. Instances are thread-safe.
+ * </p>
+ *
+ * @param <Q>
+ *          The type of the quantities normalized.
+ * @version 0.1
+ */
+public final class BatchNormalizer<Q extends Quantity<Q>> {
+
+  /**
+   * The number of source units whose conversion is cached across batches.
+   */
+  public static final int MAX_CONVERSIONS = 32;
+
+  private final Unit<Q> target;
+  private final UnitDictionary dictionary;
+
+  // Guarded by itself; accessed once per distinct unit of a batch, not per record.
+  private final Map<Unit<?>, Conversion> conversions = new LinkedHashMap<Unit<?>, Conversion>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Unit<?>, Conversion> eldest) {
+      return size() > MAX_CONVERSIONS;
+    }
+  };
+
+  /**
+   * Creates a normalizer to the specified unit, using the default {@link UnitDictionary} for unit identifiers.
+   *
+   * @param target
+   *          the unit values are converted to.
+   */
+  public BatchNormalizer(Unit<Q> target) {
+    this(target, UnitDictionary.getInstance());
+  }
+
+  /**
+   * Creates a normalizer to the specified unit.
+   *
+   * @param target
+   *          the unit values are converted to.
+   * @param dictionary
+   *          the dictionary resolving unit identifiers.
+   */
+  public BatchNormalizer(Unit<Q> target, UnitDictionary dictionary) {
+    if (target == null)
+      throw new NullPointerException("Target unit cannot be null");
+    this.target = target;
+    this.dictionary = dictionary;
+  }
+
+  /**
+   * Returns the unit values are converted to.
+   *
+   * @return the target unit.
+   */
+  public Unit<Q> getTarget() {
+    return target;
+  }
+
+  /**
+   * Converts the specified values to the target unit.
+   *
+   * @param values
+   *          the values to convert.
+   * @param units
+   *          the unit of each value.
+   * @param dest
+   *          the array receiving the converted values (can be <code>values</code>).
+   * @return the number of distinct source units in the batch.
+   * @throws IllegalArgumentException
+   *           if the arrays have different lengths.
+   * @throws UnconvertibleException
+   *           if a unit is not compatible with the target unit, in which case <code>dest</code> is not modified.
+   */
+  public int normalize(double[] values, Unit<?>[] units, double[] dest) {
+    checkLengths(values.length, units.length, dest.length);
+    final int n = values.length;
+    int[] groups = new int[n];
+    Conversion[] byGroup = new Conversion[Math.min(n, 8)];
+    Map<Unit<?>, Integer> groupOf = new HashMap<Unit<?>, Integer>();
+    int groupCount = 0;
+    Unit<?> lastUnit = null;
+    int lastGroup = -1;
+    for (int i = 0; i < n; i++) {
+      Unit<?> unit = units[i];
+      if (unit != lastUnit) { // Consecutive records usually share their unit.
+        if (unit == null)
+          throw new NullPointerException("Unit of record " + i + " is null");
+        Integer group = groupOf.get(unit);
+        if (group == null) {
+          if (groupCount == byGroup.length)
+            byGroup = copyOf(byGroup, groupCount * 2);
+          byGroup[groupCount] = conversionFrom(unit);
+          group = groupCount++;
+          groupOf.put(unit, group);
+        }
+        lastUnit = unit;
+        lastGroup = group;
+      }
+      groups[i] = lastGroup;
+    }
+    convert(values, groups, byGroup, groupCount, dest);
+    return groupCount;
+  }
+
+  /**
+   * Converts the specified values to the target unit.
+   *
+   * @param values
+   *          the values to convert.
+   * @param unitIds
+   *          the {@link UnitDictionary} identifier of the unit of each value.
+   * @param dest
+   *          the array receiving the converted values (can be <code>values</code>).
+   * @return the number of distinct source units in the batch.
+   * @throws IllegalArgumentException
+   *           if the arrays have different lengths.
+   * @throws IndexOutOfBoundsException
+   *           if an identifier is not in the dictionary, in which case <code>dest</code> is not modified.
+   * @throws UnconvertibleException
+   *           if a unit is not compatible with the target unit, in which case <code>dest</code> is not modified.
+   */
+  public int normalize(double[] values, int[] unitIds, double[] dest) {
+    checkLengths(values.length, unitIds.length, dest.length);
+    final int n = values.length;
+    int[] groups = new int[n];
+    int[] groupOfId = new int[dictionary.size()];
+    Conversion[] byGroup = new Conversion[Math.min(n, 8)];
+    int groupCount = 0;
+    for (int i = 0; i < n; i++) {
+      int id = unitIds[i];
+      if (id < 0 || id >= groupOfId.length) { // Possibly registered since the batch started.
+        dictionary.getUnit(id); // Throws IndexOutOfBoundsException if unknown.
+        groupOfId = copyOf(groupOfId, Math.max(id + 1, dictionary.size()));
+      }
+      int group = groupOfId[id] - 1; // Slots hold group + 1.
+      if (group < 0) {
+        if (groupCount == byGroup.length)
+          byGroup = copyOf(byGroup, groupCount * 2);
+        byGroup[groupCount] = conversionFrom(dictionary.getUnit(id));
+        group = groupCount++;
+        groupOfId[id] = group + 1;
+      }
+      groups[i] = group;
+    }
+    convert(values, groups, byGroup, groupCount, dest);
+    return groupCount;
+  }
+
+  // Converts each group in turn, visiting its records through a counting sort of the record indexes.
+  private static void convert(double[] values, int[] groups, Conversion[] byGroup, int groupCount, double[] dest) {
+    final int n = values.length;
+    if (groupCount == 1) {
+      byGroup[0].convert(values, dest);
+      return;
+    }
+    int[] start = new int[groupCount + 1];
+    for (int i = 0; i < n; i++) {
+      start[groups[i] + 1]++;
+    }
+    for (int g = 0; g < groupCount; g++) {
+      start[g + 1] += start[g];
+    }
+    int[] next = new int[groupCount];
+    System.arraycopy(start, 0, next, 0, groupCount);
+    int[] indexes = new int[n];
+    for (int i = 0; i < n; i++) {
+      indexes[next[groups[i]]++] = i;
+    }
+    for (int g = 0; g < groupCount; g++) {
+      byGroup[g].convert(values, indexes, start[g], start[g + 1], dest);
+    }
+  }
+
+  private Conversion conversionFrom(Unit<?> unit) {
+    Conversion conversion;
+    synchronized (conversions) {
+      conversion = conversions.get(unit);
+    }
+    if (conversion == null) {
+      try {
+        conversion = new Conversion(unit.getConverterToAny(target)); // Outside the lock, may be computed twice.
+      } catch (IncommensurableException e) {
+        throw new UnconvertibleException(e);
+      }
+      synchronized (conversions) {
+        conversions.put(unit, conversion);
+      }
+    }
+    return conversion;
+  }
+
+  private static void checkLengths(int values, int units, int dest) {
+    if (units != values || dest < values)
+      throw new IllegalArgumentException("Arrays lengths differ: " + values + " values, " + units + " units, " + dest + " destinations");
+  }
+
+  private static Conversion[] copyOf(Conversion[] array, int length) {
+    Conversion[] copy = new Conversion[length];
+    System.arraycopy(array, 0, copy, 0, array.length);
+    return copy;
+  }
+
+  private static int[] copyOf(int[] array, int length) {
+    int[] copy = new int[length];
+    System.arraycopy(array, 0, copy, 0, array.length);
+    return copy;
+  }
+
+  /**
+   * The conversion of a source unit: a scale and an offset when affine, the converter otherwise.
+   */
+  private static final class Conversion {
+    private final UnitConverter converter; // null if affine.
+    private final double scale;
+    private final double offset;
+
+    Conversion(UnitConverter converter) {
+      CompiledConverter compiled = CompiledConverter.compile(converter);
+      boolean affine = compiled.isAffine();
+      this.converter = affine ? null : converter;
+      this.scale = affine ? compiled.getScale() : 1;
+      this.offset = affine ? compiled.getOffset() : 0;
+    }
+
+    void convert(double[] values, double[] dest) {
+      if (converter != null) {
+        for (int i = 0; i < values.length; i++) {
+          dest[i] = converter.convert(values[i]);
+        }
+      } else {
+        BulkAffine.apply(values, 0, dest, 0, values.length, scale, offset);
+      }
+    }
+
+    void convert(double[] values, int[] indexes, int from, int to, double[] dest) {
+      if (converter != null) {
+        for (int k = from; k < to; k++) {
+          int i = indexes[k];
+          dest[i] = converter.convert(values[i]);
+        }
+      } else {
+        final double a = scale;
+        final double b = offset;
+        for (int k = from; k < to; k++) {
+          int i = indexes[k];
+          dest[i] = values[i] * a + b;
+        }
+      }
+    }
+  }
+}
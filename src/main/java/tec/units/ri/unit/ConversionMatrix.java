@@ -0,0 +1,270 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.unit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.measure.Dimension;
+import javax.measure.IncommensurableException;
+import javax.measure.Unit;
+import javax.measure.spi.SystemOfUnits;
+
+import tec.units.ri.function.CompiledConverter;
+
+/**
+ * <p>
+ * This class holds the conversions between every pair of units of a dimension, precomputed as <code>a·x + b</code> factors in primitive arrays
+ * indexed by the identifier of each unit in the matrix, so that a conversion involves no converter or unit object at all.
+ * </p>
+ *
+ * <code>
+ *     ConversionMatrix power = ConversionMatrix.of(Arrays.asList(WATT, KILO(WATT), MEGA(WATT)));
+ *     int kW = power.getId(KILO(WATT));
+ *     int MW = power.getId(MEGA(WATT));
+ *     double value = power.convert(kW, MW, 12300); // 12.3
+ * </code>
+ *
+ * <p>
+ * Only units whose conversion is affine (e.g. not logarithmic) are held. The identifiers are private to the matrix (the index of each unit in
+ * {@link #getUnits()}); building a matrix does not register any unit in {@link UnitDictionary}. A matrix built from a {@link SystemOfUnits}
+ * only holds the units of that system, not their prefixed variants; {@link #getId(Unit)} returns {@link #UNKNOWN} for the units not held, which
+ * conversions reject.
+ * </p>
+ *
+ * @version 0.1
+ */
+public final class ConversionMatrix {
+
+  /**
+   * Identifier returned for units not in the matrix.
+   */
+  public static final int UNKNOWN = -1;
+
+  /**
+   * Holds the units of the matrix, by identifier.
+   */
+  private final Unit<?>[] units;
+
+  /**
+   * Holds the identifier of each unit (never modified).
+   */
+  private final Map<Unit<?>, Integer> ids;
+
+  /**
+   * Holds the scale factor from the unit of each row to the unit of each column.
+   */
+  private final double[] scales;
+
+  /**
+   * Holds the offset from the unit of each row to the unit of each column.
+   */
+  private final double[] offsets;
+
+  private ConversionMatrix(Unit<?>[] units, Map<Unit<?>, Integer> ids, double[] scales, double[] offsets) {
+    this.units = units;
+    this.ids = ids;
+    this.scales = scales;
+    this.offsets = offsets;
+  }
+
+  /**
+   * Returns the matrix of the units of the specified system having the specified dimension.
+   *
+   * @param system
+   *          the system of units.
+   * @param dimension
+   *          the dimension.
+   * @return the corresponding conversion matrix.
+   */
+  public static ConversionMatrix of(SystemOfUnits system, Dimension dimension) {
+    return of(system.getUnits(dimension));
+  }
+
+  /**
+   * Returns the matrix of the specified units, identified in the matrix by their order (units appearing twice or not affine being skipped).
+   *
+   * @param units
+   *          units of the same dimension.
+   * @return the corresponding conversion matrix.
+   * @throws IllegalArgumentException
+   *           if the units are not all commensurable.
+   */
+  public static ConversionMatrix of(Collection<? extends Unit<?>> units) {
+    Map<Unit<?>, Integer> ids = new HashMap<Unit<?>, Integer>(units.size() * 2);
+    List<Unit<?>> held = new ArrayList<Unit<?>>(units.size());
+    List<CompiledConverter> affines = new ArrayList<CompiledConverter>(units.size());
+    Unit<?> reference = null;
+    for (Unit<?> unit : units) {
+      if (reference == null)
+        reference = unit.getSystemUnit();
+      CompiledConverter toReference;
+      try {
+        toReference = CompiledConverter.compile(unit.getConverterToAny(reference));
+      } catch (IncommensurableException e) {
+        throw new IllegalArgumentException(e.getMessage());
+      }
+      if (!toReference.isAffine() || ids.containsKey(unit))
+        continue;
+      ids.put(unit, Integer.valueOf(held.size()));
+      affines.add(toReference);
+      held.add(unit);
+    }
+    int n = held.size();
+    double[] scales = new double[n * n];
+    double[] offsets = new double[n * n];
+    for (int i = 0; i < n; i++) {
+      CompiledConverter from = affines.get(i);
+      for (int j = 0; j < n; j++) {
+        CompiledConverter to = affines.get(j);
+        // x_ref = a_i·x + b_i = a_j·y + b_j
+        scales[i * n + j] = (i == j) ? 1 : from.getScale() / to.getScale();
+        offsets[i * n + j] = (i == j) ? 0 : (from.getOffset() - to.getOffset()) / to.getScale();
+      }
+    }
+    return new ConversionMatrix(held.toArray(new Unit<?>[n]), ids, scales, offsets);
+  }
+
+  /**
+   * Returns the identifier of the specified unit in this matrix.
+   *
+   * @param unit
+   *          the unit.
+   * @return the identifier of the unit or {@link #UNKNOWN} if the unit is not in this matrix.
+   */
+  public int getId(Unit<?> unit) {
+    Integer id = ids.get(unit);
+    return (id == null) ? UNKNOWN : id.intValue();
+  }
+
+  /**
+   * Indicates if the unit having the specified identifier is in this matrix.
+   *
+   * @param id
+   *          the unit identifier.
+   * @return <code>true</code> if conversions from and to that unit are held; <code>false</code> otherwise.
+   */
+  public boolean contains(int id) {
+    return id >= 0 && id < units.length;
+  }
+
+  /**
+   * Returns the units of this matrix, the index of each unit being its identifier.
+   *
+   * @return the units held.
+   */
+  public List<Unit<?>> getUnits() {
+    List<Unit<?>> list = new ArrayList<Unit<?>>(units.length);
+    for (Unit<?> unit : units) {
+      list.add(unit);
+    }
+    return list;
+  }
+
+  /**
+   * Converts the specified value between the units having the specified identifiers.
+   *
+   * @param fromId
+   *          the identifier of the unit the value is stated in.
+   * @param toId
+   *          the identifier of the unit to convert to.
+   * @param value
+   *          the value to convert.
+   * @return the converted value.
+   * @throws IllegalArgumentException
+   *           if one of the units is not in this matrix.
+   */
+  public double convert(int fromId, int toId, double value) {
+    int k = indexOf(fromId, toId);
+    return value * scales[k] + offsets[k];
+  }
+
+  /**
+   * Converts the specified values between the units having the specified identifiers.
+   *
+   * @param fromId
+   *          the identifier of the unit the values are stated in.
+   * @param toId
+   *          the identifier of the unit to convert to.
+   * @param values
+   *          the values to convert.
+   * @param dest
+   *          the array receiving the converted values (can be <code>values</code>).
+   * @throws IllegalArgumentException
+   *           if one of the units is not in this matrix.
+   */
+  public void convert(int fromId, int toId, double[] values, double[] dest) {
+    int k = indexOf(fromId, toId);
+    final double a = scales[k];
+    final double b = offsets[k];
+    for (int i = 0; i < values.length; i++) {
+      dest[i] = values[i] * a + b;
+    }
+  }
+
+  /**
+   * Returns the scale factor from the first unit to the second one.
+   *
+   * @param fromId
+   *          the identifier of the source unit.
+   * @param toId
+   *          the identifier of the target unit.
+   * @return the factor <code>a</code> of the conversion <code>a·x + b</code>.
+   */
+  public double getScale(int fromId, int toId) {
+    return scales[indexOf(fromId, toId)];
+  }
+
+  /**
+   * Returns the offset from the first unit to the second one.
+   *
+   * @param fromId
+   *          the identifier of the source unit.
+   * @param toId
+   *          the identifier of the target unit.
+   * @return the offset <code>b</code> of the conversion <code>a·x + b</code>.
+   */
+  public double getOffset(int fromId, int toId) {
+    return offsets[indexOf(fromId, toId)];
+  }
+
+  private int indexOf(int fromId, int toId) {
+    if ((fromId == UNKNOWN) || (toId == UNKNOWN))
+      throw new IllegalArgumentException("Unknown unit identifier (a unit not in the matrix)");
+    if (!contains(fromId))
+      throw new IllegalArgumentException("Unit " + fromId + " is not in the matrix");
+    if (!contains(toId))
+      throw new IllegalArgumentException("Unit " + toId + " is not in the matrix");
+    return fromId * units.length + toId;
+  }
+}
@@ -29,13 +29,14 @@
  */
 package tec.units.ri.unit;
 
-import static tec.units.ri.internal.MathUtil.pow;
-
 import javax.measure.Quantity;
 import javax.measure.Unit;
 import javax.measure.UnitConverter;
 
 import tec.units.ri.function.RationalConverter;
+import tec.units.ri.internal.Cache;
+import tec.units.ri.internal.MathProvider;
+import tec.units.ri.spi.Metrics;
 import tec.uom.lib.common.function.SymbolSupplier;
 import tec.uom.lib.common.function.UnitConverterSupplier;
 
@@ -89,6 +90,12 @@ public enum MetricPrefix implements SymbolSupplier, UnitConverterSupplier {
    */
   private final UnitConverter converter;
 
+  /**
+   * Holds the units of {@link Units} already prefixed with this prefix (base unit to prefixed unit). Only system units are cached, so that the
+   * cache is bounded and does not retain application units.
+   */
+  private final Cache<Unit<?>, Unit<?>> prefixedUnits = new Cache<Unit<?>, Unit<?>>();
+
   /**
    * Creates a new prefix.
    *
@@ -122,6 +129,84 @@ public enum MetricPrefix implements SymbolSupplier, UnitConverterSupplier {
     return converter;
   }
 
+  private static double pow(double a, double b) {
+    return MathProvider.getInstance().pow(a, b);
+  }
+
+  /**
+   * Returns the specified unit with this prefix applied. For the units of {@link Units}, the same instance is returned for equal base units, so
+   * that caches keyed on unit identity are hit when a prefixed unit is built repeatedly; other units are prefixed anew on each call.
+   *
+   * @param <Q>
+   *          The type of the quantity measured by the unit.
+   * @param unit
+   *          any unit.
+   * @return <code>unit.transform(this.getConverter())</code>.
+   */
+  @SuppressWarnings("unchecked")
+  public <Q extends Quantity<Q>> Unit<Q> prefix(Unit<Q> unit) {
+    if (!Units.isRegistered(unit))
+      return unit.transform(converter);
+    Unit<?> prefixed = prefixedUnits.get(unit);
+    Metrics.cacheAccessed(Metrics.PREFIXED_UNITS, prefixed != null);
+    if (prefixed == null) { // Units built concurrently are equal, the first one cached is returned.
+      prefixed = unit.transform(converter);
+      Lookup.register(prefixed, this, unit);
+      prefixed = prefixedUnits.putIfAbsent(unit, prefixed);
+    }
+    return (Unit<Q>) prefixed;
+  }
+
+  /**
+   * Returns the prefix the specified unit was built with by one of the prefix methods of this class, from a unit of {@link Units}.
+   *
+   * @param unit
+   *          the prefixed unit.
+   * @return the prefix of the unit or <code>null</code> if the unit has not been built from a prefix.
+   */
+  public static MetricPrefix prefixOf(Unit<?> unit) {
+    Lookup entry = Lookup.get(unit);
+    return (entry == null) ? null : entry.prefix;
+  }
+
+  /**
+   * Returns the unit the specified unit was prefixed from by one of the prefix methods of this class, from a unit of {@link Units}.
+   *
+   * @param <Q>
+   *          The type of the quantity measured by the unit.
+   * @param unit
+   *          the prefixed unit.
+   * @return the unit without its prefix or <code>null</code> if the unit has not been built from a prefix.
+   */
+  @SuppressWarnings("unchecked")
+  public static <Q extends Quantity<Q>> Unit<Q> baseOf(Unit<Q> unit) {
+    Lookup entry = Lookup.get(unit);
+    return (entry == null) ? null : (Unit<Q>) entry.base;
+  }
+
+  /**
+   * Reverse lookup from a prefixed unit to its (prefix, base unit) pair. The first pair registered for a unit is kept.
+   */
+  private static final class Lookup {
+    private static final Cache<Unit<?>, Lookup> BY_UNIT = new Cache<Unit<?>, Lookup>();
+
+    private final MetricPrefix prefix;
+    private final Unit<?> base;
+
+    private Lookup(MetricPrefix prefix, Unit<?> base) {
+      this.prefix = prefix;
+      this.base = base;
+    }
+
+    private static void register(Unit<?> prefixed, MetricPrefix prefix, Unit<?> base) {
+      BY_UNIT.putIfAbsent(prefixed, new Lookup(prefix, base));
+    }
+
+    private static Lookup get(Unit<?> unit) {
+      return BY_UNIT.get(unit);
+    }
+  }
+
   /**
    * Returns the specified unit multiplied by the factor <code>10<sup>24</sup></code>
    *
@@ -132,7 +217,7 @@ public enum MetricPrefix implements SymbolSupplier, UnitConverterSupplier {
    * @return <code>unit.times(1e24)</code>.
    */
   public static final <Q extends Quantity<Q>> Unit<Q> YOTTA(Unit<Q> unit) {
-    return unit.transform(YOTTA.getConverter());
+    return YOTTA.prefix(unit);
   }
 
   /**
@@ -145,7 +230,7 @@ public enum MetricPrefix implements SymbolSupplier, UnitConverterSupplier {
    * @return <code>unit.times(1e21)</code>.
    */
   public static final <Q extends Quantity<Q>> Unit<Q> ZETTA(Unit<Q> unit) {
-    return unit.transform(ZETTA.getConverter());
+    return ZETTA.prefix(unit);
   }
 
   /**
@@ -158,7 +243,7 @@ public enum MetricPrefix implements SymbolSupplier, UnitConverterSupplier {
    * @return <code>unit.times(1e18)</code>.
    */
   public static final <Q extends Quantity<Q>> Unit<Q> EXA(Unit<Q> unit) {
-    return unit.transform(EXA.getConverter());
+    return EXA.prefix(unit);
   }
 
   /**
@@ -171,7 +256,7 @@ public enum MetricPrefix implements SymbolSupplier, UnitConverterSupplier {
    * @return <code>unit.times(1e15)</code>.
    */
   public static final <Q extends Quantity<Q>> Unit<Q> PETA(Unit<Q> unit) {
-    return unit.transform(PETA.getConverter());
+    return PETA.prefix(unit);
   }
 
   /**
@@ -184,7 +269,7 @@ public enum MetricPrefix implements SymbolSupplier, UnitConverterSupplier {
    * @return <code>unit.times(1e12)</code>.
    */
   public static final <Q extends Quantity<Q>> Unit<Q> TERA(Unit<Q> unit) {
-    return unit.transform(TERA.getConverter());
+    return TERA.prefix(unit);
   }
 
   /**
@@ -197,7 +282,7 @@ public enum MetricPrefix implements SymbolSupplier, UnitConverterSupplier {
    * @return <code>unit.times(1e9)</code>.
    */
   public static <Q extends Quantity<Q>> Unit<Q> GIGA(Unit<Q> unit) {
-    return unit.transform(GIGA.getConverter());
+    return GIGA.prefix(unit);
   }
 
   /**
@@ -210,7 +295,7 @@ public enum MetricPrefix implements SymbolSupplier, UnitConverterSupplier {
    * @return <code>unit.multiply(1e6)</code>.
    */
   public static final <Q extends Quantity<Q>> Unit<Q> MEGA(Unit<Q> unit) {
-    return unit.transform(MEGA.getConverter());
+    return MEGA.prefix(unit);
   }
 
   /**
@@ -223,7 +308,7 @@ public enum MetricPrefix implements SymbolSupplier, UnitConverterSupplier {
    * @return <code>unit.multiply(1e3)</code>.
    */
   public static final <Q extends Quantity<Q>> Unit<Q> KILO(Unit<Q> unit) {
-    return unit.transform(KILO.getConverter());
+    return KILO.prefix(unit);
   }
 
   /**
@@ -236,7 +321,7 @@ public enum MetricPrefix implements SymbolSupplier, UnitConverterSupplier {
    * @return <code>unit.multiply(1e2)</code>.
    */
   public static final <Q extends Quantity<Q>> Unit<Q> HECTO(Unit<Q> unit) {
-    return unit.transform(HECTO.getConverter());
+    return HECTO.prefix(unit);
   }
 
   /**
@@ -249,7 +334,7 @@ public enum MetricPrefix implements SymbolSupplier, UnitConverterSupplier {
    * @return <code>unit.multiply(1e1)</code>.
    */
   public static final <Q extends Quantity<Q>> Unit<Q> DEKA(Unit<Q> unit) {
-    return unit.transform(DEKA.getConverter());
+    return DEKA.prefix(unit);
   }
 
   /**
@@ -262,7 +347,7 @@ public enum MetricPrefix implements SymbolSupplier, UnitConverterSupplier {
    * @return <code>unit.times(1e-1)</code>.
    */
   public static final <Q extends Quantity<Q>> Unit<Q> DECI(Unit<Q> unit) {
-    return unit.transform(DECI.getConverter());
+    return DECI.prefix(unit);
   }
 
   /**
@@ -275,7 +360,7 @@ public enum MetricPrefix implements SymbolSupplier, UnitConverterSupplier {
    * @return <code>unit.multiply(1e-2)</code>.
    */
   public static <Q extends Quantity<Q>> Unit<Q> CENTI(Unit<Q> unit) {
-    return unit.transform(CENTI.getConverter());
+    return CENTI.prefix(unit);
   }
 
   /**
@@ -288,7 +373,7 @@ public enum MetricPrefix implements SymbolSupplier, UnitConverterSupplier {
    * @return <code>unit.times(1e-3)</code>.
    */
   public static final <Q extends Quantity<Q>> Unit<Q> MILLI(Unit<Q> unit) {
-    return unit.transform(MILLI.getConverter());
+    return MILLI.prefix(unit);
   }
 
   /**
@@ -301,7 +386,7 @@ public enum MetricPrefix implements SymbolSupplier, UnitConverterSupplier {
    * @return <code>unit.times(1e-6)</code>.
    */
   public static final <Q extends Quantity<Q>> Unit<Q> MICRO(Unit<Q> unit) {
-    return unit.transform(MICRO.getConverter());
+    return MICRO.prefix(unit);
   }
 
   /**
@@ -314,7 +399,7 @@ public enum MetricPrefix implements SymbolSupplier, UnitConverterSupplier {
    * @return <code>unit.times(1e-9)</code>.
    */
   public static final <Q extends Quantity<Q>> Unit<Q> NANO(Unit<Q> unit) {
-    return unit.transform(NANO.getConverter());
+    return NANO.prefix(unit);
   }
 
   /**
@@ -327,7 +412,7 @@ public enum MetricPrefix implements SymbolSupplier, UnitConverterSupplier {
    * @return <code>unit.times(1e-12)</code>.
    */
   public static final <Q extends Quantity<Q>> Unit<Q> PICO(Unit<Q> unit) {
-    return unit.transform(PICO.getConverter());
+    return PICO.prefix(unit);
   }
 
   /**
@@ -340,7 +425,7 @@ public enum MetricPrefix implements SymbolSupplier, UnitConverterSupplier {
    * @return <code>unit.times(1e-15)</code>.
    */
   public static final <Q extends Quantity<Q>> Unit<Q> FEMTO(Unit<Q> unit) {
-    return unit.transform(FEMTO.getConverter());
+    return FEMTO.prefix(unit);
   }
 
   /**
@@ -353,7 +438,7 @@ public enum MetricPrefix implements SymbolSupplier, UnitConverterSupplier {
    * @return <code>unit.times(1e-18)</code>.
    */
   public static final <Q extends Quantity<Q>> Unit<Q> ATTO(Unit<Q> unit) {
-    return unit.transform(ATTO.getConverter());
+    return ATTO.prefix(unit);
   }
 
   /**
@@ -366,7 +451,7 @@ public enum MetricPrefix implements SymbolSupplier, UnitConverterSupplier {
    * @return <code>unit.times(1e-21)</code>.
    */
   public static final <Q extends Quantity<Q>> Unit<Q> ZEPTO(Unit<Q> unit) {
-    return unit.transform(ZEPTO.getConverter());
+    return ZEPTO.prefix(unit);
   }
 
   /**
@@ -379,6 +464,6 @@ public enum MetricPrefix implements SymbolSupplier, UnitConverterSupplier {
    * @return <code>unit.times(1e-24)</code>.
    */
   public static final <Q extends Quantity<Q>> Unit<Q> YOCTO(Unit<Q> unit) {
-    return unit.transform(YOCTO.getConverter());
+    return YOCTO.prefix(unit);
   }
 }
@@ -40,6 +40,7 @@ import javax.measure.UnitConverter;
 import tec.units.ri.AbstractConverter;
 import tec.units.ri.AbstractUnit;
 import tec.units.ri.quantity.QuantityDimension;
+import tec.units.ri.spi.Metrics;
 import tec.uom.lib.common.function.UnitSupplier;
 
 /**
@@ -81,6 +82,21 @@ public final class ProductUnit<Q extends Quantity<Q>> extends AbstractUnit<Q> {
    */
   private final String symbol;
 
+  /**
+   * Holds the system unit, computed on first use (optimization).
+   */
+  private transient volatile AbstractUnit<Q> systemUnit;
+
+  /**
+   * Holds the system converter, computed on first use (optimization).
+   */
+  private transient volatile UnitConverter systemConverter;
+
+  /**
+   * Holds the dimension, computed on first use (optimization).
+   */
+  private transient volatile Dimension dimension;
+
   /**
    * Default constructor (used solely to create <code>ONE</code> instance).
    */
@@ -171,45 +187,56 @@ public final class ProductUnit<Q extends Quantity<Q>> extends AbstractUnit<Q> {
    * @param unit
    *          the unit.
    * @param n
-   *          the root's order (n &gt; 0).
+   *          the root's order (n != 0, negative for the inverse).
    * @return <code>unit^(1/nn)</code>
    * @throws ArithmeticException
    *           if <code>n == 0</code>.
    */
   public static Unit<?> getRootInstance(AbstractUnit<?> unit, int n) {
-    Element[] unitElems;
-    if (unit instanceof ProductUnit<?>) {
-      Element[] elems = ((ProductUnit<?>) unit).elements;
-      unitElems = new Element[elems.length];
-      for (int i = 0; i < elems.length; i++) {
-        int gcd = gcd(Math.abs(elems[i].pow), elems[i].root * n);
-        unitElems[i] = new Element(elems[i].unit, elems[i].pow / gcd, elems[i].root * n / gcd);
-      }
-    } else
-      unitElems = new Element[] { new Element(unit, 1, n) };
-    return getInstance(unitElems, new Element[0]);
+    if (n == 0)
+      throw new ArithmeticException("Root's order of zero");
+    return (n > 0) ? getScaledInstance(unit, 1, n) : getScaledInstance(unit, -1, -n);
   }
 
   /**
-   * Returns the product unit corresponding to this unit raised to the specified exponent.
+   * Returns the specified unit raised to the specified power.
    *
    * @param unit
    *          the unit.
-   * @param nn
-   *          the exponent (nn &gt; 0).
+   * @param n
+   *          the power.
    * @return <code>unit^n</code>
    */
-  static Unit<?> getPowInstance(AbstractUnit<?> unit, int n) {
+  public static Unit<?> getPowInstance(AbstractUnit<?> unit, int n) {
+    return getScaledInstance(unit, n, 1);
+  }
+
+  /**
+   * Returns the specified unit with the exponent of each of its elements multiplied by <code>pow/root</code>, in a single step.
+   *
+   * @param unit
+   *          the unit.
+   * @param pow
+   *          the power multiplier.
+   * @param root
+   *          the root multiplier (strictly positive).
+   * @return <code>unit^(pow/root)</code>
+   */
+  private static Unit<?> getScaledInstance(AbstractUnit<?> unit, int pow, int root) {
     Element[] unitElems;
     if (unit instanceof ProductUnit<?>) {
       Element[] elems = ((ProductUnit<?>) unit).elements;
       unitElems = new Element[elems.length];
       for (int i = 0; i < elems.length; i++) {
-        int gcd = gcd(Math.abs(elems[i].pow * n), elems[i].root);
-        unitElems[i] = new Element(elems[i].unit, elems[i].pow * n / gcd, elems[i].root / gcd);
+        int p = elems[i].pow * pow;
+        int r = elems[i].root * root;
+        int gcd = gcd(Math.abs(p), r);
+        unitElems[i] = new Element(elems[i].unit, p / gcd, r / gcd);
       }
-    } else
-      unitElems = new Element[] { new Element(unit, n, 1) };
+    } else {
+      int gcd = gcd(Math.abs(pow), root);
+      unitElems = new Element[] { new Element(unit, pow / gcd, root / gcd) };
+    }
     return getInstance(unitElems, new Element[0]);
   }
 
@@ -313,17 +340,33 @@ public final class ProductUnit<Q extends Quantity<Q>> extends AbstractUnit<Q> {
   @SuppressWarnings("unchecked")
   @Override
   public AbstractUnit<Q> toSystemUnit() {
-    Unit<?> systemUnit = AbstractUnit.ONE;
-    for (Element element : elements) {
-      Unit<?> unit = element.unit.getSystemUnit();
-      unit = unit.pow(element.pow);
-      unit = unit.root(element.root);
-      systemUnit = systemUnit.multiply(unit);
+    AbstractUnit<Q> result = systemUnit;
+    Metrics.cacheAccessed(Metrics.SYSTEM_UNITS, result != null);
+    if (result == null) {
+      Unit<?> product = AbstractUnit.ONE;
+      for (Element element : elements) {
+        Unit<?> unit = element.unit.getSystemUnit();
+        unit = unit.pow(element.pow);
+        unit = unit.root(element.root);
+        product = product.multiply(unit);
+      }
+      result = this.equals(product) ? this : (AbstractUnit<Q>) product;
+      systemUnit = result;
     }
-    return (AbstractUnit<Q>) systemUnit;
+    return result;
   }
 
   public UnitConverter getSystemConverter() {
+    UnitConverter result = systemConverter;
+    Metrics.cacheAccessed(Metrics.SYSTEM_CONVERTERS, result != null);
+    if (result == null) {
+      result = computeSystemConverter(); // Not cached when not supported.
+      systemConverter = result;
+    }
+    return result;
+  }
+
+  private UnitConverter computeSystemConverter() {
     UnitConverter converter = AbstractConverter.IDENTITY;
     for (Element e : elements) {
       @SuppressWarnings("rawtypes")
@@ -349,6 +392,15 @@ public final class ProductUnit<Q extends Quantity<Q>> extends AbstractUnit<Q> {
 
   @Override
   public Dimension getDimension() {
+    Dimension result = dimension;
+    if (result == null) {
+      result = computeDimension();
+      dimension = result;
+    }
+    return result;
+  }
+
+  private Dimension computeDimension() {
     Dimension dimension = QuantityDimension.NONE;
     for (int i = 0; i < this.getUnitCount(); i++) {
       Unit<?> unit = this.getUnit(i);
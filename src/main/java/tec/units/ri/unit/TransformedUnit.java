@@ -90,6 +90,11 @@ public final class TransformedUnit<Q extends Quantity<Q>> extends AbstractUnit<Q
    */
   private String symbol;
 
+  /**
+   * Holds the converter to the system unit, computed on first use (optimization).
+   */
+  private transient volatile UnitConverter systemConverter;
+
   /**
    * Creates a transformed unit from the specified system unit.
    *
@@ -157,7 +162,12 @@ public final class TransformedUnit<Q extends Quantity<Q>> extends AbstractUnit<Q
 
   @Override
   public UnitConverter getSystemConverter() {
-    return parentUnit.getSystemConverter().concatenate(converter);
+    UnitConverter result = systemConverter;
+    if (result == null) {
+      result = parentUnit.getSystemConverter().concatenate(converter);
+      systemConverter = result;
+    }
+    return result;
   }
 
   @Override
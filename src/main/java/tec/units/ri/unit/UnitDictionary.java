@@ -0,0 +1,259 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.unit;
+
+import static tec.units.ri.unit.Units.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.measure.Unit;
+
+import tec.units.ri.internal.Cache;
+
+/**
+ * <p>
+ * This class assigns dense integer identifiers to units, so that unit references can be stored as a <code>short</code> in records or used to index
+ * arrays.
+ * </p>
+ *
+ * <p>
+ * The identifiers of the built-in units are assigned from a fixed list, independently of any unit labelled or registered by the application: the
+ * units of {@link Units} in declaration order, followed by the SI units, the gram, the degree Celsius and the litre, each with the
+ * {@link MetricPrefix metric prefixes} in declaration order (skipping units equal to a previous one, e.g. the kilogram). They are stable for a
+ * given release of this library (new units are only appended). Custom units can be registered at any time, in constant amortized time.
+ * Registrations and lookups are lock-free: a registration claims the next free slot by compare-and-set, so that identifiers stay dense. For
+ * example:<br>
+ * <code>
+ *     short id = (short) UnitDictionary.getInstance().getId(KILO(WATT));
+ *     Unit<?> unit = UnitDictionary.getInstance().getUnit(id);
+ * </code>
+ * </p>
+ *
+ * @version 0.1
+ */
+public final class UnitDictionary {
+
+  /**
+   * Identifier returned for units not in the dictionary.
+   */
+  public static final int UNKNOWN = -1;
+
+  /**
+   * Holds the units of {@link Units}, in the order of their identifiers. Only append to this list.
+   */
+  private static final Unit<?>[] SYSTEM_UNITS = { ONE, AMPERE, CANDELA, KELVIN, KILOGRAM, METRE, MOLE, SECOND, GRAM, RADIAN, STERADIAN, HERTZ,
+      NEWTON, PASCAL, JOULE, WATT, COULOMB, VOLT, FARAD, OHM, SIEMENS, WEBER, TESLA, HENRY, CELSIUS, BECQUEREL, GRAY, SIEVERT, KATAL,
+      METRES_PER_SECOND, METRES_PER_SQUARE_SECOND, SQUARE_METRE, CUBIC_METRE, KILOMETRES_PER_HOUR, LUMEN, LUX, PERCENT, LITRE, MINUTE, HOUR, DAY,
+      WEEK, YEAR };
+
+  /**
+   * Holds the units registered with every metric prefix, in the order of their identifiers. Only append to this list.
+   */
+  private static final Unit<?>[] PREFIXED_UNITS = { AMPERE, BECQUEREL, CANDELA, COULOMB, FARAD, GRAY, HENRY, HERTZ, JOULE, KATAL, KELVIN, LUMEN,
+      LUX, METRE, MOLE, NEWTON, OHM, PASCAL, RADIAN, SECOND, SIEMENS, SIEVERT, STERADIAN, TESLA, VOLT, WATT, WEBER, GRAM, CELSIUS, LITRE };
+
+  /**
+   * Holds the identifiers of the built-in units (never modified).
+   */
+  private final Map<Unit<?>, Integer> builtInIds;
+
+  /**
+   * Holds the identifiers of the units registered by the application.
+   */
+  private final Cache<Unit<?>, Integer> registeredIds = new Cache<Unit<?>, Integer>();
+
+  /**
+   * Holds the units by identifier; slots are filled in order by compare-and-set and never modified afterwards. The array grows by doubling once
+   * full, the larger copy being published by compare-and-set.
+   */
+  private final AtomicReference<AtomicReferenceArray<Unit<?>>> units;
+
+  /**
+   * Holds the number of units published, advanced after the unit it accounts for is in {@link #registeredIds}.
+   */
+  private final AtomicInteger size;
+
+  private UnitDictionary(List<Unit<?>> builtIns) {
+    this.builtInIds = new HashMap<Unit<?>, Integer>(builtIns.size() * 2);
+    List<Unit<?>> distinct = new ArrayList<Unit<?>>(builtIns.size());
+    for (Unit<?> unit : builtIns) {
+      if (!builtInIds.containsKey(unit)) {
+        builtInIds.put(unit, Integer.valueOf(distinct.size()));
+        distinct.add(unit);
+      }
+    }
+    this.units = new AtomicReference<AtomicReferenceArray<Unit<?>>>(new AtomicReferenceArray<Unit<?>>(distinct.toArray(new Unit<?>[0])));
+    this.size = new AtomicInteger(distinct.size());
+  }
+
+  /**
+   * Returns the dictionary of the built-in units.
+   *
+   * @return the unit dictionary.
+   */
+  public static UnitDictionary getInstance() {
+    return Holder.INSTANCE;
+  }
+
+  /**
+   * Returns the identifier of the specified unit.
+   *
+   * @param unit
+   *          the unit.
+   * @return the identifier of the unit or {@link #UNKNOWN} if the unit is not registered.
+   */
+  public int getId(Unit<?> unit) {
+    Integer id = builtInIds.get(unit);
+    if (id == null && unit != null)
+      id = registeredIds.get(unit);
+    return (id == null) ? UNKNOWN : id.intValue();
+  }
+
+  /**
+   * Returns the unit having the specified identifier.
+   *
+   * @param id
+   *          the identifier.
+   * @return the corresponding unit.
+   * @throws IndexOutOfBoundsException
+   *           if no unit has the specified identifier.
+   */
+  public Unit<?> getUnit(int id) {
+    int count = size.get(); // Read before the array, which holds at least as many units.
+    if (id < 0 || id >= count)
+      throw new IndexOutOfBoundsException("Unknown unit identifier: " + id);
+    return units.get().get(id);
+  }
+
+  /**
+   * Registers the specified unit, if not already registered.
+   *
+   * @param unit
+   *          the unit to register.
+   * @return the identifier of the unit.
+   */
+  public int register(Unit<?> unit) {
+    if (unit == null)
+      throw new NullPointerException();
+    int id = size.get(); // Read before the lookup: a unit registered concurrently is then in a slot at or after this one.
+    int known = getId(unit);
+    if (known != UNKNOWN)
+      return known;
+    AtomicReferenceArray<Unit<?>> array = units.get();
+    while (true) {
+      if (id == array.length()) { // All slots are filled.
+        array = grow(array);
+        continue;
+      }
+      Unit<?> slot = array.get(id);
+      if (slot == null && array.compareAndSet(id, null, unit))
+        slot = unit;
+      if (slot == null)
+        continue; // Another thread claimed the slot, reads it again.
+      publish(array, id);
+      if (slot.equals(unit))
+        return id;
+      id++;
+    }
+  }
+
+  /**
+   * Advances the size past the specified filled slot, publishing the units of the slots it passes (possibly claimed by other threads).
+   */
+  private void publish(AtomicReferenceArray<Unit<?>> array, int id) {
+    for (int i = size.get(); i <= id; i = size.get()) {
+      registeredIds.putIfAbsent(array.get(i), Integer.valueOf(i));
+      size.compareAndSet(i, i + 1);
+    }
+  }
+
+  /**
+   * Returns an array twice as large as the specified full array, or the array published by another thread in the meantime.
+   */
+  private AtomicReferenceArray<Unit<?>> grow(AtomicReferenceArray<Unit<?>> array) {
+    int length = array.length();
+    AtomicReferenceArray<Unit<?>> newArray = new AtomicReferenceArray<Unit<?>>(Math.max(16, length * 2));
+    for (int i = 0; i < length; i++) {
+      newArray.set(i, array.get(i));
+    }
+    units.compareAndSet(array, newArray);
+    return units.get();
+  }
+
+  /**
+   * Returns the number of units registered (the next identifier to be assigned).
+   *
+   * @return the number of units.
+   */
+  public int size() {
+    return size.get();
+  }
+
+  /**
+   * Returns the units registered, the index of each unit being its identifier. The list can be used as the registry of a
+   * {@link tec.units.ri.format.BinaryFormat}.
+   *
+   * @return an unmodifiable snapshot of the registered units.
+   */
+  public List<Unit<?>> getUnits() {
+    int count = size.get();
+    AtomicReferenceArray<Unit<?>> array = units.get();
+    List<Unit<?>> snapshot = new ArrayList<Unit<?>>(count);
+    for (int i = 0; i < count; i++) {
+      snapshot.add(array.get(i));
+    }
+    return Collections.unmodifiableList(snapshot);
+  }
+
+  /**
+   * Initializes the built-in dictionary on first use.
+   */
+  private static final class Holder {
+    private static final UnitDictionary INSTANCE;
+
+    static {
+      List<Unit<?>> units = new ArrayList<Unit<?>>(SYSTEM_UNITS.length + PREFIXED_UNITS.length * MetricPrefix.values().length);
+      Collections.addAll(units, SYSTEM_UNITS);
+      for (Unit<?> unit : PREFIXED_UNITS) {
+        for (MetricPrefix prefix : MetricPrefix.values()) {
+          units.add(unit.transform(prefix.getConverter()));
+        }
+      }
+      INSTANCE = new UnitDictionary(units);
+    }
+  }
+}
@@ -405,6 +405,17 @@ public class Units extends AbstractSystemOfUnits implements Nameable {
     return INSTANCE;
   }
 
+  /**
+   * Indicates if the specified unit is one of the units of this system.
+   *
+   * @param unit
+   *          the unit to check.
+   * @return <code>true</code> if the unit has been added to this system.
+   */
+  static boolean isRegistered(Unit<?> unit) {
+    return INSTANCE.units.contains(unit);
+  }
+
   /**
    * Adds a new unit not mapped to any specified quantity type.
    *
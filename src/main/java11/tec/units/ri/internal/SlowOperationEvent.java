@@ -0,0 +1,106 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * The event emitted for each operation recorded by {@link tec.units.ri.spi.SlowOperationLog}. This implementation, loaded from the multi-release
+ * JAR on Java SE 11 and later, emits a JDK Flight Recorder event named <code>tec.units.ri.SlowOperation</code>, committed while a recording is
+ * running (the event is enabled by default, recording settings can disable it). The JFR event is a private nested class, so that this class
+ * keeps the API of the base version.
+ *
+ * @version 0.1
+ */
+public final class SlowOperationEvent {
+
+  private SlowOperationEvent() {
+  }
+
+  /**
+   * Returns the name of the implementation loaded.
+   *
+   * @return <code>jfr</code> for this implementation.
+   */
+  public static String getImplementation() {
+    return "jfr";
+  }
+
+  /**
+   * Emits the event of a slow operation.
+   *
+   * @param operation
+   *          the name of the operation.
+   * @param elapsedNanos
+   *          the duration of the operation, in nanoseconds.
+   * @param thresholdNanos
+   *          the threshold the operation exceeded, in nanoseconds.
+   */
+  public static void emit(String operation, long elapsedNanos, long thresholdNanos) {
+    if (!Recorded.TYPE.isEnabled())
+      return; // No recording, nothing allocated.
+    Recorded event = new Recorded(operation, elapsedNanos, thresholdNanos);
+    if (event.shouldCommit())
+      event.commit();
+  }
+
+  @Name("tec.units.ri.SlowOperation")
+  @Label("Slow Unit Operation")
+  @Category("Units of Measurement")
+  @Description("A unit parsing, conversion or formatting operation slower than the threshold of the SlowOperationLog")
+  @StackTrace(false)
+  private static final class Recorded extends Event {
+    static final EventType TYPE = EventType.getEventType(Recorded.class);
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    private long elapsed;
+
+    @Label("Threshold")
+    @Timespan(Timespan.NANOSECONDS)
+    private long threshold;
+
+    Recorded(String operation, long elapsed, long threshold) {
+      this.operation = operation;
+      this.elapsed = elapsed;
+      this.threshold = threshold;
+    }
+  }
+}
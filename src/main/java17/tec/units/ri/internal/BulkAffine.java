@@ -0,0 +1,121 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.internal;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The bulk affine conversion <code>dest[i] = src[i]·scale + offset</code>. This implementation, loaded from the multi-release JAR on Java SE 17
+ * and later, converts with a scalar loop by default. Whole SIMD lanes are converted with the <code>jdk.incubator.vector</code> API only on
+ * request, when the system property <code>tec.units.ri.bulk</code> is set to <code>vector</code> and that module is present (option
+ * <code>--add-modules jdk.incubator.vector</code>); whether lanes beat the auto-vectorized loop depends on the array length and the hardware,
+ * measure with <code>BulkAffineBenchmark</code>. Results are identical in both cases (no fused multiply-add).
+ *
+ * @version 0.1
+ */
+public final class BulkAffine {
+
+  /**
+   * The system property selecting the implementation, <code>vector</code> for SIMD lanes (default <code>scalar</code>).
+   */
+  public static final String PROPERTY = "tec.units.ri.bulk";
+
+  private static final boolean VECTOR = select();
+
+  private BulkAffine() {
+  }
+
+  /**
+   * Returns the name of the implementation loaded.
+   *
+   * @return <code>vector</code> if SIMD lanes are used, <code>scalar</code> otherwise.
+   */
+  public static String getImplementation() {
+    return VECTOR ? "vector" : "scalar";
+  }
+
+  /**
+   * Converts the specified values.
+   *
+   * @param src
+   *          the values to convert.
+   * @param srcOffset
+   *          the index of the first value to convert.
+   * @param dest
+   *          the array receiving the converted values (can be <code>src</code>).
+   * @param destOffset
+   *          the index in <code>dest</code> of the first value converted.
+   * @param length
+   *          the number of values to convert.
+   * @param scale
+   *          the scale of the conversion.
+   * @param offset
+   *          the offset of the conversion.
+   */
+  public static void apply(double[] src, int srcOffset, double[] dest, int destOffset, int length, double scale, double offset) {
+    int done = VECTOR ? Lanes.apply(src, srcOffset, dest, destOffset, length, scale, offset) : 0;
+    for (int i = done; i < length; i++) { // Scalar tail.
+      dest[destOffset + i] = src[srcOffset + i] * scale + offset;
+    }
+  }
+
+  private static boolean select() {
+    try {
+      if (!"vector".equals(System.getProperty(PROPERTY)))
+        return false;
+    } catch (SecurityException e) {
+      return false; // Default selection.
+    }
+    if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty())
+      return false;
+    try {
+      return Lanes.SPECIES.length() > 1;
+    } catch (LinkageError e) {
+      return false;
+    }
+  }
+
+  /**
+   * The SIMD loop, in a separate class so that the vector API is only linked when its module is present.
+   */
+  private static final class Lanes {
+    static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    // Returns the number of values converted, a multiple of the number of lanes.
+    static int apply(double[] src, int srcOffset, double[] dest, int destOffset, int length, double scale, double offset) {
+      final int bound = SPECIES.loopBound(length);
+      for (int i = 0; i < bound; i += SPECIES.length()) {
+        DoubleVector.fromArray(SPECIES, src, srcOffset + i).mul(scale).add(offset).intoArray(dest, destOffset + i);
+      }
+      return bound;
+    }
+  }
+}
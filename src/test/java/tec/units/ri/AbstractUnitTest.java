@@ -30,14 +30,19 @@
 package tec.units.ri;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static tec.units.ri.unit.Units.*;
 
+import javax.measure.Unit;
 import javax.measure.quantity.Length;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import tec.units.ri.AbstractUnit;
+import tec.units.ri.quantity.QuantityDimension;
 import tec.units.ri.unit.BaseUnit;
+import tec.units.ri.unit.ProductUnit;
 
 public class AbstractUnitTest {
   private static final AbstractUnit<Length> sut = new BaseUnit<Length>("m");
@@ -51,4 +56,47 @@ public class AbstractUnitTest {
   public void testName() {
     assertEquals("Test", sut.getName());
   }
+
+  @Test
+  public void testPowMatchesRepeatedProduct() {
+    Unit<?> product = ONE;
+    for (int n = 1; n <= 5; n++) {
+      product = product.multiply(METRE);
+      assertEquals(product, METRE.pow(n));
+      assertEquals(ONE.divide(product), METRE.pow(-n));
+      assertEquals(product.multiply(SECOND.pow(-2 * n)), METRES_PER_SQUARE_SECOND.pow(n));
+    }
+    assertSame(AbstractUnit.ONE, METRE.pow(0));
+    assertSame(METRE, METRE.pow(1));
+    assertSame(METRE, SQUARE_METRE.root(2));
+  }
+
+  @Test
+  public void testPowSingleProduct() {
+    ProductUnit<?> large = (ProductUnit<?>) METRES_PER_SECOND.pow(1000);
+    assertEquals(2, large.getUnitCount());
+    assertEquals(1000, Math.abs(large.getUnitPow(0)));
+    assertEquals(SECOND.pow(-1000).multiply(METRE.pow(1000)), large);
+  }
+
+  @Test
+  public void testRoot() {
+    ProductUnit<?> root = (ProductUnit<?>) CUBIC_METRE.root(2);
+    assertEquals(3, root.getUnitPow(0));
+    assertEquals(2, root.getUnitRoot(0));
+    assertEquals(ONE.divide(METRE), SQUARE_METRE.root(-2));
+    assertEquals(METRE.pow(3).root(2), root.pow(1));
+  }
+
+  @Test(expected = ArithmeticException.class)
+  public void testRootOfZero() {
+    METRE.root(0);
+  }
+
+  @Test
+  public void testDimensionPow() {
+    assertEquals(QuantityDimension.LENGTH.multiply(QuantityDimension.LENGTH).multiply(QuantityDimension.LENGTH), QuantityDimension.LENGTH.pow(3));
+    assertEquals(QuantityDimension.LENGTH.pow(3), QuantityDimension.LENGTH.pow(6).root(2));
+    assertEquals(QuantityDimension.NONE.divide(QuantityDimension.TIME.pow(2)), QuantityDimension.TIME.pow(-2));
+  }
 }
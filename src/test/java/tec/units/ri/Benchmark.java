@@ -0,0 +1,108 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri;
+
+import java.util.Arrays;
+
+/**
+ * A minimal harness for the micro-benchmarks of this library, which are plain programs named <code>*Benchmark</code> under
+ * <code>src/test/java</code> (so that they are not run as tests). Each benchmark is warmed up, then measured over several rounds; the median,
+ * minimum and maximum throughputs are reported. Run a benchmark with the test class path, e.g.<br>
+ * <code>
+ *     java -cp target/classes:target/test-classes:&lt;dependencies&gt; tec.units.ri.internal.MathProviderBenchmark
+ * </code><br>
+ * The system properties <code>benchmark.warmup</code> and <code>benchmark.rounds</code> set the number of rounds (default 5 and 10).
+ *
+ * @version 0.1
+ */
+public abstract class Benchmark {
+
+  private static final int WARMUP = Integer.getInteger("benchmark.warmup", 5);
+  private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 10);
+
+  private static double sink; // Keeps results alive.
+
+  private final String name;
+
+  /**
+   * Creates a benchmark.
+   *
+   * @param name
+   *          the name reported.
+   */
+  protected Benchmark(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Runs one round.
+   *
+   * @return a value depending on all the results computed, so that they are not eliminated.
+   */
+  protected abstract double run();
+
+  /**
+   * Returns the number of operations performed by one round.
+   *
+   * @return the operation count.
+   */
+  protected abstract long operations();
+
+  /**
+   * Measures the specified benchmarks, interleaving their rounds, and prints their throughput.
+   *
+   * @param benchmarks
+   *          the benchmarks to compare.
+   */
+  public static void measure(Benchmark... benchmarks) {
+    for (int i = 0; i < WARMUP; i++) {
+      for (Benchmark benchmark : benchmarks) {
+        sink += benchmark.run();
+      }
+    }
+    double[][] throughputs = new double[benchmarks.length][ROUNDS];
+    for (int i = 0; i < ROUNDS; i++) {
+      for (int j = 0; j < benchmarks.length; j++) {
+        long start = System.nanoTime();
+        sink += benchmarks[j].run();
+        throughputs[j][i] = benchmarks[j].operations() * 1e3 / (System.nanoTime() - start);
+      }
+    }
+    System.out.println(System.getProperty("java.vm.name") + " " + System.getProperty("java.version") + ", " + WARMUP + " warm-up and " + ROUNDS
+        + " measured rounds (Mops/s: median [min, max])");
+    for (int j = 0; j < benchmarks.length; j++) {
+      double[] t = throughputs[j];
+      Arrays.sort(t);
+      System.out.println(String.format("  %-40s %9.1f [%.1f, %.1f]", benchmarks[j].name, t[t.length / 2], t[0], t[t.length - 1]));
+    }
+    if (sink == 42)
+      System.out.println();
+  }
+}
@@ -0,0 +1,210 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.format;
+
+import static org.junit.Assert.*;
+import static tec.units.ri.unit.MetricPrefix.*;
+import static tec.units.ri.unit.Units.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.measure.Quantity;
+import javax.measure.Unit;
+
+import org.junit.Test;
+
+import tec.units.ri.AbstractUnit;
+import tec.units.ri.function.LogConverter;
+import tec.units.ri.function.MultiplyConverter;
+import tec.units.ri.quantity.Quantities;
+
+public class BinaryFormatTest {
+
+  private static Unit<?> roundTrip(BinaryFormat format, Unit<?> unit) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    format.write(unit, new DataOutputStream(bytes));
+    return format.readUnit(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+  }
+
+  @Test
+  public void testUnitRoundTrip() throws IOException {
+    BinaryFormat format = BinaryFormat.getInstance();
+    Unit<?>[] units = { AbstractUnit.ONE, METRE, KILOGRAM, GRAM, KILO(WATT), NEWTON, CELSIUS, MILLI(KELVIN), METRES_PER_SQUARE_SECOND,
+        METRE.pow(2).root(3), KILOMETRES_PER_HOUR, PERCENT, ((AbstractUnit<?>) METRE).annotate("ground"), ONE.transform(new LogConverter(10)) };
+    for (Unit<?> unit : units) {
+      assertEquals(unit, roundTrip(format, unit));
+    }
+    assertEquals(KILO(WATT).getConverterTo(WATT).convert(1), ((Unit) roundTrip(format, KILO(WATT))).getConverterTo(WATT).convert(1), 0);
+  }
+
+  @Test
+  public void testRegistry() throws IOException {
+    BinaryFormat format = BinaryFormat.getInstance(Arrays.asList(METRE, SECOND, KILO(METRE)));
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    format.write(KILO(METRE), new DataOutputStream(bytes));
+    assertEquals(2, bytes.size());
+    assertEquals(KILO(METRE), roundTrip(format, KILO(METRE)));
+    assertEquals(METRE.divide(SECOND), roundTrip(format, METRE.divide(SECOND)));
+  }
+
+  @Test
+  public void testRegistryEncodingSize() throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(128);
+    BinaryFormat.getInstance(Arrays.asList(WATT, KILO(WATT))).write(Quantities.getQuantity(12, KILO(WATT)), buffer);
+    assertEquals(4, buffer.position()); // As documented.
+    buffer.clear();
+    BinaryFormat.getInstance().write(Quantities.getQuantity(12, KILO(WATT)), buffer);
+    assertTrue(buffer.position() > 10); // Written structurally without registry.
+  }
+
+  @Test(expected = IOException.class)
+  public void testUnknownRegistryIndex() throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(16);
+    BinaryFormat.getInstance(Arrays.asList(METRE, SECOND)).write(SECOND, buffer);
+    buffer.flip();
+    BinaryFormat.getInstance().readUnit(buffer);
+  }
+
+  private static void assertMalformedQuantity(int... bytes) {
+    assertMalformed(true, bytes);
+  }
+
+  private static void assertMalformedUnit(int... bytes) {
+    assertMalformed(false, bytes);
+  }
+
+  private static void assertMalformed(boolean quantity, int... bytes) {
+    ByteBuffer buffer = ByteBuffer.allocate(bytes.length);
+    for (int b : bytes) {
+      buffer.put((byte) b);
+    }
+    buffer.flip();
+    try {
+      if (quantity) {
+        BinaryFormat.getInstance().readQuantity(buffer);
+      } else {
+        BinaryFormat.getInstance().readUnit(buffer);
+      }
+      fail("Malformed encoding accepted: " + Arrays.toString(bytes));
+    } catch (IOException e) {
+      assertTrue(e.getMessage(), e.getMessage().startsWith("Malformed"));
+    }
+  }
+
+  @Test
+  public void testMalformedLengths() {
+    assertMalformedQuantity(6, 0); // Empty BigInteger.
+    assertMalformedQuantity(6, 0xFF, 0xFF, 0xFF, 0xFF, 0x0F); // Negative length.
+    assertMalformedQuantity(7, 0xFF, 0xFF, 0xFF, 0xFF, 0x07); // Huge BigDecimal length.
+    assertMalformedUnit(5, 0xFF, 0xFF, 0xFF, 0xFF, 0x07); // Huge product element count.
+    assertMalformedUnit(5, 1, 2, 0, 1, 'x', 0xFF, 0xFF, 0xFF, 0xFF, 0x0F); // Negative dimension count.
+    assertMalformedUnit(5, 1, 0, 2, 0); // Zero root.
+  }
+
+  @Test
+  public void testQuantityByteBuffer() throws IOException {
+    BinaryFormat format = BinaryFormat.getInstance();
+    Quantity<?>[] quantities = { Quantities.getQuantity(12, KILO(WATT)), Quantities.getQuantity(-3L, SECOND),
+        Quantities.getQuantity(1.5f, METRE), Quantities.getQuantity(273.15d, CELSIUS) };
+    ByteBuffer buffer = ByteBuffer.allocate(256);
+    for (Quantity<?> quantity : quantities) {
+      format.write(quantity, buffer);
+    }
+    buffer.flip();
+    for (Quantity<?> quantity : quantities) {
+      Quantity<?> read = format.readQuantity(buffer);
+      assertEquals(quantity.getValue(), read.getValue());
+      assertEquals(quantity.getUnit(), read.getUnit());
+    }
+    assertFalse(buffer.hasRemaining());
+  }
+
+  @Test
+  public void testScaledLogarithmicBase() throws IOException {
+    // 10·log10(x) is log(x) in base 10^0.1, whose natural logarithm is not exactly log(10^0.1) once the base is rounded.
+    LogConverter decibel = (LogConverter) new MultiplyConverter(10).concatenate(new LogConverter(10));
+    assertFalse(decibel.equals(new LogConverter(decibel.getBase())));
+    BinaryFormat format = BinaryFormat.getInstance();
+    Unit<?>[] units = { ONE.transform(decibel), ONE.transform(decibel.inverse()) };
+    for (Unit<?> unit : units) {
+      assertEquals(unit, roundTrip(format, unit));
+    }
+  }
+
+  @Test
+  public void testValueTypes() throws IOException {
+    BinaryFormat format = BinaryFormat.getInstance();
+    Number[] values = { Short.valueOf((short) -7), Byte.valueOf((byte) 3), new BigInteger("123456789012345678901234567890"),
+        new BigDecimal("-0.000123456789012345678901234567890"), new BigDecimal("1E+40") };
+    ByteBuffer buffer = ByteBuffer.allocate(256);
+    for (Number value : values) {
+      format.write(Quantities.getQuantity(value, METRE), buffer);
+    }
+    buffer.flip();
+    for (Number value : values) {
+      Quantity<?> read = format.readQuantity(buffer);
+      assertEquals(value.getClass(), read.getValue().getClass());
+      assertEquals(value, read.getValue());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnsupportedValueType() {
+    BinaryFormat.getInstance().write(Quantities.getQuantity(new AtomicInteger(1), METRE), ByteBuffer.allocate(64));
+  }
+
+  @Test
+  public void testByteBufferEncoding() throws IOException {
+    BinaryFormat format = BinaryFormat.getInstance();
+    Quantity<?>[] quantities = { Quantities.getQuantity(273.15d, CELSIUS), Quantities.getQuantity(-3L, MILLI(KELVIN)),
+        Quantities.getQuantity(1.5f, ((AbstractUnit<?>) METRE).annotate("\u00e9t\u00e9\u20ac")),
+        Quantities.getQuantity((short) 1, KILOMETRES_PER_HOUR) };
+    for (Quantity<?> quantity : quantities) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      format.write(quantity, new DataOutputStream(bytes));
+      ByteBuffer buffer = ByteBuffer.allocate(256).order(ByteOrder.LITTLE_ENDIAN); // Encoding is big-endian whatever the buffer order.
+      format.write(quantity, buffer);
+      buffer.flip();
+      byte[] written = new byte[buffer.remaining()];
+      buffer.get(written);
+      assertArrayEquals(bytes.toByteArray(), written);
+    }
+  }
+}
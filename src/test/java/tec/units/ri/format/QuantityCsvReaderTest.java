@@ -0,0 +1,154 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.format;
+
+import static org.junit.Assert.*;
+import static tec.units.ri.unit.MetricPrefix.*;
+import static tec.units.ri.unit.Units.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import javax.measure.Unit;
+import javax.measure.format.ParserException;
+
+import org.junit.Test;
+
+import tec.units.ri.AbstractUnit;
+
+public class QuantityCsvReaderTest {
+
+  private static final String CSV = "\uFEFFtime, speed[km/h] ,temperature[°C],count\r\n" + "0,36,20.5,1\r\n" + "\r\n" + "1,72,-3.25e1,\r\n"
+      + "2,  108  ,0\n";
+
+  private static ByteBuffer utf8(String text) throws IOException {
+    return ByteBuffer.wrap(text.getBytes("UTF-8"));
+  }
+
+  @Test
+  public void testHeaderUnits() throws IOException {
+    QuantityCsvReader.Columns columns = new QuantityCsvReader().read(utf8(CSV), Collections.<String, Unit<?>> emptyMap());
+    assertEquals(4, columns.getColumnCount());
+    assertEquals(3, columns.getRowCount());
+    assertEquals("time", columns.getNames().get(0));
+    assertEquals("speed", columns.getNames().get(1));
+    assertEquals(1, columns.indexOf("speed"));
+    assertEquals(AbstractUnit.ONE, columns.getUnit(0));
+    assertEquals(SimpleUnitFormat.getInstance().parse("km/h"), columns.getUnit(1));
+    assertEquals(CELSIUS, columns.getUnit(2));
+    assertArrayEquals(new double[] { 36, 72, 108 }, columns.getValues("speed"), 0);
+    assertArrayEquals(new double[] { 20.5, -32.5, 0 }, columns.getValues(2), 0);
+    assertEquals(1, columns.getValues("count")[0], 0);
+    assertTrue(Double.isNaN(columns.getValues("count")[1])); // Empty.
+    assertTrue(Double.isNaN(columns.getValues("count")[2])); // Missing.
+    assertEquals(72, columns.getQuantity(1, 1).getValue().doubleValue(), 0);
+  }
+
+  @Test
+  public void testConvertColumns() throws IOException {
+    Map<String, Unit<?>> targets = new HashMap<String, Unit<?>>();
+    targets.put("speed", METRES_PER_SECOND);
+    targets.put("temperature", KELVIN);
+    QuantityCsvReader.Columns columns = new QuantityCsvReader().read(utf8(CSV), targets);
+    assertEquals(METRES_PER_SECOND, columns.getUnit(1));
+    assertEquals(KELVIN, columns.getUnit(2));
+    assertArrayEquals(new double[] { 10, 20, 30 }, columns.getValues("speed"), 1e-12);
+    assertArrayEquals(new double[] { 293.65, 240.65, 273.15 }, columns.getValues("temperature"), 1e-9);
+  }
+
+  @Test
+  public void testMappedFile() throws IOException {
+    File file = File.createTempFile("quantities", ".csv");
+    file.deleteOnExit();
+    OutputStream out = new FileOutputStream(file);
+    try {
+      out.write("distance[km];duration[min]\n".getBytes("UTF-8"));
+      for (int i = 0; i < 1000; i++) {
+        out.write((i + ";" + (i * 0.5) + "\n").getBytes("UTF-8"));
+      }
+    } finally {
+      out.close();
+    }
+    Map<String, Unit<?>> targets = new HashMap<String, Unit<?>>();
+    targets.put("distance", METRE);
+    QuantityCsvReader.Columns columns = new QuantityCsvReader(';', SimpleUnitFormat.getInstance()).read(file, targets);
+    assertEquals(1000, columns.getRowCount());
+    assertEquals(999000, columns.getValues(0)[999], 0);
+    assertEquals(MINUTE, columns.getUnit(1));
+    assertEquals(499.5, columns.getValues("duration")[999], 0);
+    assertEquals(KILO(METRE), new QuantityCsvReader(';', SimpleUnitFormat.getInstance()).read(file).getUnit(0));
+  }
+
+  @Test
+  public void testParseNumberMatchesParseDouble() throws IOException {
+    Random random = new Random(42);
+    for (int i = 0; i < 10000; i++) {
+      double d;
+      switch (i % 4) {
+        case 0:
+          d = random.nextDouble() * 1000;
+          break;
+        case 1:
+          d = (random.nextLong() % 100000000) / 1000.0;
+          break;
+        case 2:
+          d = Double.longBitsToDouble(random.nextLong());
+          break;
+        default:
+          d = random.nextGaussian() * Math.pow(10, random.nextInt(60) - 30);
+      }
+      if (Double.isNaN(d) || Double.isInfinite(d))
+        continue;
+      String text = String.valueOf(d);
+      ByteBuffer bytes = utf8(text);
+      assertEquals(text, Double.doubleToLongBits(Double.parseDouble(text)),
+          Double.doubleToLongBits(QuantityCsvReader.parseNumber(bytes, 0, bytes.limit())));
+    }
+    ByteBuffer bytes = utf8("12345678901234567890123");
+    assertEquals(12345678901234567890123d, QuantityCsvReader.parseNumber(bytes, 0, bytes.limit()), 0);
+  }
+
+  @Test(expected = ParserException.class)
+  public void testInvalidNumber() throws IOException {
+    new QuantityCsvReader().read(utf8("a[m]\n1x\n"), Collections.<String, Unit<?>> emptyMap());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownTarget() throws IOException {
+    new QuantityCsvReader().read(utf8("a[m]\n1\n"), Collections.singletonMap("b", METRE));
+  }
+}
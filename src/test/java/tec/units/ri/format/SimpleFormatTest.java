@@ -35,6 +35,8 @@ import static tec.units.ri.unit.Units.GRAM;
 import static tec.units.ri.unit.Units.HERTZ;
 import static tec.units.ri.unit.Units.KILOGRAM;
 
+import java.nio.ByteBuffer;
+
 import javax.measure.Unit;
 import javax.measure.quantity.Frequency;
 import javax.measure.quantity.Mass;
@@ -107,4 +109,44 @@ public class SimpleFormatTest {
     String s = fmt.format(hz);
     assertEquals("kHz", s);
   }
+
+  @Test
+  public void testParseTrailingMultiply() {
+    assertEquals(Units.METRE, fmt.parse("m*"));
+  }
+
+  @Test
+  public void testParseExponents() {
+    assertEquals(Units.METRE.pow(2), fmt.parse("m²"));
+    assertEquals(Units.METRE.pow(3), fmt.parse("m**3"));
+    assertEquals(Units.METRE.pow(2), fmt.parse("m^2"));
+    assertEquals(Units.METRE.multiply(1000), fmt.parse("m*1000"));
+    assertEquals(Units.METRE.multiply(0.5), fmt.parse("m*0.5"));
+  }
+
+  @Test
+  public void testParseUtf8Bytes() throws Exception {
+    byte[] ascii = "[km/h]".getBytes("UTF-8");
+    assertEquals(fmt.parse("km/h"), fmt.parse(ascii, 1, ascii.length - 2));
+    byte[] utf8 = "xx kg·m/s² yy".getBytes("UTF-8");
+    assertEquals(fmt.parse("kg·m/s²"), fmt.parse(utf8, 3, utf8.length - 6));
+    assertEquals(Units.NEWTON.getDimension(), fmt.parse(utf8, 3, utf8.length - 6).getDimension());
+  }
+
+  @Test
+  public void testParseByteBuffer() throws Exception {
+    byte[] bytes = "MHz".getBytes("UTF-8");
+    ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+    direct.put(bytes).flip();
+    assertEquals(MEGA(HERTZ), fmt.parse(direct));
+    assertEquals(0, direct.position());
+    ByteBuffer heap = ByteBuffer.wrap("  kHz".getBytes("UTF-8"));
+    heap.position(2);
+    assertEquals(KILO(HERTZ), fmt.parse(heap));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testParseBytesOutOfBounds() {
+    fmt.parse(new byte[2], 1, 2);
+  }
 }
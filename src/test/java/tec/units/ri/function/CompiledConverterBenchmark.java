@@ -0,0 +1,85 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.function;
+
+import javax.measure.UnitConverter;
+
+import tec.units.ri.AbstractConverter.Pair;
+import tec.units.ri.Benchmark;
+
+/**
+ * Compares converter chains ({@link Pair}) with their {@link CompiledConverter compiled} form, through a single call site seeing four different
+ * chains (affine, scale, pi and logarithmic), as a converter-agnostic library loop would.
+ */
+public class CompiledConverterBenchmark {
+
+  private static final double[] VALUES = new double[4096];
+  private static final int REPEAT = 50;
+
+  static {
+    for (int i = 0; i < VALUES.length; i++) {
+      VALUES[i] = 1 + i;
+    }
+  }
+
+  private static Benchmark of(String name, final UnitConverter[] converters) {
+    return new Benchmark(name) {
+      @Override
+      protected double run() {
+        double s = 0;
+        for (int r = 0; r < REPEAT; r++) {
+          for (UnitConverter converter : converters) {
+            for (double v : VALUES) {
+              s += converter.convert(v);
+            }
+          }
+        }
+        return s;
+      }
+
+      @Override
+      protected long operations() {
+        return (long) REPEAT * converters.length * VALUES.length;
+      }
+    };
+  }
+
+  public static void main(String[] args) {
+    UnitConverter[] chains = { new Pair(new MultiplyConverter(1.8), new Pair(new AddConverter(-273.15), new RationalConverter(1, 1000))),
+        new Pair(new RationalConverter(1609344, 1000), new MultiplyConverter(0.001)),
+        new Pair(new AddConverter(3), new Pair(new PiMultiplierConverter(), new RationalConverter(1, 60))),
+        new Pair(new MultiplyConverter(10), new LogConverter(10)) };
+    UnitConverter[] compiled = new UnitConverter[chains.length];
+    for (int i = 0; i < chains.length; i++) {
+      compiled[i] = CompiledConverter.of(chains[i]);
+    }
+    Benchmark.measure(of("Pair.convert", chains), of("CompiledConverter.convert", compiled));
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.function;
+
+import static org.junit.Assert.*;
+import static tec.units.ri.unit.MetricPrefix.*;
+import static tec.units.ri.unit.Units.*;
+
+import javax.measure.UnitConverter;
+
+import org.junit.Test;
+
+import tec.units.ri.AbstractConverter;
+
+public class CompiledConverterTest {
+
+  @Test
+  public void testAffineChainFolded() {
+    UnitConverter source = new AbstractConverter.Pair(new MultiplyConverter(1.8), new AbstractConverter.Pair(new AddConverter(-273.15),
+        new RationalConverter(1, 1000)));
+    AbstractConverter compiled = CompiledConverter.of(source);
+    assertTrue(compiled instanceof CompiledConverter);
+    for (double x = -1000; x < 1000; x += 37.5) {
+      assertEquals(source.convert(x), compiled.convert(x), 1e-9);
+    }
+    assertSame(source, ((CompiledConverter) compiled).getSource());
+  }
+
+  @Test
+  public void testIdentityFolded() {
+    UnitConverter source = new AbstractConverter.Pair(new MultiplyConverter(2), new MultiplyConverter(0.5));
+    assertSame(AbstractConverter.IDENTITY, CompiledConverter.of(source));
+  }
+
+  @Test
+  public void testNonLinearChain() {
+    UnitConverter source = new AbstractConverter.Pair(new AddConverter(3), new AbstractConverter.Pair(new MultiplyConverter(10),
+        new AbstractConverter.Pair(new LogConverter(10), new AbstractConverter.Pair(new PiMultiplierConverter(), new ExpConverter(2)))));
+    AbstractConverter compiled = CompiledConverter.of(source);
+    for (double x = -2; x < 5; x += 0.25) {
+      assertEquals(source.convert(x), compiled.convert(x), 1e-9);
+    }
+    double[] values = { 0.5, 1, 2 };
+    double[] dest = new double[3];
+    ((CompiledConverter) compiled).convert(values, dest);
+    assertEquals(source.convert(2), dest[2], 1e-9);
+    assertEquals(source.inverse().convert(7), compiled.inverse().convert(7), 1e-9);
+  }
+
+  @Test
+  public void testUnitConverter() {
+    UnitConverter source = CELSIUS.getConverterTo(MILLI(KELVIN));
+    assertEquals(1273150, CompiledConverter.of(source).convert(1000), 1e-6);
+  }
+
+  @Test
+  public void testAffineCoefficients() {
+    UnitConverter fahrenheitToKelvin = new AbstractConverter.Pair(new AddConverter(273.15), new AbstractConverter.Pair(new RationalConverter(5, 9),
+        new AddConverter(-32)));
+    CompiledConverter compiled = CompiledConverter.compile(fahrenheitToKelvin);
+    assertTrue(compiled.isAffine());
+    assertEquals(5.0 / 9, compiled.getScale(), 0); // Not convert(1) - convert(0).
+    assertEquals(-32 * (5.0 / 9) + 273.15, compiled.getOffset(), 0);
+    assertFalse(CompiledConverter.compile(new LogConverter(10)).isAffine());
+    CompiledConverter identity = CompiledConverter.compile(new AbstractConverter.Pair(new MultiplyConverter(2), new MultiplyConverter(0.5)));
+    assertTrue(identity.isAffine());
+    assertTrue(identity.isIdentity());
+    assertEquals(1, identity.getScale(), 0);
+    assertEquals(0, identity.getOffset(), 0);
+  }
+}
@@ -30,7 +30,13 @@
 package tec.units.ri.function;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+
+import javax.measure.UnitConverter;
+
+import tec.units.ri.AbstractConverter;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -80,4 +86,30 @@ public class LogConverterTest {
     assertEquals(new ExpConverter(10.), logConverterBase10.inverse());
     assertEquals(new ExpConverter(Math.E), logConverter.inverse());
   }
+
+  @Test
+  public void concatenateInverseCancels() {
+    assertSame(AbstractConverter.IDENTITY, logConverterBase10.concatenate(logConverterBase10.inverse()));
+    assertSame(AbstractConverter.IDENTITY, logConverterBase10.inverse().concatenate(logConverterBase10));
+    UnitConverter scaled = logConverterBase10.concatenate(new ExpConverter(100.));
+    assertEquals(new MultiplyConverter(2), scaled);
+  }
+
+  @Test
+  public void concatenateFoldsScale() {
+    UnitConverter decibel = new RationalConverter(10, 1).concatenate(logConverterBase10);
+    assertTrue(decibel instanceof LogConverter);
+    assertEquals(20, decibel.convert(100), 1e-12);
+    assertEquals(20, decibel.inverse().concatenate(decibel).convert(20), 1e-12);
+    assertSame(AbstractConverter.IDENTITY, decibel.concatenate(decibel.inverse()));
+  }
+
+  @Test
+  public void concatenateAcrossPairs() {
+    // log10(1000 * 10^x) = x + 3
+    UnitConverter chain = logConverterBase10.concatenate(new AbstractConverter.Pair(new MultiplyConverter(1000), logConverterBase10.inverse()));
+    assertEquals(new AddConverter(3).getOffset(), ((AddConverter) chain).getOffset(), 1e-12);
+    UnitConverter roundTrip = new AbstractConverter.Pair(new AddConverter(1), logConverterBase10).concatenate(logConverterBase10.inverse());
+    assertEquals(new AddConverter(1), roundTrip);
+  }
 }
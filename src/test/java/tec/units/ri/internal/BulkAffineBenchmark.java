@@ -0,0 +1,112 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.internal;
+
+import tec.units.ri.Benchmark;
+
+/**
+ * Compares {@link BulkAffine#apply(double[], int, double[], int, int, double, double)} with a plain scalar loop over several array sizes. The
+ * implementation of {@link BulkAffine} is selected at startup (see {@link BulkAffine#PROPERTY}), so run this benchmark from the multi-release
+ * JAR on Java SE 17+ both with and without lanes, e.g.<br>
+ * <code>
+ *     java --add-modules jdk.incubator.vector -cp &lt;jar&gt;:target/test-classes:&lt;dependencies&gt; tec.units.ri.internal.BulkAffineBenchmark<br>
+ *     java --add-modules jdk.incubator.vector -Dtec.units.ri.bulk=vector -cp ... tec.units.ri.internal.BulkAffineBenchmark
+ * </code>
+ */
+public class BulkAffineBenchmark {
+
+  private static final int[] SIZES = { 4, 16, 64, 256, 4096, 65536 };
+  private static final int VALUES_PER_ROUND = 1 << 22;
+  private static final double SCALE = 5.0 / 9;
+  private static final double OFFSET = -160.0 / 9;
+
+  private static double[] values(int size) {
+    double[] values = new double[size];
+    for (int i = 0; i < size; i++) {
+      values[i] = i * 0.37 - 40;
+    }
+    return values;
+  }
+
+  private static Benchmark bulk(final int size) {
+    final double[] src = values(size);
+    final double[] dest = new double[size];
+    final int repeat = VALUES_PER_ROUND / size;
+    return new Benchmark(BulkAffine.getImplementation() + " apply, length " + size) {
+      @Override
+      protected double run() {
+        double s = 0;
+        for (int r = 0; r < repeat; r++) {
+          BulkAffine.apply(src, 0, dest, 0, size, SCALE, OFFSET);
+          s += dest[r % size];
+        }
+        return s;
+      }
+
+      @Override
+      protected long operations() {
+        return (long) repeat * size;
+      }
+    };
+  }
+
+  private static Benchmark loop(final int size) {
+    final double[] src = values(size);
+    final double[] dest = new double[size];
+    final int repeat = VALUES_PER_ROUND / size;
+    return new Benchmark("loop, length " + size) {
+      @Override
+      protected double run() {
+        double s = 0;
+        for (int r = 0; r < repeat; r++) {
+          for (int i = 0; i < size; i++) {
+            dest[i] = src[i] * SCALE + OFFSET;
+          }
+          s += dest[r % size];
+        }
+        return s;
+      }
+
+      @Override
+      protected long operations() {
+        return (long) repeat * size;
+      }
+    };
+  }
+
+  public static void main(String[] args) {
+    Benchmark[] benchmarks = new Benchmark[2 * SIZES.length];
+    for (int i = 0; i < SIZES.length; i++) {
+      benchmarks[2 * i] = loop(SIZES[i]);
+      benchmarks[2 * i + 1] = bulk(SIZES[i]);
+    }
+    Benchmark.measure(benchmarks);
+  }
+}
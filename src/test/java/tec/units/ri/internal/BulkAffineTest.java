@@ -0,0 +1,79 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.internal;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class BulkAffineTest {
+
+  /**
+   * The implementation expected for the layer under test, set by the multi-release build.
+   */
+  private static final String EXPECTED = System.getProperty("tec.units.ri.bulkImplementation");
+
+  @Test
+  public void testImplementation() {
+    if (EXPECTED != null)
+      assertEquals(EXPECTED, BulkAffine.getImplementation());
+  }
+
+  @Test
+  public void testAgreesWithScalarLoop() {
+    double scale = 1.8;
+    double offset = 32;
+    for (int length = 0; length <= 67; length++) { // Covers full lanes and every tail length.
+      double[] src = new double[length + 3];
+      for (int i = 0; i < src.length; i++) {
+        src[i] = i * 0.37 - 5;
+      }
+      double[] dest = new double[length + 5];
+      BulkAffine.apply(src, 3, dest, 5, length, scale, offset);
+      for (int i = 0; i < length; i++) {
+        assertEquals(src[3 + i] * scale + offset, dest[5 + i], 0); // No fused multiply-add.
+      }
+      for (int i = 0; i < 5; i++) {
+        assertEquals(0, dest[i], 0);
+      }
+    }
+  }
+
+  @Test
+  public void testInPlace() {
+    double[] values = new double[1000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = i;
+    }
+    BulkAffine.apply(values, 0, values, 0, values.length, 0.001, 273.15);
+    assertEquals(273.15, values[0], 0);
+    assertEquals(999 * 0.001 + 273.15, values[999], 0);
+  }
+}
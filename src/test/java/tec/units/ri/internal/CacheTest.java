@@ -0,0 +1,98 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class CacheTest {
+
+  /**
+   * The implementation expected for the layer under test, set by the multi-release build.
+   */
+  private static final String EXPECTED = System.getProperty("tec.units.ri.cacheImplementation");
+
+  @Test
+  public void testImplementation() {
+    if (EXPECTED != null)
+      assertEquals(EXPECTED, Cache.getImplementation());
+  }
+
+  @Test
+  public void testPutIfAbsent() {
+    Cache<String, Integer> cache = new Cache<String, Integer>();
+    assertNull(cache.get("a"));
+    assertEquals(Integer.valueOf(1), cache.putIfAbsent("a", 1));
+    assertEquals(Integer.valueOf(1), cache.putIfAbsent("a", 2));
+    assertEquals(Integer.valueOf(1), cache.get("a"));
+    assertEquals(1, cache.size());
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void testNullValue() {
+    new Cache<String, Integer>().putIfAbsent("a", null);
+  }
+
+  @Test
+  public void testConcurrentPuts() throws InterruptedException {
+    final Cache<Integer, Object> cache = new Cache<Integer, Object>();
+    final CountDownLatch start = new CountDownLatch(1);
+    final AtomicInteger winners = new AtomicInteger();
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            return;
+          }
+          for (int i = 0; i < 1000; i++) {
+            Object value = new Object();
+            if (cache.putIfAbsent(i, value) == value)
+              winners.incrementAndGet();
+          }
+        }
+      };
+      threads[t].start();
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(1000, winners.get());
+    assertEquals(1000, cache.size());
+  }
+}
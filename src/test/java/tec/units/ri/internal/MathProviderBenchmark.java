@@ -0,0 +1,115 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.internal;
+
+import tec.units.ri.Benchmark;
+import tec.units.ri.function.ExpConverter;
+import tec.units.ri.function.LogConverter;
+
+/**
+ * Compares the platform and FDLIBM math providers, directly and through the logarithmic and exponential converters (which use the provider
+ * selected at startup, see {@link MathProvider#PROPERTY}).
+ */
+public class MathProviderBenchmark {
+
+  private static final double[] VALUES = new double[4096];
+  private static final int REPEAT = 200;
+
+  static {
+    for (int i = 0; i < VALUES.length; i++) {
+      VALUES[i] = 0.5 + i * 0.37;
+    }
+  }
+
+  private static Benchmark log(final MathProvider math) {
+    return new Benchmark(math.getName() + " log") {
+      @Override
+      protected double run() {
+        double s = 0;
+        for (int r = 0; r < REPEAT; r++) {
+          for (double v : VALUES) {
+            s += math.log(v);
+          }
+        }
+        return s;
+      }
+
+      @Override
+      protected long operations() {
+        return (long) REPEAT * VALUES.length;
+      }
+    };
+  }
+
+  private static Benchmark exp(final MathProvider math) {
+    return new Benchmark(math.getName() + " exp") {
+      @Override
+      protected double run() {
+        double s = 0;
+        for (int r = 0; r < REPEAT; r++) {
+          for (double v : VALUES) {
+            s += math.exp(v * 1e-3);
+          }
+        }
+        return s;
+      }
+
+      @Override
+      protected long operations() {
+        return (long) REPEAT * VALUES.length;
+      }
+    };
+  }
+
+  public static void main(String[] args) {
+    final LogConverter logConverter = new LogConverter(10);
+    final ExpConverter expConverter = (ExpConverter) logConverter.inverse();
+    Benchmark converters = new Benchmark(MathProvider.getInstance().getName() + " LogConverter+ExpConverter") {
+      @Override
+      protected double run() {
+        double s = 0;
+        for (int r = 0; r < REPEAT; r++) {
+          for (double v : VALUES) {
+            s += logConverter.convert(v) + expConverter.convert(v * 1e-3);
+          }
+        }
+        return s;
+      }
+
+      @Override
+      protected long operations() {
+        return 2L * REPEAT * VALUES.length;
+      }
+    };
+    MathProvider platform = new PlatformMathProvider();
+    MathProvider fdlibm = new FdlibmMathProvider();
+    Benchmark.measure(log(platform), log(fdlibm), exp(platform), exp(fdlibm), converters);
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.internal;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class MathProviderTest {
+
+  @Test
+  public void testPlatformSelectedOnSE() {
+    assertEquals(PlatformMathProvider.NAME, MathProvider.getInstance().getName());
+  }
+
+  @Test
+  public void testImplementationsAgree() {
+    MathProvider platform = new PlatformMathProvider();
+    MathProvider fdlibm = new FdlibmMathProvider();
+    double[] values = { 1e-300, 0.001, 0.5, 1, Math.E, 10, 12345.678, 1e300 };
+    for (double x : values) {
+      assertEquals(platform.log(x), fdlibm.log(x), Math.ulp(platform.log(x)));
+      double e = Math.log(x) / 1000;
+      assertEquals(platform.exp(e), fdlibm.exp(e), Math.ulp(platform.exp(e)));
+      assertEquals(platform.pow(x, 0.75), fdlibm.pow(x, 0.75), Math.ulp(platform.pow(x, 0.75)));
+    }
+    assertEquals(1e18, fdlibm.pow(10, 18), 0);
+    assertEquals(1e18, platform.pow(10, 18), 0);
+  }
+}
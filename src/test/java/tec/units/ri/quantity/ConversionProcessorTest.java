@@ -0,0 +1,207 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.quantity;
+
+import static org.junit.Assert.*;
+import static tec.units.ri.unit.MetricPrefix.*;
+import static tec.units.ri.unit.Units.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.measure.Quantity;
+import javax.measure.quantity.Length;
+
+import org.junit.Test;
+
+import tec.units.ri.stream.Flow.Subscriber;
+import tec.units.ri.stream.Flow.Subscription;
+
+public class ConversionProcessorTest {
+
+  /**
+   * Publishes the specified quantities on request, then completes.
+   */
+  private static final class ListPublisher implements Subscription {
+    private final List<Quantity<Length>> items;
+    private final Subscriber<? super Quantity<Length>> subscriber;
+    private int index;
+    private long requested;
+    private boolean cancelled;
+
+    ListPublisher(List<Quantity<Length>> items, Subscriber<? super Quantity<Length>> subscriber) {
+      this.items = items;
+      this.subscriber = subscriber;
+      subscriber.onSubscribe(this);
+    }
+
+    public void request(long n) {
+      requested += n;
+      while (requested > 0 && index < items.size() && !cancelled) {
+        requested--;
+        subscriber.onNext(items.get(index++));
+      }
+      if (index == items.size() && !cancelled) {
+        index++;
+        subscriber.onComplete();
+      }
+    }
+
+    public void cancel() {
+      cancelled = true;
+    }
+  }
+
+  private static final class Recorder implements Subscriber<Quantity<Length>> {
+    final List<Quantity<Length>> received = new ArrayList<Quantity<Length>>();
+    Subscription subscription;
+    Throwable error;
+    boolean complete;
+
+    public void onSubscribe(Subscription s) {
+      subscription = s;
+    }
+
+    public void onNext(Quantity<Length> item) {
+      received.add(item);
+    }
+
+    public void onError(Throwable throwable) {
+      error = throwable;
+    }
+
+    public void onComplete() {
+      complete = true;
+    }
+  }
+
+  private static List<Quantity<Length>> items() {
+    List<Quantity<Length>> items = new ArrayList<Quantity<Length>>();
+    items.add(Quantities.getQuantity(1, KILO(METRE)));
+    items.add(Quantities.getQuantity(2, KILO(METRE)));
+    items.add(Quantities.getQuantity(300, CENTI(METRE)));
+    items.add(Quantities.getQuantity(4, KILO(METRE)));
+    items.add(Quantities.getQuantity(5, KILO(METRE)));
+    items.add(Quantities.getQuantity(6, KILO(METRE)));
+    return items;
+  }
+
+  @Test
+  public void testConvertsInOrderUnderDemand() {
+    ConversionProcessor<Length> processor = new ConversionProcessor<Length>(METRE, 4, 2);
+    Recorder recorder = new Recorder();
+    processor.subscribe(recorder);
+    new ListPublisher(items(), processor);
+    assertEquals(4, processor.getQueueDepth()); // Capacity requested upfront.
+    assertTrue(recorder.received.isEmpty());
+
+    recorder.subscription.request(1);
+    assertEquals(1, recorder.received.size());
+    assertEquals(METRE, recorder.received.get(0).getUnit());
+    assertEquals(1000, recorder.received.get(0).getValue().doubleValue(), 1e-9);
+    assertEquals(4, processor.getQueueDepth()); // Replenished.
+
+    recorder.subscription.request(10);
+    assertEquals(6, recorder.received.size());
+    double[] expected = { 1000, 2000, 3, 4000, 5000, 6000 };
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i], recorder.received.get(i).getValue().doubleValue(), 1e-9);
+    }
+    assertTrue(recorder.complete);
+    assertNull(recorder.error);
+    assertEquals(0, processor.getQueueDepth());
+    assertEquals(6, processor.getItemCount());
+    assertEquals(2, processor.getMaxBatchSize());
+    // Batches: [1 km] [2 km] [300 cm] [4 km, 5 km] [6 km]
+    assertEquals(5, processor.getBatchCount());
+    assertEquals(1.2, processor.getAverageBatchSize(), 1e-9);
+  }
+
+  @Test
+  public void testManySourceUnits() {
+    List<Quantity<Length>> items = new ArrayList<Quantity<Length>>();
+    for (int i = 0; i < 3 * ConversionProcessor.MAX_CONVERTERS; i++) {
+      items.add(Quantities.getQuantity(1, METRE.multiply(i % (2 * ConversionProcessor.MAX_CONVERTERS) + 2)));
+    }
+    ConversionProcessor<Length> processor = new ConversionProcessor<Length>(METRE);
+    Recorder recorder = new Recorder();
+    processor.subscribe(recorder);
+    new ListPublisher(items, processor);
+    recorder.subscription.request(Long.MAX_VALUE);
+    assertEquals(items.size(), recorder.received.size());
+    for (int i = 0; i < items.size(); i++) { // Correct after converters are evicted.
+      assertEquals(i % (2 * ConversionProcessor.MAX_CONVERTERS) + 2, recorder.received.get(i).getValue().doubleValue(), 1e-9);
+    }
+    assertTrue(recorder.complete);
+  }
+
+  @Test
+  public void testInvalidRequest() {
+    ConversionProcessor<Length> processor = new ConversionProcessor<Length>(METRE);
+    Recorder recorder = new Recorder();
+    processor.subscribe(recorder);
+    ListPublisher publisher = new ListPublisher(items(), processor);
+    recorder.subscription.request(0);
+    assertTrue(recorder.error instanceof IllegalArgumentException);
+    assertTrue(publisher.cancelled);
+    assertFalse(recorder.complete);
+  }
+
+  @Test
+  public void testCancel() {
+    ConversionProcessor<Length> processor = new ConversionProcessor<Length>(METRE, 2, 2);
+    Recorder recorder = new Recorder();
+    processor.subscribe(recorder);
+    ListPublisher publisher = new ListPublisher(items(), processor);
+    recorder.subscription.request(1);
+    recorder.subscription.cancel();
+    assertTrue(publisher.cancelled);
+    assertEquals(1, recorder.received.size());
+    assertEquals(0, processor.getQueueDepth());
+  }
+
+  @Test
+  public void testUpstreamError() {
+    ConversionProcessor<Length> processor = new ConversionProcessor<Length>(METRE);
+    Recorder recorder = new Recorder();
+    processor.subscribe(recorder);
+    processor.onError(new IllegalStateException("boom"));
+    assertEquals("boom", recorder.error.getMessage());
+  }
+
+  @Test
+  public void testSingleSubscriber() {
+    ConversionProcessor<Length> processor = new ConversionProcessor<Length>(METRE);
+    processor.subscribe(new Recorder());
+    Recorder second = new Recorder();
+    processor.subscribe(second);
+    assertTrue(second.error instanceof IllegalStateException);
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.quantity;
+
+import static org.junit.Assert.*;
+import static tec.units.ri.unit.MetricPrefix.*;
+import static tec.units.ri.unit.Units.*;
+
+import javax.measure.Quantity;
+import javax.measure.Unit;
+import javax.measure.quantity.Length;
+import javax.measure.quantity.Mass;
+import javax.measure.quantity.Power;
+
+import org.junit.Test;
+
+public class PrefixScalingTest {
+
+  @Test
+  public void testBestPrefix() {
+    assertSame(MEGA, PrefixScaling.bestPrefix(12300000));
+    assertSame(KILO, PrefixScaling.bestPrefix(1000));
+    assertNull(PrefixScaling.bestPrefix(999));
+    assertNull(PrefixScaling.bestPrefix(0));
+    assertSame(MILLI, PrefixScaling.bestPrefix(-0.0123));
+    assertSame(YOTTA, PrefixScaling.bestPrefix(1e30));
+    assertSame(YOCTO, PrefixScaling.bestPrefix(1e-30));
+  }
+
+  @Test
+  public void testScale() {
+    Quantity<Power> power = PrefixScaling.scale(Quantities.getQuantity(12300000, WATT));
+    assertEquals(12.3, power.getValue().doubleValue(), 1e-12);
+    assertSame(MEGA(WATT), power.getUnit());
+    assertEquals("12.3 MW", power.toString());
+  }
+
+  @Test
+  public void testScalePrefixed() {
+    Quantity<Length> length = PrefixScaling.scale(Quantities.getQuantity(0.005, KILO(METRE)));
+    assertEquals(5, length.getValue().doubleValue(), 1e-12);
+    assertEquals(METRE, length.getUnit());
+    Quantity<Mass> mass = PrefixScaling.scale(Quantities.getQuantity(12300, KILOGRAM));
+    assertEquals(12.3, mass.getValue().doubleValue(), 1e-12);
+    assertSame(MEGA(GRAM), mass.getUnit());
+  }
+
+  @Test
+  public void testScaleColumn() {
+    double[] values = { 1500, 250000, -3000000 };
+    double[] dest = new double[values.length];
+    Unit<Power> unit = PrefixScaling.scale(values, WATT, dest);
+    assertSame(MEGA(WATT), unit);
+    assertArrayEquals(new double[] { 0.0015, 0.25, -3 }, dest, 1e-12);
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.quantity;
+
+import static org.junit.Assert.*;
+import static tec.units.ri.unit.MetricPrefix.*;
+import static tec.units.ri.unit.Units.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.measure.Dimension;
+import javax.measure.Quantity;
+import javax.measure.Unit;
+import javax.measure.quantity.Length;
+import javax.measure.quantity.Temperature;
+
+import org.junit.Test;
+
+import tec.units.ri.stream.Streams;
+import tec.units.ri.stream.Streams.Collector;
+import tec.units.ri.stream.Streams.Collector.Characteristics;
+
+public class QuantityCollectorsTest {
+
+  @SuppressWarnings("unchecked")
+  private static final List<Quantity<Length>> LEGS = Arrays.<Quantity<Length>> asList(Quantities.getQuantity(1.5, KILO(METRE)),
+      Quantities.getQuantity(500, METRE), Quantities.getQuantity(2, KILO(METRE)), Quantities.getQuantity(100000, CENTI(METRE)));
+
+  @Test
+  public void testSumming() {
+    Quantity<Length> total = Streams.collect(LEGS, QuantityCollectors.summing(KILO(METRE)));
+    assertEquals(KILO(METRE), total.getUnit());
+    assertEquals(5, total.getValue().doubleValue(), 1e-12);
+    assertEquals(0, Streams.collect(Collections.<Quantity<Length>> emptyList(), QuantityCollectors.summing(METRE)).getValue().doubleValue(), 0);
+  }
+
+  @Test
+  public void testSummingIsCompensated() {
+    List<Quantity<Length>> quantities = new ArrayList<Quantity<Length>>();
+    for (int i = 0; i < 100000; i++) {
+      quantities.add(Quantities.getQuantity(0.1, METRE));
+    }
+    assertEquals(10000, Streams.collect(quantities, QuantityCollectors.summing(METRE)).getValue().doubleValue(), 1e-9);
+  }
+
+  @Test
+  public void testAveraging() {
+    assertEquals(1250, Streams.collect(LEGS, QuantityCollectors.averaging(METRE)).getValue().doubleValue(), 1e-9);
+    assertNull(Streams.collect(Collections.<Quantity<Length>> emptyList(), QuantityCollectors.averaging(METRE)));
+  }
+
+  @Test
+  public void testSummarizing() {
+    QuantityStatistics<Length> statistics = Streams.collect(LEGS, QuantityCollectors.summarizing(METRE));
+    assertEquals(4, statistics.getCount());
+    assertEquals(500, statistics.getMinValue(), 1e-9);
+    assertEquals(2000, statistics.getMaxValue(), 1e-9);
+  }
+
+  @Test
+  public void testCombine() {
+    Collector<Quantity<Length>, ?, Quantity<Length>> collector = QuantityCollectors.summing(METRE);
+    assertEquals(5000, combineHalves(collector, LEGS).getValue().doubleValue(), 1e-9);
+  }
+
+  private static <T, A, R> R combineHalves(Collector<T, A, R> collector, List<? extends T> items) {
+    A left = collector.supply();
+    A right = collector.supply();
+    for (int i = 0; i < items.size(); i++) {
+      collector.accumulate(i < items.size() / 2 ? left : right, items.get(i));
+    }
+    return collector.finish(collector.combine(left, right));
+  }
+
+  @Test
+  public void testGroupingByUnit() {
+    List<Quantity<?>> quantities = new ArrayList<Quantity<?>>(LEGS);
+    quantities.add(Quantities.getQuantity(20, CELSIUS));
+    quantities.add(Quantities.getQuantity(3, KILO(METRE)));
+    Map<Unit<?>, QuantityStatistics<?>> groups = combineHalves(QuantityCollectors.groupingByUnit(), quantities);
+    assertEquals(4, groups.size());
+    assertEquals(3, groups.get(KILO(METRE)).getCount());
+    assertEquals(6.5 / 3, groups.get(KILO(METRE)).getMeanValue(), 1e-12);
+    assertEquals(20, groups.get(CELSIUS).getMeanValue(), 0);
+  }
+
+  @Test
+  public void testGroupingByDimension() {
+    List<Quantity<?>> quantities = new ArrayList<Quantity<?>>(LEGS);
+    quantities.add(Quantities.getQuantity(20, CELSIUS));
+    quantities.add(Quantities.getQuantity(300, KELVIN));
+    Map<Dimension, QuantityStatistics<?>> groups = combineHalves(QuantityCollectors.groupingByDimension(), quantities);
+    assertEquals(2, groups.size());
+    QuantityStatistics<?> lengths = groups.get(METRE.getDimension());
+    assertEquals(METRE, lengths.getUnit());
+    assertEquals(5000 / 4.0, lengths.getMeanValue(), 1e-9);
+    QuantityStatistics<?> temperatures = groups.get(KELVIN.getDimension());
+    assertEquals(KELVIN, temperatures.getUnit());
+    assertEquals(293.15, temperatures.getMinValue(), 1e-9);
+    assertEquals(300, temperatures.getMaxValue(), 0);
+  }
+
+  @Test
+  public void testColumnSpliterator() {
+    QuantityColumn<Temperature> column = QuantityColumn.allocate(CELSIUS, 16);
+    for (int i = 0; i < 10000; i++) {
+      column.append(i);
+    }
+    Streams.DoubleSpliterator first = column.spliterator();
+    Streams.DoubleSpliterator second = first.trySplit();
+    assertNotNull(second);
+    assertEquals(5000, first.estimateSize());
+    assertEquals(5000, second.estimateSize());
+    QuantityStatistics<Temperature> left = new QuantityStatistics<Temperature>(CELSIUS);
+    QuantityStatistics<Temperature> right = new QuantityStatistics<Temperature>(CELSIUS);
+    assertTrue(second.tryAdvance(left));
+    second.forEachRemaining(left);
+    first.forEachRemaining(right);
+    assertEquals(0, first.estimateSize());
+    assertFalse(first.tryAdvance(right));
+    assertEquals(4999, left.getMaxValue(), 0);
+    assertEquals(5000, right.getMinValue(), 0);
+    left.merge(right);
+    assertEquals(10000, left.getCount());
+    assertEquals(4999.5, left.getMeanValue(), 1e-9);
+    assertNull(QuantityColumn.allocate(CELSIUS, 16).spliterator().trySplit());
+  }
+
+  @Test
+  public void testCharacteristics() {
+    assertTrue(QuantityCollectors.summing(METRE).characteristics().isEmpty());
+    assertTrue(QuantityCollectors.averaging(METRE).characteristics().isEmpty());
+    assertEquals(Collections.singleton(Characteristics.IDENTITY_FINISH), QuantityCollectors.summarizing(METRE).characteristics());
+    assertEquals(Collections.singleton(Characteristics.IDENTITY_FINISH), QuantityCollectors.groupingByUnit().characteristics());
+    assertEquals(Collections.singleton(Characteristics.IDENTITY_FINISH), QuantityCollectors.groupingByDimension().characteristics());
+  }
+
+  @Test
+  public void testColumnSpliteratorCharacteristics() {
+    QuantityColumn<Temperature> column = QuantityColumn.allocate(CELSIUS, 4096);
+    for (int i = 0; i < 4096; i++) {
+      column.append(i);
+    }
+    Streams.DoubleSpliterator spliterator = column.spliterator();
+    int expected = Streams.DoubleSpliterator.ORDERED | Streams.DoubleSpliterator.SIZED | Streams.DoubleSpliterator.SUBSIZED;
+    assertEquals(expected, spliterator.characteristics());
+    assertEquals(expected, spliterator.trySplit().characteristics());
+    assertEquals(0x10 | 0x40 | 0x4000, expected); // The values of java.util.Spliterator.
+  }
+}
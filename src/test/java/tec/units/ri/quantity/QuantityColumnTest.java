@@ -0,0 +1,128 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.quantity;
+
+import static org.junit.Assert.*;
+import static tec.units.ri.unit.MetricPrefix.*;
+import static tec.units.ri.unit.Units.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+
+import javax.measure.UnconvertibleException;
+import javax.measure.quantity.Length;
+import javax.measure.quantity.Temperature;
+
+import org.junit.Test;
+
+public class QuantityColumnTest {
+
+  @Test
+  public void testDirectColumn() {
+    QuantityColumn<Length> column = QuantityColumn.allocate(KILO(METRE), 2);
+    column.append(1.5);
+    column.append(new double[] { 2, 3, 4 }, 1, 2);
+    column.append(Quantities.getQuantity(500, METRE));
+    assertFalse(column.isPersistent());
+    assertEquals(4, column.size());
+    assertTrue(column.capacity() >= 4);
+    assertEquals(3, column.getDouble(1), 0);
+    assertEquals(Quantities.getQuantity(0.5, KILO(METRE)), column.get(3));
+    double[] dest = new double[2];
+    column.get(2, dest, 0, 2);
+    assertArrayEquals(new double[] { 4, 0.5 }, dest, 0);
+    column.convertTo(METRE);
+    assertEquals(METRE, column.getUnit());
+    assertEquals(1500, column.getDouble(0), 1e-9);
+    DoubleBuffer view = column.asDoubleBuffer();
+    assertEquals(4, view.remaining());
+    assertTrue(view.isReadOnly());
+    assertEquals(500, view.get(3), 1e-9);
+  }
+
+  @Test
+  public void testPersistedColumn() throws IOException {
+    File file = File.createTempFile("temperatures", ".qcol");
+    file.deleteOnExit();
+    QuantityColumn<Temperature> column = QuantityColumn.create(file, CELSIUS, 4);
+    for (int i = 0; i < 100; i++) { // Grows the mapping.
+      column.append(i);
+    }
+    column.set(0, -273.15);
+    column.close();
+
+    QuantityColumn<?> reopened = QuantityColumn.open(file);
+    assertTrue(reopened.isPersistent());
+    assertEquals(CELSIUS, reopened.getUnit());
+    assertEquals(100, reopened.size());
+    assertEquals(99, reopened.getDouble(99), 0);
+    reopened.close();
+
+    QuantityColumn<Temperature> kelvins = QuantityColumn.open(file, KELVIN);
+    assertEquals(0, kelvins.getDouble(0), 1e-9);
+    assertEquals(372.15, kelvins.getDouble(99), 1e-9);
+    kelvins.append(1);
+    kelvins.close();
+
+    QuantityColumn<?> converted = QuantityColumn.open(file);
+    assertEquals(KELVIN, converted.getUnit());
+    assertEquals(101, converted.size());
+    assertEquals(1, converted.getDouble(100), 0);
+    converted.close();
+  }
+
+  @Test
+  public void testIncompatibleUnit() throws IOException {
+    File file = File.createTempFile("lengths", ".qcol");
+    file.deleteOnExit();
+    QuantityColumn.create(file, METRE, 1).close();
+    try {
+      QuantityColumn.open(file, SECOND);
+      fail();
+    } catch (UnconvertibleException e) {
+      // Expected.
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testNotColumnFile() throws IOException {
+    File file = File.createTempFile("empty", ".qcol");
+    file.deleteOnExit();
+    QuantityColumn.open(file);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testIndexOutOfBounds() {
+    QuantityColumn<Length> column = QuantityColumn.allocate(METRE, 8);
+    column.append(1);
+    column.getDouble(1);
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.quantity;
+
+import static org.junit.Assert.*;
+import static tec.units.ri.unit.MetricPrefix.*;
+import static tec.units.ri.unit.Units.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.measure.Quantity;
+import javax.measure.UnconvertibleException;
+import javax.measure.Unit;
+import javax.measure.format.ParserException;
+
+import org.junit.Test;
+
+public class QuantityExpressionTest {
+
+  private static Map<String, Unit<?>> units(Object... namesAndUnits) {
+    Map<String, Unit<?>> units = new HashMap<String, Unit<?>>();
+    for (int i = 0; i < namesAndUnits.length; i += 2) {
+      units.put((String) namesAndUnits[i], (Unit<?>) namesAndUnits[i + 1]);
+    }
+    return units;
+  }
+
+  @Test
+  public void testParse() {
+    QuantityExpression expression = QuantityExpression.parse(" -(a + b)^2 / 4 · a**-1 ");
+    assertEquals(Arrays.asList("a", "b"), expression.getVariables());
+    QuantityExpression.Evaluator evaluator = expression.compile(units("a", ONE, "b", ONE));
+    assertEquals(-(3.0 * 3.0) / 4 / 1.0, evaluator.evaluate(1, 2), 1e-12);
+    assertEquals(-0.5, QuantityExpression.parse("1.5e-1 * 10 - 2").compile(units()).evaluate(), 1e-12);
+  }
+
+  @Test
+  public void testParseErrors() {
+    String[] invalid = { "a +", "(a", "a ^ x", "a b", "2 $ 3", "" };
+    for (String formula : invalid) {
+      try {
+        QuantityExpression.parse(formula);
+        fail(formula);
+      } catch (ParserException e) {
+        // Expected.
+      }
+    }
+  }
+
+  @Test
+  public void testPower() {
+    QuantityExpression.Evaluator power = QuantityExpression.parse("voltage * current").compile(units("voltage", VOLT, "current", MILLI(AMPERE)),
+        WATT);
+    assertEquals(WATT, power.getUnit());
+    assertEquals(2.3, power.evaluate(230, 10), 1e-12);
+    assertEquals("(($0 * $1) * 0.001) [W]", power.toString()); // Input factor applied once.
+
+    double[] volts = { 230, 120, 12 };
+    double[] milliamps = { 10, 500, 2000 };
+    double[] watts = new double[3];
+    power.evaluate(new double[][] { volts, milliamps }, watts);
+    assertEquals(2.3, watts[0], 1e-12);
+    assertEquals(60, watts[1], 1e-12);
+    assertEquals(24, watts[2], 1e-12);
+  }
+
+  @Test
+  public void testDerivedUnit() {
+    QuantityExpression.Evaluator energy = QuantityExpression.parse("power * duration").compile(units("power", KILO(WATT), "duration", HOUR));
+    assertTrue(energy.getUnit().isCompatible(JOULE));
+    assertEquals(3.6e6, energy.evaluate(1, 1), 1e-6);
+    Map<String, Quantity<?>> inputs = new HashMap<String, Quantity<?>>();
+    inputs.put("power", Quantities.getQuantity(500, WATT));
+    inputs.put("duration", Quantities.getQuantity(2, HOUR));
+    Quantity<?> result = energy.evaluate(inputs);
+    assertEquals(3.6e6, result.getValue().doubleValue(), 1e-6);
+    assertEquals(energy.getUnit(), result.getUnit());
+  }
+
+  @Test
+  public void testAdditionConvertsOperands() {
+    QuantityExpression.Evaluator length = QuantityExpression.parse("a + b").compile(units("a", METRE, "b", KILO(METRE)), CENTI(METRE));
+    assertEquals(100100, length.evaluate(1, 1), 1e-9);
+  }
+
+  @Test
+  public void testOffsetUnits() {
+    QuantityExpression.Evaluator twice = QuantityExpression.parse("2 * t").compile(units("t", CELSIUS), KELVIN);
+    assertEquals(2 * 293.15, twice.evaluate(20), 1e-9);
+    QuantityExpression.Evaluator mean = QuantityExpression.parse("(t1 + t2) / 2").compile(units("t1", CELSIUS, "t2", KELVIN), CELSIUS);
+    assertEquals(15, mean.evaluate(10, 293.15), 1e-9);
+  }
+
+  @Test(expected = UnconvertibleException.class)
+  public void testIncompatibleAddition() {
+    QuantityExpression.parse("voltage + current").compile(units("voltage", VOLT, "current", AMPERE));
+  }
+
+  @Test(expected = UnconvertibleException.class)
+  public void testIncompatibleResult() {
+    QuantityExpression.parse("voltage * current").compile(units("voltage", VOLT, "current", AMPERE), JOULE);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingUnit() {
+    QuantityExpression.parse("voltage * current").compile(units("voltage", VOLT));
+  }
+
+}
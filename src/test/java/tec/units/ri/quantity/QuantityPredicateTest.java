@@ -0,0 +1,123 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.quantity;
+
+import static org.junit.Assert.*;
+import static tec.units.ri.unit.MetricPrefix.*;
+import static tec.units.ri.unit.Units.*;
+
+import javax.measure.Unit;
+import javax.measure.UnitConverter;
+import javax.measure.quantity.Length;
+import javax.measure.quantity.Temperature;
+
+import org.junit.Test;
+
+import tec.units.ri.function.LogConverter;
+
+public class QuantityPredicateTest {
+
+  private static final QuantityPredicate<Temperature> OVERHEAT = QuantityPredicate.greaterThan(Quantities.getQuantity(80, CELSIUS));
+
+  @Test
+  public void testThresholdConvertedIntoDataUnit() {
+    QuantityPredicate.Compiled check = OVERHEAT.compile(KELVIN);
+    assertFalse(check.test(353.15 - 1e-9));
+    assertTrue(check.test(353.16));
+    assertFalse(check.test(Double.NaN));
+    assertTrue(OVERHEAT.compile(CELSIUS).test(80.5));
+    assertFalse(OVERHEAT.compile(CELSIUS).test(80));
+    assertTrue(QuantityPredicate.greaterThanOrEqualTo(Quantities.getQuantity(80, CELSIUS)).compile(CELSIUS).test(80));
+  }
+
+  @Test
+  public void testQuantity() {
+    assertTrue(OVERHEAT.test(Quantities.getQuantity(400, KELVIN)));
+    assertFalse(OVERHEAT.test(Quantities.getQuantity(20, CELSIUS)));
+  }
+
+  @Test
+  public void testBetweenAndOr() {
+    QuantityPredicate<Temperature> comfort = QuantityPredicate.between(Quantities.getQuantity(18, CELSIUS), Quantities.getQuantity(294.15, KELVIN));
+    QuantityPredicate.Compiled check = comfort.compile(CELSIUS);
+    assertTrue(check.test(18));
+    assertTrue(check.test(21));
+    assertFalse(check.test(17.9));
+    assertFalse(check.test(21.1));
+
+    QuantityPredicate<Temperature> extreme = QuantityPredicate.lessThan(Quantities.getQuantity(0, CELSIUS)).or(OVERHEAT);
+    check = extreme.compile(KELVIN);
+    assertTrue(check.test(200));
+    assertFalse(check.test(300));
+    assertTrue(check.test(400));
+
+    check = extreme.negate().compile(KELVIN);
+    assertFalse(check.test(200));
+    assertTrue(check.test(300));
+    assertTrue(check.test(Double.NaN));
+    assertSame(extreme, extreme.negate().negate());
+  }
+
+  @Test
+  public void testDecreasingUnit() {
+    Unit<Temperature> negated = KELVIN.multiply(-1);
+    QuantityPredicate.Compiled check = OVERHEAT.compile(negated);
+    assertTrue(check.test(-400));
+    assertFalse(check.test(-300));
+  }
+
+  @Test
+  public void testNonAffineUnitConvertsReadings() {
+    Unit<Length> logMetre = METRE.transform(new LogConverter(10));
+    QuantityPredicate<Length> predicate = QuantityPredicate.between(Quantities.getQuantity(1, METRE), Quantities.getQuantity(2, KILO(METRE)));
+    QuantityPredicate.Compiled check = predicate.compile(logMetre);
+    UnitConverter toMetre = logMetre.getConverterTo(METRE);
+    for (double x = -5; x <= 5; x += 0.25) {
+      double metres = toMetre.convert(x);
+      assertEquals("x = " + x, metres >= 1 && metres <= 2000, check.test(x));
+    }
+  }
+
+  @Test
+  public void testArrays() {
+    double[] readings = { 290, 360, 350, 400, Double.NaN };
+    QuantityPredicate.Compiled check = OVERHEAT.compile(KELVIN);
+    assertEquals(2, check.count(readings));
+    boolean[] results = new boolean[readings.length];
+    assertEquals(2, check.test(readings, results));
+    assertArrayEquals(new boolean[] { false, true, false, true, false }, results);
+    int[] indexes = new int[1];
+    assertEquals(1, check.select(readings, indexes));
+    assertEquals(1, indexes[0]);
+    indexes = new int[5];
+    assertEquals(2, check.select(readings, indexes));
+    assertEquals(3, indexes[1]);
+  }
+}
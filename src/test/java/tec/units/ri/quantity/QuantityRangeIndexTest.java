@@ -0,0 +1,156 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.quantity;
+
+import static org.junit.Assert.*;
+import static tec.units.ri.unit.Units.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.measure.quantity.Mass;
+
+import org.junit.Test;
+
+public class QuantityRangeIndexTest {
+
+  private static QuantityRange<Mass> range(double low, double high) {
+    return QuantityRange.of(Quantities.getQuantity(low, KILOGRAM), Quantities.getQuantity(high, KILOGRAM));
+  }
+
+  @Test
+  public void testRangesContaining() {
+    QuantityRangeIndex<Mass> index = new QuantityRangeIndex<Mass>(GRAM);
+    QuantityRange<Mass> light = range(0, 1);
+    QuantityRange<Mass> medium = range(1, 10);
+    QuantityRange<Mass> heavy = range(10, 100);
+    index.add(light);
+    index.add(medium);
+    index.add(heavy);
+    assertEquals(KILOGRAM, index.getSystemUnit());
+    assertEquals(3, index.size());
+    List<QuantityRange<Mass>> found = index.rangesContaining(Quantities.getQuantity(500d, GRAM));
+    assertEquals(1, found.size());
+    assertSame(light, found.get(0));
+    found = index.rangesContaining(Quantities.getQuantity(10d, KILOGRAM));
+    assertEquals(2, found.size());
+    assertTrue(found.contains(medium) && found.contains(heavy));
+    assertEquals(0, index.countContaining(200, KILOGRAM));
+  }
+
+  @Test
+  public void testRemove() {
+    QuantityRangeIndex<Mass> index = new QuantityRangeIndex<Mass>(KILOGRAM);
+    QuantityRange<Mass> a = range(0, 5);
+    QuantityRange<Mass> b = range(3, 8);
+    index.add(a);
+    index.add(b);
+    assertEquals(2, index.countContaining(4, KILOGRAM));
+    assertTrue(index.remove(a));
+    assertFalse(index.remove(a));
+    assertEquals(1, index.size());
+    assertEquals(1, index.countContaining(4, KILOGRAM));
+    assertTrue(index.remove(b));
+    assertEquals(0, index.size());
+    assertEquals(0, index.countContaining(4, KILOGRAM));
+  }
+
+  @Test
+  public void testRemoveEqualRange() {
+    QuantityRangeIndex<Mass> index = new QuantityRangeIndex<Mass>(KILOGRAM);
+    index.add(range(0, 5));
+    index.add(range(0, 8));
+    assertTrue(index.remove(range(0, 8)));
+    assertEquals(1, index.size());
+    assertEquals(0, index.countContaining(6, KILOGRAM));
+    assertEquals(1, index.countContaining(4, KILOGRAM));
+  }
+
+  @Test
+  public void testNaN() {
+    QuantityRangeIndex<Mass> index = new QuantityRangeIndex<Mass>(KILOGRAM);
+    index.add(range(0, 5));
+    index.add(QuantityRange.of(null, Quantities.getQuantity(1d, KILOGRAM)));
+    assertEquals(0, index.countContaining(Double.NaN, KILOGRAM));
+    assertTrue(index.rangesContaining(Double.NaN, KILOGRAM).isEmpty());
+    assertFalse(range(0, 5).contains(Double.NaN, KILOGRAM));
+  }
+
+  @Test
+  public void testUnbounded() {
+    QuantityRangeIndex<Mass> index = new QuantityRangeIndex<Mass>(KILOGRAM);
+    index.add(QuantityRange.of(null, Quantities.getQuantity(1d, KILOGRAM)));
+    index.add(QuantityRange.of(Quantities.getQuantity(2d, KILOGRAM), (javax.measure.Quantity<Mass>) null));
+    assertEquals(1, index.countContaining(-1e9, KILOGRAM));
+    assertEquals(0, index.countContaining(1.5, KILOGRAM));
+    assertEquals(1, index.countContaining(1e9, KILOGRAM));
+  }
+
+  @Test
+  public void testBatchAgainstLinearScan() {
+    Random random = new Random(42);
+    QuantityRangeIndex<Mass> index = new QuantityRangeIndex<Mass>(KILOGRAM);
+    List<QuantityRange<Mass>> ranges = new ArrayList<QuantityRange<Mass>>();
+    for (int i = 0; i < 500; i++) {
+      double low = random.nextDouble() * 1000;
+      QuantityRange<Mass> r = range(low, low + random.nextDouble() * 50);
+      ranges.add(r);
+      index.add(r);
+    }
+    for (int i = 0; i < 200; i++) {
+      assertTrue(index.remove(ranges.remove(random.nextInt(ranges.size()))));
+    }
+    double[] values = new double[1000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = random.nextDouble() * 1000000;
+    }
+    int[] counts = new int[values.length];
+    index.countContaining(values, GRAM, counts);
+    final int[] visited = new int[values.length];
+    int total = index.rangesContaining(values, GRAM, new QuantityRangeIndex.Visitor<Mass>() {
+      public void visit(int i, QuantityRange<Mass> range) {
+        visited[i]++;
+      }
+    });
+    int expectedTotal = 0;
+    for (int i = 0; i < values.length; i++) {
+      int expected = 0;
+      for (QuantityRange<Mass> r : ranges) {
+        if (r.contains(values[i], GRAM))
+          expected++;
+      }
+      assertEquals(expected, counts[i]);
+      assertEquals(expected, visited[i]);
+      expectedTotal += expected;
+    }
+    assertEquals(expectedTotal, total);
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.quantity;
+
+import static org.junit.Assert.*;
+import static tec.units.ri.unit.Units.*;
+
+import javax.measure.Quantity;
+import javax.measure.Unit;
+import javax.measure.quantity.Mass;
+import javax.measure.quantity.Temperature;
+
+import org.junit.Test;
+
+public class QuantityRangeTest {
+
+  @Test
+  public void testContainsSameUnit() {
+    QuantityRange<Mass> range = QuantityRange.of(Quantities.getQuantity(1d, KILOGRAM), Quantities.getQuantity(10d, KILOGRAM));
+    assertTrue(range.contains(Quantities.getQuantity(1d, KILOGRAM)));
+    assertTrue(range.contains(Quantities.getQuantity(10d, KILOGRAM)));
+    assertTrue(range.contains(Quantities.getQuantity(5, KILOGRAM)));
+    assertFalse(range.contains(Quantities.getQuantity(10.5d, KILOGRAM)));
+    assertFalse(range.contains(null));
+  }
+
+  @Test
+  public void testContainsOtherUnit() {
+    QuantityRange<Mass> range = QuantityRange.of(Quantities.getQuantity(1d, KILOGRAM), Quantities.getQuantity(10d, KILOGRAM));
+    assertTrue(range.contains(Quantities.getQuantity(1500d, GRAM)));
+    assertFalse(range.contains(Quantities.getQuantity(500d, GRAM)));
+    assertTrue(range.contains(2d, KILOGRAM));
+    assertFalse(range.contains(20000d, GRAM));
+  }
+
+  @Test
+  public void testBoundsResolvedToSystemUnit() {
+    QuantityRange<Mass> range = QuantityRange.of(Quantities.getQuantity(100d, GRAM), Quantities.getQuantity(2d, KILOGRAM));
+    assertEquals(KILOGRAM, range.getSystemUnit());
+    assertEquals(0.1, range.getLowerBound(), 1e-12);
+    assertEquals(2, range.getUpperBound(), 0);
+  }
+
+  @Test
+  public void testContainsAffineUnit() {
+    QuantityRange<Temperature> range = QuantityRange.of(Quantities.getQuantity(0d, CELSIUS), Quantities.getQuantity(100d, CELSIUS));
+    assertTrue(range.contains(Quantities.getQuantity(300d, KELVIN)));
+    assertFalse(range.contains(Quantities.getQuantity(200d, KELVIN)));
+    assertTrue(range.contains(Quantities.getQuantity(20d, CELSIUS)));
+  }
+
+  @Test
+  public void testUnbounded() {
+    Quantity<Mass> max = Quantities.getQuantity(10d, KILOGRAM);
+    QuantityRange<Mass> range = QuantityRange.of(null, max);
+    assertFalse(range.hasMinimum());
+    assertEquals(Double.NEGATIVE_INFINITY, range.getLowerBound(), 0);
+    assertTrue(range.contains(Quantities.getQuantity(-1000d, KILOGRAM)));
+    assertFalse(range.contains(Quantities.getQuantity(11d, KILOGRAM)));
+  }
+
+  @Test
+  public void testBulkContains() {
+    QuantityRange<Mass> range = QuantityRange.of(Quantities.getQuantity(1d, KILOGRAM), Quantities.getQuantity(10d, KILOGRAM));
+    double[] grams = { 0, 999, 1000, 5000, 10000, 10001 };
+    boolean[] result = new boolean[grams.length];
+    assertEquals(3, range.contains(grams, GRAM, result));
+    assertArrayEquals(new boolean[] { false, false, true, true, true, false }, result);
+    assertEquals(3, range.count(grams, GRAM));
+    double[] kilograms = { 0.5, 2, 12 };
+    boolean[] partial = new boolean[kilograms.length];
+    assertEquals(1, range.contains(kilograms, 1, 2, KILOGRAM, partial));
+    assertArrayEquals(new boolean[] { false, true, false }, partial);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvertedLimits() {
+    QuantityRange.of(Quantities.getQuantity(10d, KILOGRAM), Quantities.getQuantity(5d, KILOGRAM));
+  }
+
+  @Test
+  public void testDecreasingUnit() {
+    Unit<Mass> negated = KILOGRAM.multiply(-1);
+    QuantityRange<Mass> range = QuantityRange.of(Quantities.getQuantity(1d, negated), Quantities.getQuantity(2d, negated));
+    assertEquals(-2, range.getLowerBound(), 0);
+    assertEquals(-1, range.getUpperBound(), 0);
+    assertTrue(range.contains(Quantities.getQuantity(1.5d, negated)));
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.quantity;
+
+import static org.junit.Assert.*;
+import static tec.units.ri.unit.MetricPrefix.*;
+import static tec.units.ri.unit.Units.*;
+
+import javax.measure.quantity.Length;
+import javax.measure.quantity.Temperature;
+
+import org.junit.Test;
+
+import tec.units.ri.function.LogConverter;
+
+public class QuantityStatisticsTest {
+
+  @Test
+  public void testEmpty() {
+    QuantityStatistics<Length> stats = new QuantityStatistics<Length>(METRE);
+    assertEquals(0, stats.getCount());
+    assertNull(stats.getMean());
+    assertTrue(Double.isNaN(stats.getStandardDeviation()));
+    assertTrue(Double.isNaN(stats.getMinValue()));
+    assertTrue(Double.isNaN(stats.getVariance()));
+  }
+
+  @Test
+  public void testMixedUnits() {
+    QuantityStatistics<Length> stats = new QuantityStatistics<Length>(METRE);
+    stats.accept(Quantities.getQuantity(2, METRE));
+    stats.accept(0.004, KILO(METRE));
+    stats.accept(new double[] { 400, 600 }, CENTI(METRE));
+    stats.accept(9.0);
+    assertEquals(5, stats.getCount());
+    assertEquals(METRE, stats.getMean().getUnit());
+    assertEquals(5, stats.getMeanValue(), 1e-12);
+    assertEquals(2, stats.getMin().getValue().doubleValue(), 1e-12);
+    assertEquals(9, stats.getMaxValue(), 1e-12);
+    // Squared deviations: 9 + 1 + 1 + 1 + 16 = 28
+    assertEquals(7, stats.getVariance(), 1e-12);
+    assertEquals(5.6, stats.getPopulationVariance(), 1e-12);
+    assertEquals(Math.sqrt(7), stats.getStandardDeviation(), 1e-12);
+  }
+
+  @Test
+  public void testAffineUnit() {
+    QuantityStatistics<Temperature> stats = new QuantityStatistics<Temperature>(CELSIUS);
+    stats.accept(new double[] { 273.15, 283.15, 293.15 }, KELVIN);
+    assertEquals(10, stats.getMeanValue(), 1e-9);
+    assertEquals(100, stats.getVariance(), 1e-9);
+    assertEquals(10, stats.getStandardDeviation(), 1e-9); // A spread of 10 K, not 283.15 K.
+  }
+
+  @Test
+  public void testPrecision() {
+    QuantityStatistics<Length> stats = new QuantityStatistics<Length>(METRE);
+    for (int i = 0; i < 1000; i++) {
+      stats.accept(1e9 + (i % 2)); // Naive sum of squares loses all digits.
+    }
+    assertEquals(1e9 + 0.5, stats.getMeanValue(), 1e-6);
+    assertEquals(0.25, stats.getPopulationVariance(), 1e-9);
+  }
+
+  @Test
+  public void testMerge() {
+    double[] values = { 3, 1, 4, 1, 5, 9, 2, 6, 5, 3, 5 };
+    QuantityStatistics<Temperature> all = new QuantityStatistics<Temperature>(CELSIUS);
+    all.accept(values, CELSIUS);
+
+    QuantityStatistics<Temperature> left = new QuantityStatistics<Temperature>(CELSIUS);
+    QuantityStatistics<Temperature> right = new QuantityStatistics<Temperature>(KELVIN);
+    for (int i = 0; i < values.length; i++) {
+      if (i < 4)
+        left.accept(values[i], CELSIUS);
+      else
+        right.accept(values[i], CELSIUS);
+    }
+    left.merge(right);
+    left.merge(new QuantityStatistics<Temperature>(KELVIN));
+    assertEquals(all.getCount(), left.getCount());
+    assertEquals(all.getMeanValue(), left.getMeanValue(), 1e-9);
+    assertEquals(all.getVariance(), left.getVariance(), 1e-9);
+    assertEquals(1, left.getMinValue(), 1e-9);
+    assertEquals(9, left.getMaxValue(), 1e-9);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMergeNonAffine() {
+    QuantityStatistics<Length> stats = new QuantityStatistics<Length>(METRE);
+    QuantityStatistics<Length> logarithmic = new QuantityStatistics<Length>(METRE.transform(new LogConverter(10)));
+    logarithmic.accept(1);
+    stats.merge(logarithmic);
+  }
+}
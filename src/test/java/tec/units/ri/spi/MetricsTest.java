@@ -0,0 +1,167 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.spi;
+
+import static org.junit.Assert.*;
+import static tec.units.ri.unit.MetricPrefix.*;
+import static tec.units.ri.unit.Units.*;
+
+import javax.measure.Quantity;
+import javax.measure.UnitConverter;
+import javax.measure.quantity.Length;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import tec.units.ri.AbstractUnit;
+import tec.units.ri.format.QuantityFormat;
+import tec.units.ri.quantity.Quantities;
+import tec.units.ri.spi.MetricsListener.Operation;
+import tec.units.ri.unit.ProductUnit;
+
+public class MetricsTest {
+
+  private MetricsListener previous;
+  private MetricsRecorder recorder;
+
+  @Before
+  public void init() {
+    previous = Metrics.listener();
+    recorder = new MetricsRecorder();
+    Metrics.setListener(recorder);
+  }
+
+  @After
+  public void restore() {
+    Metrics.setListener(previous);
+  }
+
+  @Test
+  public void testNoListenerByDefault() {
+    assertNull(previous);
+  }
+
+  @Test
+  public void testGetConverterTo() {
+    UnitConverter converter = KILO(METRE).getConverterTo(METRE);
+    assertEquals(1000.0, converter.convert(1.0), 0);
+    assertEquals(1, recorder.getCount(Operation.GET_CONVERTER));
+    assertEquals(0, recorder.getCount(Operation.CONVERT)); // Primitive conversions are not instrumented.
+    assertEquals(2000.0, converter.convert(Double.valueOf(2)).doubleValue(), 0);
+    assertEquals(1, recorder.getCount(Operation.CONVERT));
+  }
+
+  @Test
+  public void testUnitParse() {
+    assertEquals(KILO(METRE), AbstractUnit.parse("km"));
+    assertEquals(1, recorder.getCount(Operation.UNIT_PARSE));
+  }
+
+  @Test
+  public void testQuantityFormatAndParse() {
+    Quantity<Length> length = Quantities.getQuantity(10, METRE);
+    assertEquals("10 m", QuantityFormat.getInstance().format(length));
+    assertEquals(1, recorder.getCount(Operation.QUANTITY_FORMAT));
+    try {
+      QuantityFormat.getInstance().parse("10 m");
+    } catch (IllegalArgumentException e) {
+      // Number parsing is not supported by the default format.
+    }
+    assertEquals(1, recorder.getCount(Operation.QUANTITY_PARSE));
+  }
+
+  @Test
+  public void testCacheHitRates() {
+    assertTrue(Double.isNaN(recorder.getHitRate(Metrics.PREFIXED_UNITS)));
+    MEGA(GRAM);
+    recorder.reset();
+    MEGA(GRAM);
+    YOTTA(KATAL); // Not prefixed elsewhere.
+    assertEquals(1, recorder.getHits(Metrics.PREFIXED_UNITS));
+    assertEquals(1, recorder.getMisses(Metrics.PREFIXED_UNITS));
+    assertEquals(0.5, recorder.getHitRate(Metrics.PREFIXED_UNITS), 0);
+
+    ProductUnit<?> unit = (ProductUnit<?>) METRE.multiply(SECOND);
+    unit.getSystemConverter();
+    recorder.reset();
+    unit.getSystemConverter();
+    assertEquals(1, recorder.getHits(Metrics.SYSTEM_CONVERTERS));
+    assertEquals(0, recorder.getMisses(Metrics.SYSTEM_CONVERTERS));
+    assertEquals(1.0, recorder.getHitRate(Metrics.SYSTEM_CONVERTERS), 0);
+  }
+
+  @Test
+  public void testApplicationCache() throws InterruptedException {
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread() {
+        public void run() {
+          for (int i = 0; i < 1000; i++) {
+            recorder.cacheAccessed("application", (i & 1) == 0);
+          }
+        }
+      };
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(2000, recorder.getHits("application"));
+    assertEquals(2000, recorder.getMisses("application"));
+    recorder.reset();
+    assertTrue(Double.isNaN(recorder.getHitRate("application")));
+  }
+
+  @Test
+  public void testHistogram() {
+    MetricsRecorder.Histogram histogram = recorder.getHistogram(Operation.CONVERT);
+    assertEquals(0, histogram.getPercentileNanos(50));
+    recorder.operationCompleted(Operation.CONVERT, 0);
+    recorder.operationCompleted(Operation.CONVERT, 100);
+    recorder.operationCompleted(Operation.CONVERT, 1000);
+    recorder.operationCompleted(Operation.CONVERT, 5000);
+    assertEquals(4, histogram.getCount());
+    assertEquals(6100, histogram.getTotalNanos());
+    assertEquals(5000, histogram.getMaxNanos());
+    assertEquals(1525, histogram.getMeanNanos(), 0);
+    assertEquals(0, histogram.getPercentileNanos(25));
+    assertEquals(128, histogram.getPercentileNanos(50));
+    assertEquals(1024, histogram.getPercentileNanos(75));
+    assertEquals(5000, histogram.getPercentileNanos(100));
+    recorder.reset();
+    assertEquals(0, histogram.getCount());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPercentileOutOfRange() {
+    recorder.getHistogram(Operation.CONVERT).getPercentileNanos(101);
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.spi;
+
+import static org.junit.Assert.*;
+import static tec.units.ri.unit.MetricPrefix.*;
+import static tec.units.ri.unit.Units.*;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import tec.units.ri.AbstractUnit;
+import tec.units.ri.format.QuantityFormat;
+import tec.units.ri.quantity.Quantities;
+import tec.units.ri.spi.MetricsListener.Operation;
+
+public class SlowOperationLogTest {
+
+  private MetricsListener previous;
+  private MetricsRecorder recorder;
+  private SlowOperationLog log;
+
+  @Before
+  public void init() {
+    previous = Metrics.listener();
+    recorder = new MetricsRecorder();
+    log = new SlowOperationLog(recorder, Long.MAX_VALUE, 4);
+    Metrics.setListener(log);
+  }
+
+  @After
+  public void restore() {
+    Metrics.setListener(previous);
+  }
+
+  @Test
+  public void testFastOperationsNotRecorded() {
+    AbstractUnit.parse("km");
+    KILO(METRE).getConverterTo(METRE);
+    assertEquals(0, log.getEventCount());
+    assertEquals(1, recorder.getCount(Operation.UNIT_PARSE)); // Forwarded.
+  }
+
+  @Test
+  public void testSlowOperationsRecorded() {
+    log.setThreshold(Operation.GET_CONVERTER_ANY, 0);
+    log.setThreshold(Operation.UNIT_PARSE, 0);
+    log.setThreshold(Operation.QUANTITY_FORMAT, 0);
+    assertEquals(0, log.getThreshold(Operation.GET_CONVERTER_ANY));
+
+    KILO(METRE).getConverterTo(METRE); // Not traced.
+    try {
+      KILOGRAM.getConverterToAny(GRAM);
+    } catch (Exception e) {
+      fail(e.toString());
+    }
+    AbstractUnit.parse("km/h");
+    QuantityFormat.getInstance().format(Quantities.getQuantity(1, METRE));
+
+    List<SlowOperationLog.Event> events = log.getEvents();
+    assertEquals(3, events.size());
+    assertEquals(Operation.GET_CONVERTER_ANY, events.get(0).getOperation());
+    assertEquals(Operation.UNIT_PARSE, events.get(1).getOperation());
+    assertEquals(Operation.QUANTITY_FORMAT, events.get(2).getOperation());
+    assertTrue(events.get(0).getElapsedNanos() >= 0);
+    assertEquals(Thread.currentThread().getName(), events.get(0).getThreadName());
+  }
+
+  @Test
+  public void testBoundedEvents() {
+    for (int i = 0; i < 6; i++) {
+      log.operationCompleted(Operation.CONVERT, i);
+    }
+    assertEquals(0, log.getEventCount());
+    log.setThreshold(Operation.CONVERT, 3);
+    for (int i = 0; i < 10; i++) {
+      log.operationCompleted(Operation.CONVERT, i);
+    }
+    assertEquals(7, log.getEventCount());
+    List<SlowOperationLog.Event> events = log.getEvents();
+    assertEquals(4, events.size());
+    assertEquals(6, events.get(0).getElapsedNanos());
+    assertEquals(9, events.get(3).getElapsedNanos());
+    log.clear();
+    assertTrue(log.getEvents().isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeThreshold() {
+    log.setThreshold(Operation.CONVERT, -1);
+  }
+}
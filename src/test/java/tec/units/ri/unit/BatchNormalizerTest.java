@@ -0,0 +1,115 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.unit;
+
+import static org.junit.Assert.*;
+import static tec.units.ri.unit.MetricPrefix.*;
+import static tec.units.ri.unit.Units.*;
+
+import javax.measure.UnconvertibleException;
+import javax.measure.Unit;
+import javax.measure.quantity.Length;
+import javax.measure.quantity.Temperature;
+
+import org.junit.Test;
+
+public class BatchNormalizerTest {
+
+  @Test
+  public void testMixedUnits() {
+    BatchNormalizer<Length> normalizer = new BatchNormalizer<Length>(METRE);
+    double[] values = { 1, 2, 3, 4, 5, 6 };
+    Unit<?>[] units = { KILO(METRE), METRE, KILO(METRE), CENTI(METRE), METRE, KILO(METRE) };
+    double[] dest = new double[values.length];
+    assertEquals(3, normalizer.normalize(values, units, dest));
+    assertArrayEquals(new double[] { 1000, 2, 3000, 0.04, 5, 6000 }, dest, 1e-12);
+  }
+
+  @Test
+  public void testAffineInPlace() {
+    BatchNormalizer<Temperature> normalizer = new BatchNormalizer<Temperature>(KELVIN);
+    double[] values = { 0, 100, 300, -273.15 };
+    Unit<?>[] units = { CELSIUS, CELSIUS, KELVIN, CELSIUS };
+    assertEquals(2, normalizer.normalize(values, units, values));
+    assertArrayEquals(new double[] { 273.15, 373.15, 300, 0 }, values, 1e-9);
+  }
+
+  @Test
+  public void testUnitIds() {
+    UnitDictionary dictionary = UnitDictionary.getInstance();
+    int km = dictionary.register(KILO(METRE));
+    int mm = dictionary.register(MILLI(METRE));
+    BatchNormalizer<Length> normalizer = new BatchNormalizer<Length>(METRE, dictionary);
+    double[] dest = new double[4];
+    assertEquals(2, normalizer.normalize(new double[] { 1, 1, 2, 2 }, new int[] { km, mm, mm, km }, dest));
+    assertArrayEquals(new double[] { 1000, 0.001, 0.002, 2000 }, dest, 1e-12);
+  }
+
+  @Test
+  public void testIncompatibleUnitLeavesDestination() {
+    BatchNormalizer<Length> normalizer = new BatchNormalizer<Length>(METRE);
+    double[] dest = { -1, -1 };
+    try {
+      normalizer.normalize(new double[] { 1, 2 }, new Unit<?>[] { METRE, SECOND }, dest);
+      fail();
+    } catch (UnconvertibleException e) {
+      assertArrayEquals(new double[] { -1, -1 }, dest, 0);
+    }
+  }
+
+  @Test
+  public void testManySourceUnits() {
+    BatchNormalizer<Length> normalizer = new BatchNormalizer<Length>(METRE);
+    int n = 3 * BatchNormalizer.MAX_CONVERSIONS;
+    double[] values = new double[n];
+    Unit<?>[] units = new Unit<?>[n];
+    for (int i = 0; i < n; i++) {
+      values[i] = 1;
+      units[i] = METRE.multiply(i % (2 * BatchNormalizer.MAX_CONVERSIONS) + 2);
+    }
+    double[] dest = new double[n];
+    for (int batch = 0; batch < 2; batch++) { // Correct after conversions are evicted.
+      assertEquals(2 * BatchNormalizer.MAX_CONVERSIONS, normalizer.normalize(values, units, dest));
+      for (int i = 0; i < n; i++) {
+        assertEquals(i % (2 * BatchNormalizer.MAX_CONVERSIONS) + 2, dest[i], 1e-9);
+      }
+    }
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testUnknownId() {
+    new BatchNormalizer<Length>(METRE).normalize(new double[] { 1 }, new int[] { -1 }, new double[1]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testLengthMismatch() {
+    new BatchNormalizer<Length>(METRE).normalize(new double[2], new Unit<?>[1], new double[2]);
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.unit;
+
+import static org.junit.Assert.*;
+import static tec.units.ri.unit.MetricPrefix.*;
+import static tec.units.ri.unit.Units.*;
+
+import java.util.Arrays;
+
+import javax.measure.Unit;
+
+import org.junit.Test;
+
+public class ConversionMatrixTest {
+
+  @Test
+  public void testPower() {
+    ConversionMatrix matrix = ConversionMatrix.of(Arrays.asList(WATT, KILO(WATT), MEGA(WATT), JOULE.divide(SECOND)));
+    int kW = matrix.getId(KILO(WATT));
+    int MW = matrix.getId(MEGA(WATT));
+    int W = matrix.getId(WATT);
+    assertEquals(12.3, matrix.convert(kW, MW, 12300), 1e-12);
+    assertEquals(12300000, matrix.convert(MW, W, 12.3), 1e-6);
+    assertEquals(5, matrix.convert(W, W, 5), 0);
+    double[] values = { 1, 2, 3 };
+    matrix.convert(kW, W, values, values);
+    assertArrayEquals(new double[] { 1000, 2000, 3000 }, values, 1e-9);
+  }
+
+  @Test
+  public void testTemperature() {
+    ConversionMatrix matrix = ConversionMatrix.of(Units.getInstance(), KELVIN.getDimension());
+    int C = matrix.getId(CELSIUS);
+    int K = matrix.getId(KELVIN);
+    assertTrue(matrix.contains(C) && matrix.contains(K));
+    assertEquals(293.15, matrix.convert(C, K, 20), 1e-9);
+    assertEquals(-273.15, matrix.convert(K, C, 0), 1e-9);
+    assertEquals(ConversionMatrix.UNKNOWN, matrix.getId(MILLI(KELVIN)));
+    ConversionMatrix withMilli = ConversionMatrix.of(Arrays.<Unit<?>> asList(CELSIUS, KELVIN, MILLI(KELVIN)));
+    assertEquals(CELSIUS.getConverterTo(MILLI(KELVIN)).convert(20), withMilli.convert(withMilli.getId(CELSIUS), withMilli.getId(MILLI(KELVIN)),
+        20), 1e-6);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownUnit() {
+    ConversionMatrix matrix = ConversionMatrix.of(Arrays.asList(WATT, KILO(WATT)));
+    matrix.convert(matrix.getId(WATT), matrix.getId(METRE), 1);
+  }
+
+  @Test
+  public void testUnknownIds() {
+    ConversionMatrix system = ConversionMatrix.of(Units.getInstance(), WATT.getDimension());
+    int kW = system.getId(KILO(WATT)); // Prefixed units are not in the system.
+    assertEquals(ConversionMatrix.UNKNOWN, kW);
+    try {
+      system.convert(kW, system.getId(WATT), 12300);
+      fail("UNKNOWN identifier accepted");
+    } catch (IllegalArgumentException e) {
+      // Expected.
+    }
+    try {
+      system.convert(system.getId(WATT), kW, new double[1], new double[1]);
+      fail("UNKNOWN identifier accepted");
+    } catch (IllegalArgumentException e) {
+      // Expected.
+    }
+  }
+
+  @Test
+  public void testPrivateIds() {
+    Unit<?> chain = METRE.multiply(20.1168);
+    ConversionMatrix matrix = ConversionMatrix.of(Arrays.<Unit<?>> asList(METRE, chain, METRE));
+    assertEquals(Arrays.<Unit<?>> asList(METRE, chain), matrix.getUnits());
+    assertEquals(1, matrix.getId(chain));
+    assertEquals(UnitDictionary.UNKNOWN, UnitDictionary.getInstance().getId(chain)); // Not registered globally.
+    assertEquals(20.1168, matrix.convert(1, 0, 1), 1e-12);
+  }
+
+  @Test
+  public void testExactScale() {
+    Unit<?> fahrenheit = KELVIN.multiply(5).divide(9).shift(459.67);
+    ConversionMatrix matrix = ConversionMatrix.of(Arrays.<Unit<?>> asList(KELVIN, fahrenheit));
+    assertEquals(5.0 / 9, matrix.getScale(1, 0), 0);
+  }
+}
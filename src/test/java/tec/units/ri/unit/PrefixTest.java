@@ -30,7 +30,11 @@
 package tec.units.ri.unit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static tec.units.ri.unit.MetricPrefix.*;
+import static tec.units.ri.unit.Units.AMPERE;
 import static tec.units.ri.unit.Units.GRAM;
 import static tec.units.ri.unit.Units.KILOGRAM;
 import static tec.units.ri.unit.Units.LITRE;
@@ -39,6 +43,7 @@ import static tec.units.ri.unit.Units.METRE;
 import javax.measure.Quantity;
 import javax.measure.Unit;
 import javax.measure.UnitConverter;
+import javax.measure.quantity.Length;
 import javax.measure.quantity.Mass;
 import javax.measure.quantity.Volume;
 
@@ -107,4 +112,27 @@ public class PrefixTest {
     UnitConverter conv = KILO(METRE).getConverterTo(GIGA(METRE));
     assertEquals(RationalConverter.of(1d, 1000000d), conv);
   }
+
+  @Test
+  public void testPrefixedUnitCached() {
+    assertSame(MILLI(AMPERE), MILLI(AMPERE));
+    assertSame(KILO(METRE), KILO.prefix(METRE));
+  }
+
+  @Test
+  public void testReverseLookup() {
+    Unit<?> microMetre = MICRO(METRE);
+    assertSame(MICRO, prefixOf(microMetre));
+    assertSame(METRE, baseOf(MICRO(METRE)));
+    assertNull(prefixOf(METRE));
+    assertNull(baseOf(METRE));
+  }
+
+  @Test
+  public void testApplicationUnitNotCached() {
+    Unit<Length> furlong = METRE.multiply(201.168);
+    assertEquals(KILO(furlong), KILO(furlong));
+    assertNotSame(KILO(furlong), KILO(furlong));
+    assertNull(prefixOf(KILO(furlong)));
+  }
 }
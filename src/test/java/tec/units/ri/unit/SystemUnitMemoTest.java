@@ -0,0 +1,107 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.unit;
+
+import static org.junit.Assert.*;
+import static tec.units.ri.unit.MetricPrefix.*;
+import static tec.units.ri.unit.Units.*;
+
+import javax.measure.Unit;
+import javax.measure.UnitConverter;
+
+import org.junit.Test;
+
+import tec.units.ri.AbstractUnit;
+
+public class SystemUnitMemoTest {
+
+  /**
+   * Returns a new instance equal to the specified unit, whose system unit, converter and dimension have never been computed.
+   */
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  private static AbstractUnit<?> copyOf(Unit<?> unit) {
+    if (unit instanceof TransformedUnit) {
+      TransformedUnit<?> transformed = (TransformedUnit<?>) unit;
+      return new TransformedUnit(transformed.getParentUnit(), transformed.getConverter());
+    }
+    if (unit instanceof ProductUnit && !unit.equals(AbstractUnit.ONE))
+      return (AbstractUnit<?>) AbstractUnit.ONE.multiply(unit);
+    return (AbstractUnit<?>) unit;
+  }
+
+  @Test
+  public void testIdenticalResults() {
+    double[] values = { -1000, -1, 0, 0.5, 1, 42, 1e6 };
+    for (Unit<?> unit : UnitDictionary.getInstance().getUnits()) {
+      AbstractUnit<?> cached = (AbstractUnit<?>) unit;
+      AbstractUnit<?> fresh = copyOf(unit);
+      assertEquals(unit.toString(), fresh, cached);
+      assertEquals(unit.toString(), fresh.getSystemUnit(), cached.getSystemUnit());
+      assertEquals(unit.toString(), fresh.getDimension(), cached.getDimension());
+      assertEquals(unit.toString(), fresh.isSystemUnit(), cached.isSystemUnit());
+      UnitConverter freshConverter;
+      try {
+        freshConverter = fresh.getSystemConverter();
+      } catch (UnsupportedOperationException e) {
+        continue; // Fractional exponents, see testNotCachedWhenUnsupported.
+      }
+      UnitConverter cachedConverter = cached.getSystemConverter();
+      assertEquals(unit.toString(), freshConverter, cachedConverter);
+      for (double value : values) {
+        assertEquals(unit.toString(), freshConverter.convert(value), cachedConverter.convert(value), 0);
+      }
+    }
+  }
+
+  @Test
+  public void testComputedOnce() {
+    Unit<?>[] units = { KILO(WATT), CELSIUS, MILLI(CELSIUS), METRES_PER_SQUARE_SECOND, KILOMETRES_PER_HOUR, LITRE, NEWTON };
+    for (Unit<?> unit : units) {
+      AbstractUnit<?> u = (AbstractUnit<?>) unit;
+      assertSame(u.getSystemConverter(), u.getSystemConverter());
+      assertSame(u.getSystemUnit(), u.getSystemUnit());
+      assertSame(u.getDimension(), u.getDimension());
+    }
+    assertSame(METRES_PER_SECOND, METRES_PER_SECOND.getSystemUnit());
+  }
+
+  @Test
+  public void testNotCachedWhenUnsupported() {
+    AbstractUnit<?> root = (AbstractUnit<?>) KILO(METRE).root(2);
+    for (int i = 0; i < 2; i++) {
+      try {
+        root.getSystemConverter();
+        fail();
+      } catch (UnsupportedOperationException e) {
+        // Expected each time.
+      }
+    }
+  }
+}
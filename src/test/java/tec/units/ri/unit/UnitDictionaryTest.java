@@ -0,0 +1,123 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.unit;
+
+import static org.junit.Assert.*;
+import static tec.units.ri.unit.MetricPrefix.*;
+import static tec.units.ri.unit.Units.*;
+
+import java.util.concurrent.CountDownLatch;
+
+import javax.measure.Unit;
+
+import org.junit.Test;
+
+import tec.units.ri.format.SimpleUnitFormat;
+
+public class UnitDictionaryTest {
+
+  @Test
+  public void testBuiltInUnits() {
+    UnitDictionary dictionary = UnitDictionary.getInstance();
+    for (Unit<?> unit : new Unit<?>[] { METRE, KILOGRAM, CELSIUS, LITRE, KILO(WATT), MILLI(AMPERE), MICRO(GRAM), NANO(LITRE) }) {
+      int id = dictionary.getId(unit);
+      assertTrue(unit.toString(), id >= 0);
+      assertTrue(id < Short.MAX_VALUE);
+      assertEquals(unit, dictionary.getUnit(id));
+    }
+    assertEquals(0, dictionary.getId(ONE));
+    assertEquals(dictionary.getId(KILO(WATT)), dictionary.getId(KILO(WATT)));
+    assertEquals(dictionary.size(), dictionary.getUnits().size());
+  }
+
+  @Test
+  public void testFixedIds() {
+    UnitDictionary dictionary = UnitDictionary.getInstance();
+    SimpleUnitFormat.getInstance().label(METRE.multiply(0.9144), "yd"); // Labelling does not shift the identifiers.
+    assertEquals(5, dictionary.getId(METRE));
+    assertEquals(42, dictionary.getId(YEAR));
+    assertEquals(550, dictionary.getId(KILO(WATT)));
+    assertEquals(4, dictionary.getId(KILO(GRAM))); // The kilogram.
+    assertEquals(635, dictionary.getId(NANO(LITRE)));
+    assertEquals(UnitDictionary.UNKNOWN, dictionary.getId(METRE.multiply(0.9144)));
+  }
+
+  @Test
+  public void testRegister() {
+    UnitDictionary dictionary = UnitDictionary.getInstance();
+    Unit<?> furlong = METRE.multiply(201.168);
+    assertEquals(UnitDictionary.UNKNOWN, dictionary.getId(furlong));
+    int size = dictionary.size();
+    int id = dictionary.register(furlong);
+    assertEquals(size, id);
+    assertEquals(id, dictionary.register(METRE.multiply(201.168)));
+    assertEquals(id, dictionary.getId(furlong));
+    assertSame(furlong, dictionary.getUnit(id));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testUnknownId() {
+    UnitDictionary.getInstance().getUnit(Integer.MAX_VALUE);
+  }
+
+  @Test
+  public void testConcurrentRegister() throws InterruptedException {
+    final UnitDictionary dictionary = UnitDictionary.getInstance();
+    final int size = dictionary.size();
+    final CountDownLatch start = new CountDownLatch(1);
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread() {
+        public void run() {
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            return;
+          }
+          for (int i = 0; i < 50; i++) {
+            dictionary.register(SECOND.multiply(1000.5 + i));
+          }
+        }
+      };
+      threads[t].start();
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(size + 50, dictionary.size());
+    for (int i = 0; i < 50; i++) {
+      Unit<?> unit = SECOND.multiply(1000.5 + i);
+      int id = dictionary.getId(unit);
+      assertTrue(id >= size && id < size + 50); // Dense, no slot lost to a race.
+      assertEquals(unit, dictionary.getUnit(id));
+    }
+  }
+}
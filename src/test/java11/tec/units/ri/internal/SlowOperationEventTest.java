@@ -0,0 +1,101 @@
+/*
+ * Units of Measurement Reference Implementation
+ * Copyright (c) 2005-2016, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.units.ri.internal;
+
+import static org.junit.Assert.*;
+import static tec.units.ri.unit.MetricPrefix.*;
+import static tec.units.ri.unit.Units.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.Test;
+
+import tec.units.ri.spi.Metrics;
+import tec.units.ri.spi.MetricsListener;
+import tec.units.ri.spi.MetricsListener.Operation;
+import tec.units.ri.spi.SlowOperationLog;
+
+/**
+ * Records the slow operation events through the JDK Flight Recorder (Java SE 11 and later).
+ */
+public class SlowOperationEventTest {
+
+  /**
+   * The implementation expected for the layer under test, set by the multi-release build.
+   */
+  private static final String EXPECTED = System.getProperty("tec.units.ri.eventImplementation");
+
+  @Test
+  public void testImplementation() {
+    if (EXPECTED != null)
+      assertEquals(EXPECTED, SlowOperationEvent.getImplementation());
+  }
+
+  @Test
+  public void testRecording() throws Exception {
+    if (!"jfr".equals(SlowOperationEvent.getImplementation()))
+      return; // Base layer, nothing is emitted.
+    SlowOperationLog log = new SlowOperationLog(null, Long.MAX_VALUE, 4);
+    log.setThreshold(Operation.GET_CONVERTER_ANY, 0);
+    MetricsListener previous = Metrics.listener();
+    Path file = Files.createTempFile("slow-operations", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable("tec.units.ri.SlowOperation");
+      recording.start();
+      Metrics.setListener(log);
+      try {
+        KILO(METRE).getConverterToAny(MILLI(METRE));
+      } finally {
+        Metrics.setListener(previous);
+      }
+      recording.stop();
+      recording.dump(file);
+      List<RecordedEvent> events = new ArrayList<>();
+      for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+        if (event.getEventType().getName().equals("tec.units.ri.SlowOperation"))
+          events.add(event);
+      }
+      assertEquals(log.getEventCount(), events.size());
+      RecordedEvent event = events.get(0);
+      assertEquals("GET_CONVERTER_ANY", event.getString("operation"));
+      assertEquals(0, event.getDuration("threshold").toNanos());
+      assertEquals(log.getEvents().get(0).getElapsedNanos(), event.getDuration("elapsed").toNanos());
+    } finally {
+      Files.delete(file);
+    }
+  }
+}